@@ -0,0 +1,84 @@
+package com.iss.linechart.core;
+
+/**
+ * 自动计算图表数值范围,范围取整到1、2、2.5、5乘以10的整数次幂,并留出一定余量。
+ * 数据超出范围时立即扩大,数据范围缩小到不足一半时才缩小,避免数据小幅波动时坐标反复变化
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-14]
+ */
+public final class AutoRange {
+
+    /** 范围相对数据的余量 */
+    private static final float HEADROOM = 0.1F;
+
+    /** 新范围小于当前范围的此比例时才缩小 */
+    private static final float SHRINK_RATIO = 0.5F;
+
+    /** 取整使用的尾数 */
+    private static final float[] NICE_STEPS = { 1F, 2F, 2.5F, 5F, 10F };
+
+    /** 当前范围最小值 */
+    private float min;
+
+    /** 当前范围最大值 */
+    private float max;
+
+    public AutoRange(float min, float max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+     * 根据数据的最小值和最大值更新范围
+     *
+     * @param dataMin 数据最小值
+     * @param dataMax 数据最大值
+     * @return 范围是否发生变化
+     * @author hubing
+     */
+    public boolean update(float dataMin, float dataMax) {
+        // 数据不含负数时范围从0开始
+        float newMin = dataMin >= 0 ? 0 : -niceCeil(-dataMin * (1 + HEADROOM));
+        float newMax = dataMax <= 0 ? 0 : niceCeil(dataMax * (1 + HEADROOM));
+        if (newMax <= newMin) {
+            newMax = newMin + 1;
+        }
+        boolean overflow = dataMin < min || dataMax > max;
+        boolean shrink = newMax - newMin < (max - min) * SHRINK_RATIO;
+        if (!overflow && !shrink || newMin == min && newMax == max) {
+            return false;
+        }
+        min = newMin;
+        max = newMax;
+        return true;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    /**
+     * 向上取整到1、2、2.5、5乘以10的整数次幂
+     *
+     * @param value 正数
+     * @return
+     * @author hubing
+     */
+    static float niceCeil(float value) {
+        double magnitude = Math.pow(10, Math.floor(Math.log10(value)));
+        for (int i = 0; i < NICE_STEPS.length; i++) {
+            // 按取整后的float比较,value / magnitude的舍入误差会把正好为取整值的数推到下一档
+            float nice = (float) (NICE_STEPS[i] * magnitude);
+            if (nice >= value) {
+                return nice;
+            }
+        }
+        return (float) (10 * magnitude);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.iss.linechart.core;
+
+/**
+ * 图表坐标背景的布局计算,计算坐标背景线和左侧参考圆点的位置
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+public final class ChartGrid {
+
+    private ChartGrid() {
+    }
+
+    /**
+     * 计算坐标背景线位置,背景线在左右边界之间均匀分布,贯穿整个高度
+     *
+     * @param out 输出的端点数组,每条背景线依次保存startX, startY, endX, endY,长度不小于count * 4
+     * @param count 背景线条数,不小于2
+     * @param left 左边界
+     * @param right 右边界
+     * @param height 背景线高度
+     * @author hubing
+     */
+    public static void verticalLines(float[] out, int count, int left, int right, int height) {
+        // 计算区间宽度
+        float lineSpace = (float) (right - left) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            int startX = left + (int) (i * lineSpace);
+            out[i * 4] = startX;
+            out[i * 4 + 1] = 0;
+            out[i * 4 + 2] = startX;
+            out[i * 4 + 3] = height;
+        }
+    }
+
+    /**
+     * 计算左侧参考圆点位置,每个圆点的y坐标按{@link LineGeometry#valueToY}由对应的刻度值换算,
+     * 与线条的数据点使用同一映射,刻度值与圆点处的线条高度一致
+     *
+     * @param out 输出的坐标数组,每个圆点依次保存x, y,长度不小于count * 2
+     * @param values 刻度值,由{@link #tickValues}计算
+     * @param count 圆点个数,不小于2
+     * @param x 圆点x坐标
+     * @param chartHeight 图表显示高度
+     * @param minValue 计算刻度值时的最小值
+     * @param maxValue 计算刻度值时的最大值
+     * @author hubing
+     */
+    public static void verticalCircles(float[] out, float[] values, int count, int x, float chartHeight, float minValue,
+            float maxValue) {
+        for (int i = 0; i < count; i++) {
+            out[i * 2] = x;
+            out[i * 2 + 1] = LineGeometry.valueToY(values[i], chartHeight, minValue, maxValue);
+        }
+    }
+
+    /**
+     * 计算左侧参考圆点对应的刻度值,与{@link #verticalCircles}的圆点一一对应,从上到下由最大值递减到最小值
+     *
+     * @param out 输出的刻度值数组,长度不小于count
+     * @param count 圆点个数,不小于2
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public static void tickValues(float[] out, int count, float minValue, float maxValue) {
+        float step = (maxValue - minValue) / (count - 1);
+        for (int i = 0; i < count; i++) {
+            out[i] = maxValue - i * step;
+        }
+        // 避免累计误差,最后一个刻度正好是最小值
+        out[count - 1] = minValue;
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.iss.linechart.core;
+
+/**
+ * 控件和{@link ChartSnapshot}共用的绘制过程:坐标背景、刻度值、图例和面积填充的颜色,
+ * 都通过{@link ChartRenderer}绘制,保证导出的图片与控件显示一致
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public final class ChartPainter {
+
+    /** 面积填充渐变顶部的透明度,向底部渐变为全透明 */
+    public static final int FILL_TOP_ALPHA = 0x66;
+
+    private ChartPainter() {
+    }
+
+    /**
+     * 获取面积填充渐变顶部的颜色,为半透明的线条颜色
+     *
+     * @param color 线条颜色
+     * @return
+     * @author hubing
+     */
+    public static int fillTopColor(int color) {
+        return (color & 0x00FFFFFF) | (FILL_TOP_ALPHA << 24);
+    }
+
+    /**
+     * 获取面积填充渐变底部的颜色,为全透明的线条颜色
+     *
+     * @param color 线条颜色
+     * @return
+     * @author hubing
+     */
+    public static int fillBottomColor(int color) {
+        return color & 0x00FFFFFF;
+    }
+
+    /**
+     * 绘制坐标背景线和左侧参考圆点
+     *
+     * @param renderer
+     * @param lines 坐标背景线端点,格式同{@link ChartGrid#verticalLines}
+     * @param lineCount 背景线条数
+     * @param circles 左侧参考圆点坐标,格式同{@link ChartGrid#verticalCircles}
+     * @param circleCount 参考圆点个数
+     * @param lineWidth 线宽
+     * @param circleRadius 圆点半径
+     * @param coordinateColor 坐标背景线颜色
+     * @param referColor 参考圆点颜色
+     * @author hubing
+     */
+    public static void drawGrid(ChartRenderer renderer, float[] lines, int lineCount, float[] circles, int circleCount, float lineWidth,
+            float circleRadius, int coordinateColor, int referColor) {
+        renderer.drawLines(lines, 0, lineCount * 4, coordinateColor, lineWidth);
+        renderer.drawCircles(circles, 0, circleCount * 2, circleRadius, referColor);
+    }
+
+    /**
+     * 绘制左侧参考圆点对应的刻度值,右对齐在right处,与圆点垂直居中,宽度超过right的不显示
+     *
+     * @param renderer
+     * @param text 刻度值文本,第i个从i * stride开始
+     * @param stride 相邻两个刻度值文本的间隔
+     * @param lengths 刻度值文本长度
+     * @param widths 刻度值文本宽度
+     * @param circles 左侧参考圆点坐标
+     * @param count 刻度值个数
+     * @param right 刻度值右边界
+     * @param textSize 字号(像素)
+     * @param color 颜色
+     * @author hubing
+     */
+    public static void drawTickLabels(ChartRenderer renderer, char[] text, int stride, int[] lengths, float[] widths, float[] circles,
+            int count, float right, float textSize, int color) {
+        float centerOffset = renderer.getTextCenterOffset(textSize);
+        for (int i = 0; i < count; i++) {
+            if (widths[i] > right) {
+                // 左侧空间不足时不显示
+                continue;
+            }
+            float y = circles[i * 2 + 1] - centerOffset;
+            renderer.drawText(text, i * stride, lengths[i], right, y, textSize, color, ChartRenderer.ALIGN_RIGHT);
+        }
+    }
+
+    /**
+     * 计算文本的行高,由上边界和垂直中心推算出下边界
+     *
+     * @param renderer
+     * @param textSize 字号(像素)
+     * @return
+     * @author hubing
+     */
+    public static float textLineHeight(ChartRenderer renderer, float textSize) {
+        return (renderer.getTextAscent(textSize) + renderer.getTextCenterOffset(textSize)) * 2;
+    }
+
+    /**
+     * 从左到右排列图例,超出宽度时换行。每项为边长swatch的颜色方块加名称,第一行的基线在swatch处
+     *
+     * @param nameWidths 各项名称的宽度
+     * @param count 图例项数
+     * @param swatch 颜色方块边长,即文本上边界到基线的距离
+     * @param rowHeight 行高
+     * @param left 左边界
+     * @param right 右边界
+     * @param outXs 输出各项的左边界
+     * @param outYs 输出各项的基线y坐标
+     * @author hubing
+     */
+    public static void layoutLegend(float[] nameWidths, int count, float swatch, float rowHeight, float left, float right, float[] outXs,
+            float[] outYs) {
+        float x = left;
+        float y = swatch;
+        for (int i = 0; i < count; i++) {
+            float width = swatch * 1.5F + nameWidths[i];
+            if (x > left && x + width > right) {
+                x = left;
+                y += rowHeight;
+            }
+            outXs[i] = x;
+            outYs[i] = y;
+            x += width + swatch * 2;
+        }
+    }
+
+    /**
+     * 绘制一项图例:线条颜色的方块和名称
+     *
+     * @param renderer
+     * @param name 名称
+     * @param x 左边界
+     * @param y 基线y坐标
+     * @param swatch 颜色方块边长
+     * @param color 线条颜色
+     * @param textSize 字号(像素)
+     * @param textColor 名称颜色
+     * @author hubing
+     */
+    public static void drawLegendItem(ChartRenderer renderer, char[] name, float x, float y, float swatch, int color, float textSize,
+            int textColor) {
+        renderer.drawRect(x, y - swatch, x + swatch, y, color);
+        renderer.drawText(name, 0, name.length, x + swatch * 1.5F, y, textSize, textColor, ChartRenderer.ALIGN_LEFT);
+    }
+
+}
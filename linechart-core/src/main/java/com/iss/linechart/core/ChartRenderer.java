@@ -0,0 +1,148 @@
+package com.iss.linechart.core;
+
+/**
+ * 图表绘制接口,只包含图表用到的绘制操作,坐标和数组格式与android.graphics.Canvas一致。
+ * Android上由Canvas实现,普通JVM上可以用Java2D等实现,同一份{@link ChartSnapshot}可以绘制到任意实现上
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-27]
+ */
+public interface ChartRenderer {
+
+    /** 文本左对齐,x为文本左边界 */
+    int ALIGN_LEFT = 0;
+
+    /** 文本居中,x为文本中心 */
+    int ALIGN_CENTER = 1;
+
+    /** 文本右对齐,x为文本右边界 */
+    int ALIGN_RIGHT = 2;
+
+    /**
+     * 绘制多条独立的线段,线段端点为圆头
+     *
+     * @param pts 端点数组,每条线段依次保存startX, startY, endX, endY
+     * @param offset 起始位置
+     * @param count 使用的float个数,为4的倍数
+     * @param color 颜色
+     * @param strokeWidth 线宽
+     * @author hubing
+     */
+    void drawLines(float[] pts, int offset, int count, int color, float strokeWidth);
+
+    /**
+     * 绘制依次连接各点的折线,拐角为圆角
+     *
+     * @param xs x坐标数组
+     * @param ys y坐标数组
+     * @param from 起始点
+     * @param count 点数
+     * @param color 颜色
+     * @param strokeWidth 线宽
+     * @author hubing
+     */
+    void drawPolyline(float[] xs, float[] ys, int from, int count, int color, float strokeWidth);
+
+    /**
+     * 填充折线与底边之间的区域,颜色从y为0处的topColor纵向渐变到y为bottom处的bottomColor
+     *
+     * @param xs x坐标数组
+     * @param ys y坐标数组
+     * @param from 起始点
+     * @param count 点数
+     * @param bottom 底边y坐标
+     * @param topColor 顶部颜色
+     * @param bottomColor 底部颜色
+     * @author hubing
+     */
+    void drawArea(float[] xs, float[] ys, int from, int count, float bottom, int topColor, int bottomColor);
+
+    /**
+     * 绘制多个实心圆
+     *
+     * @param pts 圆心数组,每个圆依次保存x, y
+     * @param offset 起始位置
+     * @param count 使用的float个数,为2的倍数
+     * @param radius 半径
+     * @param color 颜色
+     * @author hubing
+     */
+    void drawCircles(float[] pts, int offset, int count, float radius, int color);
+
+    /**
+     * 绘制实心矩形
+     *
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param color 颜色
+     * @author hubing
+     */
+    void drawRect(float left, float top, float right, float bottom, int color);
+
+    /**
+     * 绘制文本
+     *
+     * @param text 字符数组
+     * @param offset 起始位置
+     * @param length 字符个数
+     * @param x 按align对齐的x坐标
+     * @param y 基线y坐标
+     * @param textSize 字号(像素)
+     * @param color 颜色
+     * @param align 对齐方式,{@link #ALIGN_LEFT}、{@link #ALIGN_CENTER}或{@link #ALIGN_RIGHT}
+     * @author hubing
+     */
+    void drawText(char[] text, int offset, int length, float x, float y, float textSize, int color, int align);
+
+    /**
+     * 测量文本宽度
+     *
+     * @param text 字符数组
+     * @param offset 起始位置
+     * @param length 字符个数
+     * @param textSize 字号(像素)
+     * @return
+     * @author hubing
+     */
+    float measureText(char[] text, int offset, int length, float textSize);
+
+    /**
+     * 获取文本上边界到基线的距离,为正数
+     *
+     * @param textSize 字号(像素)
+     * @return
+     * @author hubing
+     */
+    float getTextAscent(float textSize);
+
+    /**
+     * 获取文本垂直中心相对基线的偏移,基线y坐标加上此值即为文本中心,通常为负数
+     *
+     * @param textSize 字号(像素)
+     * @return
+     * @author hubing
+     */
+    float getTextCenterOffset(float textSize);
+
+    /**
+     * 开始一个图层,之后的绘制只在矩形范围内生效,{@link #restoreLayer()}时按透明度合成到下层
+     *
+     * @param left
+     * @param top
+     * @param right
+     * @param bottom
+     * @param alpha 图层透明度,0到255
+     * @author hubing
+     */
+    void saveLayer(float left, float top, float right, float bottom, int alpha);
+
+    /**
+     * 结束最近开始的图层
+     *
+     * @author hubing
+     */
+    void restoreLayer();
+
+}
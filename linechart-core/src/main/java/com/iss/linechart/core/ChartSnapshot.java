@@ -0,0 +1,494 @@
+package com.iss.linechart.core;
+
+import java.util.ArrayList;
+
+/**
+ * 图表某一时刻显示内容的快照:坐标背景线、左侧参考圆点和刻度值,各线条已计算好的绘制坐标,以及面积填充和图例。
+ * 创建时只复制已缓存的坐标和控制点,不重新布局和计算;创建后与数据源无关,可以在任意线程绘制到任意{@link ChartRenderer},
+ * 如在后台线程导出图片,或在普通JVM上绘制后逐像素比较。背景、刻度值和图例与控件共用{@link ChartPainter}的绘制过程
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-27]
+ */
+public final class ChartSnapshot {
+
+    /** 平滑曲线每段拆分成的折线段数 */
+    private static final int CURVE_STEPS = 8;
+
+    /** 图表宽度 */
+    private final int width;
+
+    /** 图表高度 */
+    private final int height;
+
+    /** 线宽 */
+    private float lineWidth = 3;
+
+    /** 圆点半径 */
+    private float circleRadius = 6;
+
+    /** 坐标背景线颜色 */
+    private int coordinateColor = 0xffeeeeee;
+
+    /** 参考圆点和刻度值颜色 */
+    private int referColor = 0xFF4cc2b6;
+
+    /** 刻度值字号(像素) */
+    private float tickTextSize = 20;
+
+    /** 坐标背景线端点,每条依次保存startX, startY, endX, endY */
+    private float[] gridLines = new float[0];
+
+    /** 左侧参考圆点坐标,每个依次保存x, y */
+    private float[] tickCircles = new float[0];
+
+    /** 参考圆点对应的刻度值 */
+    private float[] tickValues = new float[0];
+
+    /** 刻度值右边界 */
+    private float tickLabelRight;
+
+    /** 刻度值格式化 */
+    private ValueFormatter formatter = new ValueFormatter(0, null);
+
+    /** 是否只在clipLeft到clipRight之间绘制线条 */
+    private boolean isClipped;
+
+    private float clipLeft;
+
+    private float clipRight;
+
+    /** 是否在线条下方绘制面积填充 */
+    private boolean isAreaFill;
+
+    /** 面积填充的底边 */
+    private float fillBottom;
+
+    /** 是否在顶部绘制图例 */
+    private boolean isLegend;
+
+    /** 图例的左边界 */
+    private float legendLeft;
+
+    /** 图例的右边界 */
+    private float legendRight;
+
+    /** 图例字号(像素) */
+    private float legendTextSize;
+
+    /** 图例名称颜色 */
+    private int legendColor;
+
+    /** 按绘制顺序保存的线条 */
+    private final ArrayList<LineData> lines = new ArrayList<LineData>();
+
+    /**
+     * 构造方法
+     *
+     * @param width 图表宽度
+     * @param height 图表高度
+     */
+    public ChartSnapshot(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("非法的参数,width为: " + width + ", height为: " + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * 设置绘制样式
+     *
+     * @param lineWidth 线宽
+     * @param circleRadius 圆点半径
+     * @param coordinateColor 坐标背景线颜色
+     * @param referColor 参考圆点和刻度值颜色
+     * @param tickTextSize 刻度值字号(像素)
+     * @author hubing
+     */
+    public void setStyle(float lineWidth, float circleRadius, int coordinateColor, int referColor, float tickTextSize) {
+        this.lineWidth = lineWidth;
+        this.circleRadius = circleRadius;
+        this.coordinateColor = coordinateColor;
+        this.referColor = referColor;
+        this.tickTextSize = tickTextSize;
+    }
+
+    /**
+     * 设置坐标背景,数组内容被复制
+     *
+     * @param lines 坐标背景线端点,格式同{@link ChartGrid#verticalLines}
+     * @param lineCount 背景线条数
+     * @param circles 左侧参考圆点坐标,格式同{@link ChartGrid#verticalCircles}
+     * @param values 参考圆点对应的刻度值
+     * @param circleCount 参考圆点个数
+     * @param labelRight 刻度值右边界,刻度值宽度超过此值时不显示
+     * @param formatter 刻度值格式化,复制其小数位数和单位
+     * @author hubing
+     */
+    public void setGrid(float[] lines, int lineCount, float[] circles, float[] values, int circleCount, float labelRight,
+            ValueFormatter formatter) {
+        this.gridLines = copyOf(lines, lineCount * 4);
+        this.tickCircles = copyOf(circles, circleCount * 2);
+        this.tickValues = copyOf(values, circleCount);
+        this.tickLabelRight = labelRight;
+        this.formatter = new ValueFormatter(formatter.getDecimals(), formatter.getUnit());
+    }
+
+    /**
+     * 设置线条的水平绘制范围,缩放后视口两侧的点不显示
+     *
+     * @param left 左边界
+     * @param right 右边界
+     * @author hubing
+     */
+    public void setClip(float left, float right) {
+        isClipped = true;
+        clipLeft = left;
+        clipRight = right;
+    }
+
+    /**
+     * 设置在线条下方绘制面积填充,颜色从图表顶部的半透明线条颜色渐变到底边的全透明
+     *
+     * @param bottom 填充的底边,即图表高度
+     * @author hubing
+     */
+    public void setAreaFill(float bottom) {
+        isAreaFill = true;
+        fillBottom = bottom;
+    }
+
+    /**
+     * 设置在顶部绘制图例,按添加顺序排列有名称的线条
+     *
+     * @param left 左边界
+     * @param right 右边界,超出时换行
+     * @param textSize 字号(像素)
+     * @param textColor 名称颜色
+     * @author hubing
+     */
+    public void setLegend(float left, float right, float textSize, int textColor) {
+        isLegend = true;
+        legendLeft = left;
+        legendRight = right;
+        legendTextSize = textSize;
+        legendColor = textColor;
+    }
+
+    /**
+     * 添加一条没有名称的线条
+     *
+     * @param geometry 已计算好的几何数据
+     * @param color 线条颜色
+     * @param smooth 是否绘制为平滑曲线
+     * @author hubing
+     */
+    public void addLine(LineGeometry geometry, int color, boolean smooth) {
+        addLine(geometry, color, smooth, null);
+    }
+
+    /**
+     * 添加一条线条,复制几何数据当前的绘制坐标,正在变形的线条按当前帧的位置复制并按折线绘制
+     *
+     * @param geometry 已计算好的几何数据
+     * @param color 线条颜色
+     * @param smooth 是否绘制为平滑曲线,数据空白处断开
+     * @param name 在图例中显示的名称,为null时不显示在图例中
+     * @author hubing
+     */
+    public void addLine(LineGeometry geometry, int color, boolean smooth, String name) {
+        LineData line = new LineData();
+        int count = geometry.pointCount;
+        line.color = color;
+        line.pointCount = count;
+        line.name = name == null ? null : name.toCharArray();
+        line.points = copyShifted(geometry.points, geometry.offset * 2, count * 2, geometry.scrollX);
+        line.xs = new float[count];
+        line.ys = new float[count];
+        for (int i = 0; i < count; i++) {
+            line.xs[i] = geometry.getX(i);
+            line.ys[i] = geometry.getY(i);
+        }
+        if (geometry.hasBreaks) {
+            line.breaks = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                line.breaks[i] = geometry.isBreak(i);
+            }
+        }
+        if (smooth && count > 2 && !geometry.isMorphing()) {
+            // 复制几何数据缓存的控制点,与控件绘制的曲线一致,再拆分成折线,绘制时不依赖曲线接口
+            geometry.updateCurves();
+            float[] curves = copyShifted(geometry.curves, geometry.offset * 4, (count - 1) * 4, geometry.scrollX);
+            line.curveXs = new float[(count - 1) * CURVE_STEPS + 1];
+            line.curveYs = new float[line.curveXs.length];
+            flatten(line.xs, line.ys, curves, count, line.curveXs, line.curveYs);
+        } else {
+            line.segments = copyShifted(geometry.segments, geometry.offset * 4, Math.max(0, count - 1) * 4, geometry.scrollX);
+        }
+        lines.add(line);
+    }
+
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * 绘制快照,顺序与控件一致:先画坐标背景和刻度值,再画所有线条的面积填充,然后按添加顺序画线条和圆点,最后画图例
+     *
+     * @param renderer
+     * @author hubing
+     */
+    public void paint(ChartRenderer renderer) {
+        ChartPainter.drawGrid(renderer, gridLines, gridLines.length / 4, tickCircles, tickCircles.length / 2, lineWidth, circleRadius,
+                coordinateColor, referColor);
+        paintTickLabels(renderer);
+        if (isClipped) {
+            renderer.saveLayer(clipLeft, 0, clipRight, height, 255);
+        }
+        if (isAreaFill) {
+            for (int i = 0; i < lines.size(); i++) {
+                LineData line = lines.get(i);
+                if (line.pointCount > 1) {
+                    paintFill(renderer, line);
+                }
+            }
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            LineData line = lines.get(i);
+            if (line.curveXs != null) {
+                paintCurve(renderer, line);
+            } else {
+                renderer.drawLines(line.segments, 0, line.segments.length, line.color, lineWidth);
+            }
+            renderer.drawCircles(line.points, 0, line.pointCount * 2, circleRadius, line.color);
+        }
+        if (isClipped) {
+            renderer.restoreLayer();
+        }
+        if (isLegend) {
+            paintLegend(renderer);
+        }
+    }
+
+    /**
+     * 绘制刻度值,右对齐在tickLabelRight,与参考圆点垂直居中
+     *
+     * @param renderer
+     * @author hubing
+     */
+    private void paintTickLabels(ChartRenderer renderer) {
+        int stride = formatter.getMaxLength();
+        int count = tickValues.length;
+        char[] text = new char[stride * count];
+        int[] lengths = new int[count];
+        float[] widths = new float[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = formatter.format(tickValues[i], text, i * stride);
+            widths[i] = renderer.measureText(text, i * stride, lengths[i], tickTextSize);
+        }
+        ChartPainter.drawTickLabels(renderer, text, stride, lengths, widths, tickCircles, count, tickLabelRight, tickTextSize, referColor);
+    }
+
+    /**
+     * 绘制平滑曲线拆分后的折线,数据空白处断开
+     *
+     * @param renderer
+     * @param line
+     * @author hubing
+     */
+    private void paintCurve(ChartRenderer renderer, LineData line) {
+        int start = 0;
+        for (int i = 1; i <= line.pointCount; i++) {
+            if (i == line.pointCount || line.breaks != null && line.breaks[i]) {
+                renderer.drawPolyline(line.curveXs, line.curveYs, start * CURVE_STEPS, (i - 1 - start) * CURVE_STEPS + 1, line.color,
+                        lineWidth);
+                start = i;
+            }
+        }
+    }
+
+    /**
+     * 绘制线条下方的面积填充,与控件的填充路径一致,数据空白处沿底边跨过
+     *
+     * @param renderer
+     * @param line
+     * @author hubing
+     */
+    private void paintFill(ChartRenderer renderer, LineData line) {
+        boolean smooth = line.curveXs != null;
+        float[] xs = smooth ? line.curveXs : line.xs;
+        float[] ys = smooth ? line.curveYs : line.ys;
+        int topColor = ChartPainter.fillTopColor(line.color);
+        int bottomColor = ChartPainter.fillBottomColor(line.color);
+        if (line.breaks == null) {
+            renderer.drawArea(xs, ys, 0, xs.length, fillBottom, topColor, bottomColor);
+            return;
+        }
+        int steps = smooth ? CURVE_STEPS : 1;
+        float[] outXs = new float[xs.length + line.pointCount * 2];
+        float[] outYs = new float[outXs.length];
+        int n = 0;
+        for (int i = 0; i < line.pointCount; i++) {
+            boolean gap = i > 0 && line.breaks[i];
+            if (gap) {
+                outXs[n] = line.xs[i - 1];
+                outYs[n++] = fillBottom;
+                outXs[n] = line.xs[i];
+                outYs[n++] = fillBottom;
+            }
+            // 每个点之前一段拆分后的折线点,数据空白处只有点本身
+            int from = i == 0 || gap ? i * steps : (i - 1) * steps + 1;
+            for (int k = from; k <= i * steps; k++) {
+                outXs[n] = xs[k];
+                outYs[n++] = ys[k];
+            }
+        }
+        renderer.drawArea(outXs, outYs, 0, n, fillBottom, topColor, bottomColor);
+    }
+
+    /**
+     * 在顶部绘制图例,排列方式与控件一致
+     *
+     * @param renderer
+     * @author hubing
+     */
+    private void paintLegend(ChartRenderer renderer) {
+        int size = lines.size();
+        LineData[] items = new LineData[size];
+        float[] widths = new float[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            LineData line = lines.get(i);
+            if (line.name != null) {
+                items[count] = line;
+                widths[count] = renderer.measureText(line.name, 0, line.name.length, legendTextSize);
+                count++;
+            }
+        }
+        float swatch = renderer.getTextAscent(legendTextSize);
+        float rowHeight = ChartPainter.textLineHeight(renderer, legendTextSize);
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        ChartPainter.layoutLegend(widths, count, swatch, rowHeight, legendLeft, legendRight, xs, ys);
+        for (int i = 0; i < count; i++) {
+            ChartPainter.drawLegendItem(renderer, items[i].name, xs[i], ys[i], swatch, items[i].color, legendTextSize, legendColor);
+        }
+    }
+
+    /**
+     * 把三次贝塞尔曲线按参数均匀拆分成折线
+     *
+     * @param xs 绘制点x坐标
+     * @param ys 绘制点y坐标
+     * @param curves 控制点,格式同{@link MonotoneSpline#controlPoints}
+     * @param count 绘制点数
+     * @param outXs 输出的折线x坐标,长度不小于(count - 1) * CURVE_STEPS + 1
+     * @param outYs 输出的折线y坐标
+     * @author hubing
+     */
+    private static void flatten(float[] xs, float[] ys, float[] curves, int count, float[] outXs, float[] outYs) {
+        int n = 0;
+        outXs[n] = xs[0];
+        outYs[n++] = ys[0];
+        for (int i = 0; i < count - 1; i++) {
+            int o = i * 4;
+            for (int s = 1; s <= CURVE_STEPS; s++) {
+                float t = (float) s / CURVE_STEPS;
+                float u = 1 - t;
+                float a = u * u * u;
+                float b = 3 * u * u * t;
+                float c = 3 * u * t * t;
+                float d = t * t * t;
+                outXs[n] = a * xs[i] + b * curves[o] + c * curves[o + 2] + d * xs[i + 1];
+                outYs[n++] = a * ys[i] + b * curves[o + 1] + c * curves[o + 3] + d * ys[i + 1];
+            }
+        }
+    }
+
+    /**
+     * 复制顶点数组中从from开始的length个元素,x坐标加上dx
+     *
+     * @param source 顶点数组,依次保存x, y
+     * @param from 起始位置
+     * @param length 复制的元素个数
+     * @param dx x坐标的平移量
+     * @return
+     * @author hubing
+     */
+    private static float[] copyShifted(float[] source, int from, int length, float dx) {
+        float[] copy = new float[length];
+        if (length > 0) {
+            System.arraycopy(source, from, copy, 0, length);
+            for (int i = 0; i < length; i += 2) {
+                copy[i] += dx;
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * 复制数组的前length个元素,数组为null时返回空数组
+     *
+     * @param source
+     * @param length
+     * @return
+     * @author hubing
+     */
+    private static float[] copyOf(float[] source, int length) {
+        float[] copy = new float[length];
+        if (source != null && length > 0) {
+            System.arraycopy(source, 0, copy, 0, length);
+        }
+        return copy;
+    }
+
+    /**
+     * 快照中的一条线条
+     *
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-27]
+     */
+    static class LineData {
+
+        /** 线条颜色 */
+        public int color;
+
+        /** 绘制点数 */
+        public int pointCount;
+
+        /** 在图例中显示的名称,没有名称时为null */
+        public char[] name;
+
+        /** 绘制点x坐标 */
+        public float[] xs;
+
+        /** 绘制点y坐标 */
+        public float[] ys;
+
+        /** 数据空白标记,格式同{@link LineGeometry#breaks},没有数据空白时为null */
+        public boolean[] breaks;
+
+        /** 圆点坐标 */
+        public float[] points;
+
+        /** 直线线段端点,绘制为平滑曲线时为null */
+        public float[] segments;
+
+        /** 平滑曲线拆分后的折线x坐标,绘制为直线时为null */
+        public float[] curveXs;
+
+        /** 平滑曲线拆分后的折线y坐标 */
+        public float[] curveYs;
+
+    }
+
+}
@@ -0,0 +1,385 @@
+package com.iss.linechart.core;
+
+import java.util.Arrays;
+
+/**
+ * 内存中压缩保存的数据序列,只能追加。数据按块压缩,每块BLOCK_SIZE个数据:
+ * <pre>
+ * 块内第一个数据    时间戳64位,数据值32位,原样保存
+ * 之后每个数据的时间戳保存与上一个间隔的差值(delta-of-delta):
+ *   '0'                 差值为0
+ *   '10'   + 7位        差值在[-63, 64]
+ *   '110'  + 9位        差值在[-255, 256]
+ *   '1110' + 12位       差值在[-2047, 2048]
+ *   '1111' + 64位       其它
+ * 之后每个数据值保存与上一个值按位异或的结果:
+ *   '0'                 与上一个值相同
+ *   '10'   + 有效位     有效位落在上一次的前导零和末尾零之间,沿用上一次的位置
+ *   '11'   + 5位前导零数 + 5位有效位数减1 + 有效位
+ * </pre>
+ * 等间隔采样的时间戳每个只占1位,变化平缓的数据值通常只占十几位,相比long[]加float[]可以减少数倍内存。
+ * 读取时从所在块的开头顺序解码到复用的数组中,连续分段读取时接着上次的位置解码,不重复解码。
+ * 所有方法都加锁,可以在一个线程追加的同时在其它线程读取
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-26]
+ */
+public final class CompressedSeries implements SeriesSource {
+
+    /** 每块的数据个数 */
+    public static final int BLOCK_SIZE = 1024;
+
+    /** 新块初始的64位字数 */
+    private static final int INITIAL_BLOCK_WORDS = 64;
+
+    /** 是否包含时间戳 */
+    private final boolean withTimestamps;
+
+    /** 各块的压缩数据 */
+    private long[][] blocks = new long[0][];
+
+    /** 块数 */
+    private int blockCount;
+
+    /** 数据个数 */
+    private int size;
+
+    /** 写入位置,当前块中已使用的位数 */
+    private int writeBit;
+
+    /** 写入状态:上一个时间戳 */
+    private long writeTimestamp;
+
+    /** 写入状态:上一个时间戳间隔 */
+    private long writeDelta;
+
+    /** 写入状态:上一个数据值的位 */
+    private int writeValue;
+
+    /** 写入状态:上一次异或结果的前导零数,-1表示块内还没有 */
+    private int writeLeading;
+
+    /** 写入状态:上一次异或结果的末尾零数 */
+    private int writeTrailing;
+
+    /** 解码位置所在的块,-1表示没有解码 */
+    private int readBlock = -1;
+
+    /** 下一个要解码的数据下标 */
+    private int readIndex;
+
+    /** 解码位置,块中已读取的位数 */
+    private int readBit;
+
+    /** 解码状态:当前时间戳 */
+    private long readTimestamp;
+
+    /** 解码状态:当前时间戳间隔 */
+    private long readDelta;
+
+    /** 解码状态:当前数据值的位 */
+    private int readValue;
+
+    /** 解码状态:上一次异或结果的前导零数 */
+    private int readLeading;
+
+    /** 解码状态:上一次异或结果的末尾零数 */
+    private int readTrailing;
+
+    /**
+     * 构造方法
+     *
+     * @param withTimestamps 是否包含时间戳,不包含时只能调用{@link #append(float)}
+     */
+    public CompressedSeries(boolean withTimestamps) {
+        this.withTimestamps = withTimestamps;
+    }
+
+    /**
+     * 追加一个不带时间戳的数据值
+     *
+     * @param value 数据值
+     * @author hubing
+     */
+    public synchronized void append(float value) {
+        if (withTimestamps) {
+            throw new IllegalStateException("数据序列包含时间戳");
+        }
+        appendSample(0, value);
+    }
+
+    /**
+     * 追加一个带时间戳的数据值
+     *
+     * @param timestamp 时间戳
+     * @param value 数据值
+     * @author hubing
+     */
+    public synchronized void append(long timestamp, float value) {
+        if (!withTimestamps) {
+            throw new IllegalStateException("数据序列不包含时间戳");
+        }
+        appendSample(timestamp, value);
+    }
+
+    /**
+     * 压缩写入一个数据,块已满时开始新块,已满的块裁剪到实际长度
+     *
+     * @param timestamp
+     * @param value
+     * @author hubing
+     */
+    private void appendSample(long timestamp, float value) {
+        int bits = Float.floatToRawIntBits(value);
+        if (size % BLOCK_SIZE == 0) {
+            if (blockCount > 0) {
+                // 已满的块不再写入,释放多余的容量
+                int words = (writeBit + 63) >>> 6;
+                blocks[blockCount - 1] = Arrays.copyOf(blocks[blockCount - 1], words);
+            }
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, Math.max(blockCount * 2, 4));
+            }
+            blocks[blockCount++] = new long[INITIAL_BLOCK_WORDS];
+            writeBit = 0;
+            if (withTimestamps) {
+                writeBits(timestamp, 64);
+            }
+            writeBits(bits & 0xFFFFFFFFL, 32);
+            writeTimestamp = timestamp;
+            writeDelta = 0;
+            writeValue = bits;
+            writeLeading = -1;
+            size++;
+            return;
+        }
+        if (withTimestamps) {
+            long delta = timestamp - writeTimestamp;
+            long deltaOfDelta = delta - writeDelta;
+            if (deltaOfDelta == 0) {
+                writeBits(0, 1);
+            } else if (deltaOfDelta >= -63 && deltaOfDelta <= 64) {
+                writeBits(0x2, 2);
+                writeBits(deltaOfDelta + 63, 7);
+            } else if (deltaOfDelta >= -255 && deltaOfDelta <= 256) {
+                writeBits(0x6, 3);
+                writeBits(deltaOfDelta + 255, 9);
+            } else if (deltaOfDelta >= -2047 && deltaOfDelta <= 2048) {
+                writeBits(0xE, 4);
+                writeBits(deltaOfDelta + 2047, 12);
+            } else {
+                writeBits(0xF, 4);
+                writeBits(deltaOfDelta, 64);
+            }
+            writeTimestamp = timestamp;
+            writeDelta = delta;
+        }
+        int xor = bits ^ writeValue;
+        if (xor == 0) {
+            writeBits(0, 1);
+        } else {
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (writeLeading >= 0 && leading >= writeLeading && trailing >= writeTrailing) {
+                // 有效位落在上一次的范围内,不重复保存位置
+                writeBits(0x2, 2);
+                writeBits((xor >>> writeTrailing) & mask(32 - writeLeading - writeTrailing), 32 - writeLeading - writeTrailing);
+            } else {
+                int meaningful = 32 - leading - trailing;
+                writeBits(0x3, 2);
+                writeBits(leading, 5);
+                writeBits(meaningful - 1, 5);
+                writeBits((xor >>> trailing) & mask(meaningful), meaningful);
+                writeLeading = leading;
+                writeTrailing = trailing;
+            }
+        }
+        writeValue = bits;
+        size++;
+    }
+
+    /**
+     * 向当前块写入若干位,高位在前
+     *
+     * @param value 要写入的值,只使用低count位
+     * @param count 位数,1到64
+     * @author hubing
+     */
+    private void writeBits(long value, int count) {
+        long[] words = blocks[blockCount - 1];
+        if (((writeBit + count + 63) >>> 6) > words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+            blocks[blockCount - 1] = words;
+        }
+        int word = writeBit >>> 6;
+        int used = writeBit & 63;
+        int free = 64 - used;
+        if (count <= free) {
+            words[word] |= (value & mask(count)) << (free - count);
+        } else {
+            // 跨两个字,高位写入当前字的末尾,低位写入下一个字的开头
+            int rest = count - free;
+            words[word] |= (value >>> rest) & mask(free);
+            words[word + 1] |= (value & mask(rest)) << (64 - rest);
+        }
+        writeBit += count;
+    }
+
+    /**
+     * 从解码位置读取若干位,高位在前
+     *
+     * @param count 位数,1到64
+     * @return
+     * @author hubing
+     */
+    private long readBits(int count) {
+        long[] words = blocks[readBlock];
+        int word = readBit >>> 6;
+        int used = readBit & 63;
+        int available = 64 - used;
+        long value;
+        if (count <= available) {
+            value = (words[word] >>> (available - count)) & mask(count);
+        } else {
+            int rest = count - available;
+            value = ((words[word] & mask(available)) << rest) | (words[word + 1] >>> (64 - rest));
+        }
+        readBit += count;
+        return value;
+    }
+
+    /**
+     * 获取低count位全为1的掩码
+     *
+     * @param count 位数,1到64
+     * @return
+     * @author hubing
+     */
+    private static long mask(int count) {
+        return count == 64 ? -1L : (1L << count) - 1;
+    }
+
+    /**
+     * 解码下一个数据,结果保存在readTimestamp和readValue中
+     *
+     * @author hubing
+     */
+    private void decodeNext() {
+        if (readIndex % BLOCK_SIZE == 0) {
+            // 块内第一个数据
+            readBlock = readIndex / BLOCK_SIZE;
+            readBit = 0;
+            if (withTimestamps) {
+                readTimestamp = readBits(64);
+            }
+            readValue = (int) readBits(32);
+            readDelta = 0;
+            readIndex++;
+            return;
+        }
+        if (withTimestamps) {
+            long deltaOfDelta;
+            if (readBits(1) == 0) {
+                deltaOfDelta = 0;
+            } else if (readBits(1) == 0) {
+                deltaOfDelta = readBits(7) - 63;
+            } else if (readBits(1) == 0) {
+                deltaOfDelta = readBits(9) - 255;
+            } else if (readBits(1) == 0) {
+                deltaOfDelta = readBits(12) - 2047;
+            } else {
+                deltaOfDelta = readBits(64);
+            }
+            readDelta += deltaOfDelta;
+            readTimestamp += readDelta;
+        }
+        if (readBits(1) != 0) {
+            if (readBits(1) != 0) {
+                readLeading = (int) readBits(5);
+                int meaningful = (int) readBits(5) + 1;
+                readTrailing = 32 - readLeading - meaningful;
+            }
+            int meaningful = 32 - readLeading - readTrailing;
+            readValue ^= (int) (readBits(meaningful) << readTrailing);
+        }
+        readIndex++;
+    }
+
+    /**
+     * 把解码位置移动到index之前,下一次decodeNext解码第index个数据。
+     * 目标在当前解码位置之后且在同一块内时接着解码,否则从所在块的开头解码
+     *
+     * @param index
+     * @author hubing
+     */
+    private void seek(int index) {
+        int block = index / BLOCK_SIZE;
+        if (readBlock != block || readIndex > index) {
+            readIndex = block * BLOCK_SIZE;
+        }
+        while (readIndex < index) {
+            decodeNext();
+        }
+    }
+
+    /**
+     * 检查读取范围
+     *
+     * @param from
+     * @param count
+     * @author hubing
+     */
+    private void checkRange(int from, int count) {
+        if (from < 0 || count < 0 || from + count > size) {
+            throw new IndexOutOfBoundsException("from为: " + from + ", count为: " + count + ", size为: " + size);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void readValues(int from, int count, float[] out, int offset) {
+        checkRange(from, count);
+        seek(from);
+        for (int i = 0; i < count; i++) {
+            decodeNext();
+            out[offset + i] = Float.intBitsToFloat(readValue);
+        }
+    }
+
+    @Override
+    public boolean hasTimestamps() {
+        return withTimestamps;
+    }
+
+    @Override
+    public synchronized void readTimestamps(int from, int count, long[] out, int offset) {
+        if (!withTimestamps) {
+            throw new UnsupportedOperationException("数据序列不包含时间戳");
+        }
+        checkRange(from, count);
+        seek(from);
+        for (int i = 0; i < count; i++) {
+            decodeNext();
+            out[offset + i] = readTimestamp;
+        }
+    }
+
+    /**
+     * 获取压缩数据占用的内存字节数,不含对象头
+     *
+     * @return
+     * @author hubing
+     */
+    public synchronized long getMemoryBytes() {
+        long bytes = (long) blocks.length * 8;
+        for (int i = 0; i < blockCount; i++) {
+            bytes += (long) blocks[i].length * 8;
+        }
+        return bytes;
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.iss.linechart.core;
+
+/**
+ * 折线数据抽稀工具,将大量数据点按像素宽度抽取为少量代表点,时间复杂度均为O(n)
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-3-20]
+ */
+public final class LineDecimator {
+
+    /** 不抽稀 */
+    public static final int MODE_NONE = 0;
+
+    /** Largest-Triangle-Three-Buckets抽稀 */
+    public static final int MODE_LTTB = 1;
+
+    /** 按列保留最小值和最大值抽稀 */
+    public static final int MODE_MIN_MAX = 2;
+
+    private LineDecimator() {
+    }
+
+    /**
+     * 使用Largest-Triangle-Three-Buckets算法抽稀数据,以数据下标作为x值
+     *
+     * @param data 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param threshold 抽稀后保留的点数,不小于3
+     * @param out 输出被保留数据点的下标(相对offset),长度不小于threshold
+     * @return 保留的点数
+     * @author hubing
+     */
+    public static int lttb(float[] data, int offset, int length, int threshold, int[] out) {
+        if (threshold >= length || threshold < 3) {
+            return identity(length, out);
+        }
+        int count = 0;
+        // 第一个点总是保留
+        out[count++] = 0;
+        // 除首尾两点外,每个桶的数据个数
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // 计算下一个桶的平均点
+            int avgStart = (int) ((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) ((i + 2) * every) + 1, length);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += j;
+                avgY += data[offset + j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // 在当前桶中找出与上一个保留点、下一个桶平均点构成三角形面积最大的点
+            int rangeStart = (int) (i * every) + 1;
+            int rangeEnd = (int) ((i + 1) * every) + 1;
+            float ay = data[offset + a];
+            double maxArea = -1;
+            int maxIndex = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((a - avgX) * (data[offset + j] - ay) - (a - j) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = j;
+                }
+            }
+            out[count++] = maxIndex;
+            a = maxIndex;
+        }
+        // 最后一个点总是保留
+        out[count++] = length - 1;
+        return count;
+    }
+
+    /**
+     * 按列抽稀数据,每列保留最小值和最大值两个点,保证尖峰不丢失。第一个和最后一个点也总是保留,
+     * 线条的起止位置和首尾数值不变
+     *
+     * @param data 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param columns 列数,一般为图表的像素宽度
+     * @param out 输出被保留数据点的下标(相对offset),长度不小于columns * 2 + 2
+     * @return 保留的点数,不超过columns * 2 + 2
+     * @author hubing
+     */
+    public static int minMax(float[] data, int offset, int length, int columns, int[] out) {
+        if (columns * 2 + 2 >= length || columns < 1) {
+            return identity(length, out);
+        }
+        int count = 0;
+        out[count++] = 0;
+        double every = (double) length / columns;
+        for (int c = 0; c < columns; c++) {
+            int from = (int) (c * every);
+            int to = c == columns - 1 ? length : (int) ((c + 1) * every);
+            int minIndex = from;
+            int maxIndex = from;
+            for (int j = from + 1; j < to; j++) {
+                float value = data[offset + j];
+                if (value < data[offset + minIndex]) {
+                    minIndex = j;
+                } else if (value > data[offset + maxIndex]) {
+                    maxIndex = j;
+                }
+            }
+            // 按时间先后顺序输出最小值和最大值,第一个点已输出
+            int first = Math.min(minIndex, maxIndex);
+            int second = Math.max(minIndex, maxIndex);
+            if (first > 0) {
+                out[count++] = first;
+            }
+            if (second != first) {
+                out[count++] = second;
+            }
+        }
+        if (out[count - 1] != length - 1) {
+            out[count++] = length - 1;
+        }
+        return count;
+    }
+
+    /**
+     * 不抽稀,按顺序输出所有下标
+     *
+     * @param length
+     * @param out
+     * @return
+     * @author hubing
+     */
+    private static int identity(int length, int[] out) {
+        for (int i = 0; i < length; i++) {
+            out[i] = i;
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,900 @@
+package com.iss.linechart.core;
+
+/**
+ * 线条的绘制几何数据,保存绘制点的坐标、数据值及提交绘制用的顶点数组。
+ * 计算过程只依赖传入的参数,不依赖Android,可以在后台线程执行。
+ * 第i个绘制点保存在各数组的offset + i处,x坐标加上scrollX为图表上的坐标,只有实时滚动线条的两者不为0
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-3-27]
+ */
+public final class LineGeometry {
+
+    /** 读取外部数据序列时每次读取的数据个数 */
+    private static final int READ_CHUNK = 4096;
+
+    /** 绘制点x坐标数组 */
+    public float[] xs;
+
+    /** 绘制点y坐标数组 */
+    public float[] ys;
+
+    /** 绘制点对应的数据值数组 */
+    public float[] values;
+
+    /** 线段顶点数组,每条线段依次保存startX, startY, endX, endY */
+    public float[] segments;
+
+    /** 圆点顶点数组,每个圆点依次保存x, y */
+    public float[] points;
+
+    /** 绘制点数 */
+    public int pointCount;
+
+    /** 第一个绘制点在各数组中的位置,线段和控制点数组中第i段也从offset + i开始 */
+    public int offset;
+
+    /** 绘制时的横向平移量,数组中的x坐标加上此值为图表上的x坐标 */
+    public float scrollX;
+
+    /** 平滑曲线的控制点数组,每段依次保存c1x, c1y, c2x, c2y,调用{@link #updateCurves()}后有效 */
+    public float[] curves;
+
+    /** 绘制点y坐标的最小值,填充顶点数组时计算,用于判断线条是否完全在可见区域外。实时滚动线条追加点时只扩大不缩小 */
+    public float minY = Float.POSITIVE_INFINITY;
+
+    /** 绘制点y坐标的最大值 */
+    public float maxY = Float.NEGATIVE_INFINITY;
+
+    /** 数据空白标记,breaks[i]为true时第i - 1个点与第i个点之间没有数据,不连线,hasBreaks为true时有效 */
+    public boolean[] breaks;
+
+    /** 是否有数据空白,只有按时间计算的线条才有 */
+    public boolean hasBreaks;
+
+    /** 几何数据的版本,绘制点坐标每次变化后递增,用于判断缓存的曲线路径是否需要重建 */
+    public int version;
+
+    /** 已有绘制点的版本,重新计算、变形或移回数组开头后递增,实时滚动线条追加点时不变,用于判断增量更新的路径是否需要重建 */
+    public int layoutVersion;
+
+    /** 控制点已是最新的段数,从第一段开始计算 */
+    private int validCurveCount;
+
+    /** 抽稀结果的数据下标数组 */
+    private int[] indices;
+
+    /** 读取外部数据序列的缓冲区 */
+    private float[] readBuffer;
+
+    /** 变形动画起点的y坐标,与绘制点一一对应 */
+    private float[] morphFromYs;
+
+    /** 变形动画终点的y坐标,与绘制点一一对应 */
+    private float[] morphToYs;
+
+    /** 是否正在变形,重新计算几何数据后结束 */
+    private boolean morphing;
+
+    /** 实时滚动线条的数组长度,为容量的两倍 */
+    private int streamLength;
+
+    /**
+     * 保证数组至少能容纳capacity个点
+     *
+     * @param capacity
+     * @author hubing
+     */
+    public void ensureCapacity(int capacity) {
+        if (xs == null || xs.length < capacity) {
+            xs = new float[capacity];
+            ys = new float[capacity];
+            values = new float[capacity];
+            segments = new float[Math.max(capacity - 1, 0) * 4];
+            points = new float[capacity * 2];
+        }
+    }
+
+    /**
+     * 计算普通线条的几何数据,数据点多于像素宽度时先抽稀,计算成本只与图表宽度有关
+     *
+     * @param data 数据值数组
+     * @param size 数据个数
+     * @param decimationMode 抽稀模式
+     * @param minSlotCount 最少的横向位置数,数据个数不多于此值时按此值均分横向位置
+     * @param left 图表左边界
+     * @param width 图表宽度
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void compute(float[] data, int size, int decimationMode, int minSlotCount, float left, float width,
+            float height, float minValue, float maxValue) {
+        reset();
+        int columns = (int) width;
+        int count = size;
+        boolean decimated = false;
+        if (decimationMode == LineDecimator.MODE_LTTB && columns >= 3 && size > columns) {
+            ensureIndexCapacity(columns);
+            count = LineDecimator.lttb(data, 0, size, columns, indices);
+            decimated = true;
+        } else if (decimationMode == LineDecimator.MODE_MIN_MAX && columns >= 1 && size > columns * 2) {
+            ensureIndexCapacity(columns * 2 + 2);
+            count = LineDecimator.minMax(data, 0, size, columns, indices);
+            decimated = true;
+        }
+        ensureCapacity(count);
+
+        int slotCount = Math.max(size, minSlotCount);
+        float slotSpace = width / (slotCount - 1);
+        for (int i = 0; i < count; i++) {
+            int index = decimated ? indices[i] : i;
+            float value = data[index];
+            xs[i] = left + index * slotSpace;
+            ys[i] = valueToY(value, height, minValue, maxValue);
+            values[i] = value;
+        }
+        pointCount = count;
+        fillBuffers();
+    }
+
+    /**
+     * 计算普通线条在视口范围内的几何数据。视口为整个数据范围时按抽稀模式计算;
+     * 缩放后只计算视口内及两侧各一个数据点,数据点多于像素宽度时从金字塔中选取桶数最接近像素宽度的一级,
+     * 计算成本只与图表宽度有关
+     *
+     * @param data 数据值数组
+     * @param size 数据个数
+     * @param pyramid 数据的最小值/最大值金字塔,数据较少时可为null
+     * @param decimationMode 抽稀模式
+     * @param viewportStart 视口起点,占整个横向范围的比例
+     * @param viewportEnd 视口终点,占整个横向范围的比例
+     * @param minSlotCount 最少的横向位置数,数据个数不多于此值时按此值均分横向位置
+     * @param left 图表左边界
+     * @param width 图表宽度
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void computeViewport(float[] data, int size, MinMaxPyramid pyramid, int decimationMode,
+            double viewportStart, double viewportEnd, int minSlotCount, float left, float width, float height,
+            float minValue, float maxValue) {
+        if (viewportStart <= 0 && viewportEnd >= 1) {
+            compute(data, size, decimationMode, minSlotCount, left, width, height, minValue, maxValue);
+            return;
+        }
+        reset();
+        int slotCount = Math.max(size, minSlotCount);
+        double startSlot = viewportStart * (slotCount - 1);
+        double endSlot = viewportEnd * (slotCount - 1);
+        double slotSpace = width / (endSlot - startSlot);
+        // 多取视口两侧各一个点,使线条连续地延伸出图表边界
+        int from = Math.max(0, (int) Math.floor(startSlot));
+        int to = Math.min(size - 1, (int) Math.ceil(endSlot));
+        pointCount = 0;
+        if (to < from) {
+            fillBuffers();
+            return;
+        }
+        int level = 0;
+        if (pyramid != null && decimationMode != LineDecimator.MODE_NONE) {
+            level = pyramid.chooseLevel(to - from + 1, (int) width);
+        }
+        if (level == 0) {
+            ensureCapacity(to - from + 1);
+            for (int i = from; i <= to; i++) {
+                addViewportPoint(data[i], i, startSlot, slotSpace, left, height, minValue, maxValue);
+            }
+        } else {
+            int firstBucket = from >> level;
+            int lastBucket = to >> level;
+            ensureCapacity((lastBucket - firstBucket + 1) * 2);
+            for (int b = firstBucket; b <= lastBucket; b++) {
+                // 按时间先后顺序输出桶内的最小值和最大值
+                int minIndex = pyramid.minIndex(level, b);
+                int maxIndex = pyramid.maxIndex(level, b);
+                int first = Math.min(minIndex, maxIndex);
+                int second = Math.max(minIndex, maxIndex);
+                addViewportPoint(data[first], first, startSlot, slotSpace, left, height, minValue, maxValue);
+                if (minIndex != maxIndex) {
+                    addViewportPoint(data[second], second, startSlot, slotSpace, left, height, minValue, maxValue);
+                }
+            }
+        }
+        fillBuffers();
+    }
+
+    /**
+     * 计算外部数据序列在视口范围内的几何数据,只分段读取视口内的数据到复用的缓冲区。
+     * 视口内数据点多于两倍像素宽度时按列保留最小值和最大值
+     *
+     * @param source 数据序列
+     * @param viewportStart 视口起点,占整个横向范围的比例
+     * @param viewportEnd 视口终点,占整个横向范围的比例
+     * @param minSlotCount 最少的横向位置数,数据个数不多于此值时按此值均分横向位置
+     * @param left 图表左边界
+     * @param width 图表宽度
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void computeSource(SeriesSource source, double viewportStart, double viewportEnd, int minSlotCount, float left,
+            float width, float height, float minValue, float maxValue) {
+        reset();
+        int size = source.size();
+        int slotCount = Math.max(size, minSlotCount);
+        double startSlot = viewportStart * (slotCount - 1);
+        double endSlot = viewportEnd * (slotCount - 1);
+        double slotSpace = width / (endSlot - startSlot);
+        int from = Math.max(0, (int) Math.floor(startSlot));
+        int to = Math.min(size - 1, (int) Math.ceil(endSlot));
+        pointCount = 0;
+        if (to < from) {
+            fillBuffers();
+            return;
+        }
+        int count = to - from + 1;
+        int columns = (int) width;
+        if (columns < 1 || count <= columns * 2) {
+            ensureCapacity(count);
+            ensureReadCapacity(count);
+            source.readValues(from, count, readBuffer, 0);
+            for (int i = 0; i < count; i++) {
+                addViewportPoint(readBuffer[i], from + i, startSlot, slotSpace, left, height, minValue, maxValue);
+            }
+            fillBuffers();
+            return;
+        }
+        ensureCapacity(columns * 2);
+        ensureReadCapacity(READ_CHUNK);
+        double every = (double) count / columns;
+        for (int c = 0; c < columns; c++) {
+            int columnFrom = from + (int) (c * every);
+            int columnTo = c == columns - 1 ? to + 1 : from + (int) ((c + 1) * every);
+            int minIndex = -1;
+            int maxIndex = -1;
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            // 每列的数据分段读取,缓冲区大小固定
+            for (int chunk = columnFrom; chunk < columnTo; chunk += READ_CHUNK) {
+                int length = Math.min(READ_CHUNK, columnTo - chunk);
+                source.readValues(chunk, length, readBuffer, 0);
+                for (int i = 0; i < length; i++) {
+                    float value = readBuffer[i];
+                    if (value < min) {
+                        min = value;
+                        minIndex = chunk + i;
+                    }
+                    if (value > max) {
+                        max = value;
+                        maxIndex = chunk + i;
+                    }
+                }
+            }
+            if (minIndex < 0) {
+                continue;
+            }
+            // 按时间先后顺序输出最小值和最大值
+            if (minIndex <= maxIndex) {
+                addViewportPoint(min, minIndex, startSlot, slotSpace, left, height, minValue, maxValue);
+                if (minIndex != maxIndex) {
+                    addViewportPoint(max, maxIndex, startSlot, slotSpace, left, height, minValue, maxValue);
+                }
+            } else {
+                addViewportPoint(max, maxIndex, startSlot, slotSpace, left, height, minValue, maxValue);
+                addViewportPoint(min, minIndex, startSlot, slotSpace, left, height, minValue, maxValue);
+            }
+        }
+        fillBuffers();
+    }
+
+    /**
+     * 开始重新计算,结束变形,绘制点从数组开头保存
+     *
+     * @author hubing
+     */
+    private void reset() {
+        morphing = false;
+        hasBreaks = false;
+        offset = 0;
+        scrollX = 0;
+        streamLength = 0;
+    }
+
+    /**
+     * 添加视口中的一个绘制点
+     *
+     * @param value 数据值
+     * @param index 数据下标
+     * @param startSlot 视口起点对应的横向位置
+     * @param slotSpace 相邻两个横向位置的间距
+     * @param left 图表左边界
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    private void addViewportPoint(float value, int index, double startSlot, double slotSpace, float left,
+            float height, float minValue, float maxValue) {
+        xs[pointCount] = (float) (left + (index - startSlot) * slotSpace);
+        ys[pointCount] = valueToY(value, height, minValue, maxValue);
+        values[pointCount] = value;
+        pointCount++;
+    }
+
+    /**
+     * 按时间计算线条在时间窗口内的几何数据,x坐标与时间成正比,只计算窗口内及两侧各一个数据点。
+     * 窗口内数据点多于两倍像素宽度时按像素列保留最小值和最大值;相邻两个数据的间隔超过maxGap时记为数据空白,不连线
+     *
+     * @param data 数据值数组
+     * @param times 时间戳数组,与数据值一一对应,需要非递减
+     * @param size 数据个数
+     * @param startTime 窗口起始时间,对应图表左边界
+     * @param endTime 窗口结束时间,对应图表右边界
+     * @param maxGap 允许的最大采样间隔,不大于0时不检查数据空白
+     * @param left 图表左边界
+     * @param width 图表宽度
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void computeTime(float[] data, long[] times, int size, double startTime, double endTime, long maxGap, float left,
+            float width, float height, float minValue, float maxValue) {
+        reset();
+        pointCount = 0;
+        if (size == 0) {
+            ensureTimeCapacity(1);
+            fillBuffers();
+            return;
+        }
+        // 多取窗口两侧各一个点,使线条连续地延伸出图表边界
+        int from = Math.max(0, lowerBound(times, size, startTime) - 1);
+        int to = Math.min(size - 1, lowerBound(times, size, endTime));
+        double scale = endTime > startTime ? width / (endTime - startTime) : 0;
+        int count = to - from + 1;
+        int columns = (int) width;
+        if (columns < 1 || count <= columns * 2) {
+            ensureTimeCapacity(count);
+            for (int i = from; i <= to; i++) {
+                addTimePoint(data[i], times[i], i > from && isGap(times, i, maxGap), startTime, scale, left, height, minValue, maxValue);
+            }
+            fillBuffers();
+            return;
+        }
+        ensureTimeCapacity(columns * 2 + 4);
+        int column = Integer.MIN_VALUE;
+        int minIndex = -1;
+        int maxIndex = -1;
+        boolean gap = false;
+        for (int i = from; i <= to; i++) {
+            boolean gapBefore = i > from && isGap(times, i, maxGap);
+            int c = (int) Math.floor((times[i] - startTime) * scale);
+            if (c != column || gapBefore) {
+                // 进入新的像素列或遇到数据空白,输出上一列
+                addTimeColumn(data, times, minIndex, maxIndex, gap, startTime, scale, left, height, minValue, maxValue);
+                column = c;
+                minIndex = i;
+                maxIndex = i;
+                gap = gapBefore;
+            } else if (data[i] < data[minIndex]) {
+                minIndex = i;
+            } else if (data[i] > data[maxIndex]) {
+                maxIndex = i;
+            }
+        }
+        addTimeColumn(data, times, minIndex, maxIndex, gap, startTime, scale, left, height, minValue, maxValue);
+        fillBuffers();
+    }
+
+    /**
+     * 二分查找第一个时间不小于time的数据
+     *
+     * @param times 时间戳数组
+     * @param size 数据个数
+     * @param time
+     * @return 数据下标,都小于time时返回size
+     * @author hubing
+     */
+    public static int lowerBound(long[] times, int size, double time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 第i - 1个数据与第i个数据之间是否为数据空白
+     *
+     * @param times
+     * @param i
+     * @param maxGap 允许的最大采样间隔,不大于0时不检查
+     * @return
+     * @author hubing
+     */
+    private static boolean isGap(long[] times, int i, long maxGap) {
+        return maxGap > 0 && times[i] - times[i - 1] > maxGap;
+    }
+
+    /**
+     * 输出一个像素列的最小值和最大值,按时间先后顺序
+     *
+     * @param data 数据值数组
+     * @param times 时间戳数组
+     * @param minIndex 列内最小值的下标,小于0表示没有数据
+     * @param maxIndex 列内最大值的下标
+     * @param gap 列内第一个数据之前是否为数据空白
+     * @param startTime 窗口起始时间
+     * @param scale 每单位时间的像素数
+     * @param left 图表左边界
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    private void addTimeColumn(float[] data, long[] times, int minIndex, int maxIndex, boolean gap, double startTime, double scale,
+            float left, float height, float minValue, float maxValue) {
+        if (minIndex < 0) {
+            return;
+        }
+        int first = Math.min(minIndex, maxIndex);
+        int second = Math.max(minIndex, maxIndex);
+        // 数据空白会把一列拆成多段,点数可能超过预估
+        ensureTimeCapacity(pointCount + 2);
+        addTimePoint(data[first], times[first], gap, startTime, scale, left, height, minValue, maxValue);
+        if (first != second) {
+            addTimePoint(data[second], times[second], false, startTime, scale, left, height, minValue, maxValue);
+        }
+    }
+
+    /**
+     * 添加按时间计算的一个绘制点
+     *
+     * @param value 数据值
+     * @param time 时间戳
+     * @param gap 与前一个绘制点之间是否为数据空白
+     * @param startTime 窗口起始时间
+     * @param scale 每单位时间的像素数
+     * @param left 图表左边界
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    private void addTimePoint(float value, long time, boolean gap, double startTime, double scale, float left, float height,
+            float minValue, float maxValue) {
+        xs[pointCount] = (float) (left + (time - startTime) * scale);
+        ys[pointCount] = valueToY(value, height, minValue, maxValue);
+        values[pointCount] = value;
+        breaks[pointCount] = gap;
+        hasBreaks |= gap;
+        pointCount++;
+    }
+
+    /**
+     * 保证按时间计算时数组至少能容纳capacity个点,扩容时保留已添加的点
+     *
+     * @param capacity
+     * @author hubing
+     */
+    private void ensureTimeCapacity(int capacity) {
+        if (xs == null || xs.length < capacity) {
+            float[] oldXs = xs;
+            float[] oldYs = ys;
+            float[] oldValues = values;
+            xs = null;
+            ensureCapacity(Math.max(capacity, oldXs == null ? 0 : oldXs.length * 3 / 2));
+            if (pointCount > 0) {
+                System.arraycopy(oldXs, 0, xs, 0, pointCount);
+                System.arraycopy(oldYs, 0, ys, 0, pointCount);
+                System.arraycopy(oldValues, 0, values, 0, pointCount);
+            }
+        }
+        if (breaks == null || breaks.length < xs.length) {
+            boolean[] oldBreaks = breaks;
+            breaks = new boolean[xs.length];
+            if (pointCount > 0) {
+                System.arraycopy(oldBreaks, 0, breaks, 0, pointCount);
+            }
+        }
+    }
+
+    /**
+     * 第i - 1个点与第i个点之间是否为数据空白
+     *
+     * @param i 点的索引
+     * @return
+     * @author hubing
+     */
+    public boolean isBreak(int i) {
+        return hasBreaks && breaks[i];
+    }
+
+    /**
+     * 计算实时滚动线条的几何数据,横向位置按环形缓冲区容量均分。数组长度为容量的两倍,
+     * 绘制点从数组开头保存,之后追加的点依次写在后面
+     *
+     * @param ring 环形缓冲区
+     * @param start 缓冲区中最早数据的位置
+     * @param size 数据个数
+     * @param left 图表左边界
+     * @param width 图表宽度
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void computeStream(float[] ring, int start, int size, float left, float width, float height,
+            float minValue, float maxValue) {
+        reset();
+        int capacity = ring.length;
+        streamLength = capacity * 2;
+        ensureCapacity(streamLength);
+        float slotSpace = width / (capacity - 1);
+        for (int i = 0; i < streamLength; i++) {
+            xs[i] = left + i * slotSpace;
+        }
+        for (int i = 0; i < size; i++) {
+            float value = ring[(start + i) % capacity];
+            ys[i] = valueToY(value, height, minValue, maxValue);
+            values[i] = value;
+        }
+        pointCount = size;
+        fillBuffers();
+    }
+
+    /**
+     * 实时滚动线条追加一个点,只写入新点的坐标和与前一个点之间的线段。已满时窗口在数组中后移一格,
+     * 已有点的数据和控制点都不移动,绘制时整体向左平移一格;窗口到达数组末尾时才移回数组开头,
+     * 每capacity次追加发生一次,均摊每次追加为O(1)
+     *
+     * @param value 数据值
+     * @param y 数据点y坐标
+     * @param capacity 线条容量
+     * @author hubing
+     */
+    public void appendPoint(float value, float y, int capacity) {
+        hasBreaks = false;
+        if (morphing) {
+            // 变形期间追加时结束变形,已有点直接移到终点,否则y坐标停留在动画中途与数据值不一致
+            System.arraycopy(morphToYs, 0, ys, offset, pointCount);
+            morphing = false;
+            fillBuffers();
+        }
+        int validCurves = validCurveCount;
+        boolean shifted = false;
+        if (pointCount == capacity) {
+            offset++;
+            pointCount--;
+            if (validCurves > 0) {
+                // 前移后的第一段之后的控制点仍在原位置,不需要重新计算
+                validCurves--;
+                shifted = true;
+            }
+        }
+        if (offset + pointCount == streamLength) {
+            System.arraycopy(ys, offset, ys, 0, pointCount);
+            System.arraycopy(values, offset, values, 0, pointCount);
+            offset = 0;
+            fillBuffers();
+            validCurves = 0;
+        }
+        int p = offset + pointCount;
+        ys[p] = y;
+        values[p] = value;
+        points[p * 2] = xs[p];
+        points[p * 2 + 1] = y;
+        if (pointCount > 0) {
+            int s = (p - 1) * 4;
+            segments[s] = xs[p - 1];
+            segments[s + 1] = ys[p - 1];
+            segments[s + 2] = xs[p];
+            segments[s + 3] = y;
+        }
+        pointCount++;
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+        scrollX = xs[0] - xs[offset];
+        version++;
+        // 新增的点只影响最后两段曲线
+        validCurveCount = Math.max(0, Math.min(validCurves, pointCount - 3));
+        if (shifted && validCurveCount > 0) {
+            // 前移后的第一个点变为端点,切线改为单侧斜率,第一段需要重新计算
+            MonotoneSpline.controlPoints(xs, ys, offset, pointCount, 0, 1, curves);
+        }
+    }
+
+    /**
+     * 图表数值范围变化时按保存的数据值重新计算所有绘制点的y坐标,x坐标不变
+     *
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @author hubing
+     */
+    public void remapY(float height, float minValue, float maxValue) {
+        // 变形期间只更新终点,当前y坐标由下一次变形计算
+        float[] target = morphing ? morphToYs : ys;
+        int base = morphing ? 0 : offset;
+        for (int i = 0; i < pointCount; i++) {
+            target[base + i] = valueToY(values[offset + i], height, minValue, maxValue);
+        }
+        if (!morphing) {
+            fillBuffers();
+        }
+    }
+
+    /**
+     * 开始从旧的绘制点变形到当前绘制点。按当前每个点的x坐标在旧折线上线性插值出起点y坐标,
+     * 超出旧折线范围的点取端点的y坐标,旧折线的x坐标为图表上的坐标,需要递增。调用后绘制点位于起点
+     *
+     * @param fromXs 旧绘制点x坐标数组
+     * @param fromYs 旧绘制点y坐标数组
+     * @param fromCount 旧绘制点数,为0时不变形
+     * @author hubing
+     */
+    public void beginMorph(float[] fromXs, float[] fromYs, int fromCount) {
+        if (fromCount == 0 || pointCount == 0) {
+            morphing = false;
+            return;
+        }
+        if (morphFromYs == null || morphFromYs.length < pointCount) {
+            morphFromYs = new float[xs.length];
+            morphToYs = new float[xs.length];
+        }
+        System.arraycopy(ys, offset, morphToYs, 0, pointCount);
+        // 当前点和旧点的x坐标都递增,一次遍历完成插值
+        int j = 0;
+        for (int i = 0; i < pointCount; i++) {
+            float x = xs[offset + i] + scrollX;
+            while (j < fromCount - 1 && fromXs[j + 1] <= x) {
+                j++;
+            }
+            float fromY;
+            if (x <= fromXs[0]) {
+                fromY = fromYs[0];
+            } else if (j == fromCount - 1) {
+                fromY = fromYs[fromCount - 1];
+            } else {
+                float t = (x - fromXs[j]) / (fromXs[j + 1] - fromXs[j]);
+                fromY = fromYs[j] + (fromYs[j + 1] - fromYs[j]) * t;
+            }
+            morphFromYs[i] = fromY;
+            ys[offset + i] = fromY;
+        }
+        morphing = true;
+        fillBuffers();
+    }
+
+    /**
+     * 以当前y坐标作为新的变形起点,终点不变,用于变形动画重新开始时保持画面连续
+     *
+     * @author hubing
+     */
+    public void rebaseMorph() {
+        if (morphing) {
+            System.arraycopy(ys, offset, morphFromYs, 0, pointCount);
+        }
+    }
+
+    /**
+     * 按动画进度计算变形中的y坐标,进度为1时结束变形
+     *
+     * @param fraction 动画进度,0到1
+     * @author hubing
+     */
+    public void morph(float fraction) {
+        if (!morphing) {
+            return;
+        }
+        for (int i = 0; i < pointCount; i++) {
+            ys[offset + i] = morphFromYs[i] + (morphToYs[i] - morphFromYs[i]) * fraction;
+        }
+        if (fraction >= 1) {
+            morphing = false;
+        }
+        fillBuffers();
+    }
+
+    public boolean isMorphing() {
+        return morphing;
+    }
+
+    /**
+     * 根据绘制点坐标填充线段和圆点顶点数组
+     *
+     * @author hubing
+     */
+    public void fillBuffers() {
+        version++;
+        layoutVersion++;
+        validCurveCount = 0;
+        float min = Float.POSITIVE_INFINITY;
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            int p = offset + i;
+            float y = ys[p];
+            min = Math.min(min, y);
+            max = Math.max(max, y);
+            points[p * 2] = xs[p];
+            points[p * 2 + 1] = y;
+            if (i > 0) {
+                int s = (p - 1) * 4;
+                // 数据空白处的线段退化为一点,被圆点覆盖,线段数组的布局不变
+                int from = hasBreaks && breaks[i] ? p : p - 1;
+                segments[s] = xs[from];
+                segments[s + 1] = ys[from];
+                segments[s + 2] = xs[p];
+                segments[s + 3] = y;
+            }
+        }
+        minY = min;
+        maxY = max;
+    }
+
+    /**
+     * 更新平滑曲线的控制点,只计算绘制点变化后受影响的段,没有变化时不计算
+     *
+     * @author hubing
+     */
+    public void updateCurves() {
+        int curveCount = Math.max(pointCount - 1, 0);
+        if (curves == null || curves.length < (offset + curveCount) * 4) {
+            curves = new float[Math.max(xs.length - 1, 0) * 4];
+            validCurveCount = 0;
+        }
+        if (validCurveCount < curveCount) {
+            MonotoneSpline.controlPoints(xs, ys, offset, pointCount, validCurveCount, curveCount, curves);
+            validCurveCount = curveCount;
+        }
+    }
+
+    /**
+     * 获取第i个绘制点在图表上的x坐标
+     *
+     * @param i 点的索引
+     * @return
+     * @author hubing
+     */
+    public float getX(int i) {
+        return xs[offset + i] + scrollX;
+    }
+
+    /**
+     * 获取第i个绘制点的y坐标
+     *
+     * @param i 点的索引
+     * @return
+     * @author hubing
+     */
+    public float getY(int i) {
+        return ys[offset + i];
+    }
+
+    /**
+     * 获取第i个绘制点的数据值
+     *
+     * @param i 点的索引
+     * @return
+     * @author hubing
+     */
+    public float getValue(int i) {
+        return values[offset + i];
+    }
+
+    /**
+     * 二分查找离x最近的绘制点
+     *
+     * @param x 图表上的x坐标
+     * @return 点的索引,没有点时返回-1
+     * @author hubing
+     */
+    public int nearestIndex(float x) {
+        if (pointCount == 0) {
+            return -1;
+        }
+        int low = 0;
+        int high = pointCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getX(mid) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // low为第一个x坐标不小于x的点,与前一个点比较哪个更近
+        if (low > 0 && x - getX(low - 1) < getX(low) - x) {
+            return low - 1;
+        }
+        return low;
+    }
+
+    /**
+     * 查找触摸点附近的绘制点,先按x坐标二分查找最近的点,再检查两个方向的距离
+     *
+     * @param x 触摸点x坐标
+     * @param y 触摸点y坐标
+     * @param rangeX x方向允许的最大距离
+     * @param rangeY y方向允许的最大距离
+     * @return 点的索引,范围内没有点时返回-1
+     * @author hubing
+     */
+    public int hitTest(float x, float y, float rangeX, float rangeY) {
+        int index = nearestIndex(x);
+        if (index < 0 || Math.abs(getX(index) - x) > rangeX || Math.abs(getY(index) - y) > rangeY) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * 二分查找x坐标不大于x的点数
+     *
+     * @param x 图表上的x坐标
+     * @return
+     * @author hubing
+     */
+    public int countBefore(float x) {
+        int low = 0;
+        int high = pointCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getX(mid) <= x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 将数据值转换为图表上的y坐标
+     *
+     * @param value 数据值
+     * @param height 图表高度
+     * @param minValue 图表最小值
+     * @param maxValue 图表最大值
+     * @return
+     * @author hubing
+     */
+    public static float valueToY(float value, float height, float minValue, float maxValue) {
+        return height - (int) ((value - minValue) / (maxValue - minValue) * height);
+    }
+
+    /**
+     * 保证读取缓冲区至少能容纳capacity个数据
+     *
+     * @param capacity
+     * @author hubing
+     */
+    private void ensureReadCapacity(int capacity) {
+        if (readBuffer == null || readBuffer.length < capacity) {
+            readBuffer = new float[capacity];
+        }
+    }
+
+    /**
+     * 保证抽稀下标数组至少能容纳capacity个下标
+     *
+     * @param capacity
+     * @author hubing
+     */
+    private void ensureIndexCapacity(int capacity) {
+        if (indices == null || indices.length < capacity) {
+            indices = new int[capacity];
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+package com.iss.linechart.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 内存映射的列式数据文件。文件由16字节文件头和小端序的数据列组成:
+ * <pre>
+ * int   magic      固定为MAGIC
+ * int   version    固定为VERSION
+ * int   count      数据个数
+ * int   flags      FLAG_TIMESTAMPS表示包含时间戳列
+ * long[count]      时间戳列(可选)
+ * float[count]     数据值列
+ * </pre>
+ * 打开文件只读取文件头,数据由系统按页加载,不占用堆内存。映射在对象被回收后释放
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-16]
+ */
+public final class MappedSeriesFile implements SeriesSource {
+
+    /** 文件标识"LCVS" */
+    public static final int MAGIC = 0x5356434C;
+
+    /** 文件格式版本 */
+    public static final int VERSION = 1;
+
+    /** 包含时间戳列 */
+    public static final int FLAG_TIMESTAMPS = 1;
+
+    /** 文件头长度 */
+    private static final int HEADER_SIZE = 16;
+
+    /** 写文件时每次写入的数据个数 */
+    private static final int WRITE_CHUNK = 8192;
+
+    /** 数据个数 */
+    private final int count;
+
+    /** 数据值列 */
+    private final FloatBuffer values;
+
+    /** 时间戳列,不包含时为null */
+    private final LongBuffer timestamps;
+
+    private MappedSeriesFile(int count, FloatBuffer values, LongBuffer timestamps) {
+        this.count = count;
+        this.values = values;
+        this.timestamps = timestamps;
+    }
+
+    /**
+     * 以只读方式映射数据文件
+     *
+     * @param file 数据文件
+     * @return
+     * @throws IOException 文件无法读取或格式不正确
+     * @author hubing
+     */
+    public static MappedSeriesFile open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            long length = channel.size();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("文件长度不正确: " + length);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("不是数据文件或版本不支持: " + file);
+            }
+            int count = buffer.getInt(8);
+            int flags = buffer.getInt(12);
+            boolean hasTimestamps = (flags & FLAG_TIMESTAMPS) != 0;
+            long expected = HEADER_SIZE + (long) count * ((hasTimestamps ? 8 : 0) + 4);
+            if (count < 0 || length < expected) {
+                throw new IOException("数据个数与文件长度不符: " + count);
+            }
+            LongBuffer timestamps = null;
+            int valuesOffset = HEADER_SIZE;
+            if (hasTimestamps) {
+                timestamps = column(buffer, HEADER_SIZE).asLongBuffer();
+                valuesOffset += count * 8;
+            }
+            FloatBuffer values = column(buffer, valuesOffset).asFloatBuffer();
+            return new MappedSeriesFile(count, values, timestamps);
+        } finally {
+            // 关闭文件后映射仍然有效
+            raf.close();
+        }
+    }
+
+    /**
+     * 把数据写入文件
+     *
+     * @param file 数据文件
+     * @param timestamps 时间戳数组,不写时间戳列时为null
+     * @param values 数据值数组
+     * @param count 数据个数
+     * @throws IOException
+     * @author hubing
+     */
+    public static void write(File file, long[] timestamps, float[] values, int count) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            channel.truncate(0);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_CHUNK * 8).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(count).putInt(timestamps != null ? FLAG_TIMESTAMPS : 0);
+            flush(channel, buffer);
+            if (timestamps != null) {
+                for (int i = 0; i < count; i += WRITE_CHUNK) {
+                    int end = Math.min(count, i + WRITE_CHUNK);
+                    for (int j = i; j < end; j++) {
+                        buffer.putLong(timestamps[j]);
+                    }
+                    flush(channel, buffer);
+                }
+            }
+            for (int i = 0; i < count; i += WRITE_CHUNK) {
+                int end = Math.min(count, i + WRITE_CHUNK);
+                for (int j = i; j < end; j++) {
+                    buffer.putFloat(values[j]);
+                }
+                flush(channel, buffer);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public void readValues(int from, int count, float[] out, int offset) {
+        checkRange(from, count);
+        // 按绝对位置读取,不修改缓冲区状态,多个线程可以同时读取
+        FloatBuffer column = values;
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = column.get(from + i);
+        }
+    }
+
+    @Override
+    public boolean hasTimestamps() {
+        return timestamps != null;
+    }
+
+    @Override
+    public void readTimestamps(int from, int count, long[] out, int offset) {
+        if (timestamps == null) {
+            throw new UnsupportedOperationException("文件不包含时间戳列");
+        }
+        checkRange(from, count);
+        LongBuffer column = timestamps;
+        for (int i = 0; i < count; i++) {
+            out[offset + i] = column.get(from + i);
+        }
+    }
+
+    /**
+     * 检查读取范围,文件末尾多余的字节不属于数据列,不能读取
+     *
+     * @param from
+     * @param count
+     * @author hubing
+     */
+    private void checkRange(int from, int count) {
+        if (from < 0 || count < 0 || from + count > this.count) {
+            throw new IndexOutOfBoundsException("from为: " + from + ", count为: " + count + ", size为: " + this.count);
+        }
+    }
+
+    /**
+     * 获取从指定位置开始的小端序数据列
+     *
+     * @param buffer 整个文件的映射
+     * @param offset 数据列起始位置
+     * @return
+     * @author hubing
+     */
+    private static ByteBuffer column(MappedByteBuffer buffer, int offset) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset);
+        // slice后字节序会重置为大端,需要重新设置
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 把缓冲区内容写入文件并清空缓冲区
+     *
+     * @param channel
+     * @param buffer
+     * @throws IOException
+     * @author hubing
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+}
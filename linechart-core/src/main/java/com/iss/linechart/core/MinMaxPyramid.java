@@ -0,0 +1,232 @@
+package com.iss.linechart.core;
+
+/**
+ * 数据的多级最小值/最大值金字塔,第level级的每个桶覆盖2^level个原始数据,保存桶内最小值和最大值的下标。
+ * 一次构建O(n),之后任意缩放级别都可以选出桶数最接近像素宽度的一级绘制,绘制成本只与图表宽度有关
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-12]
+ */
+public final class MinMaxPyramid {
+
+    /** 构建到桶数不大于此值的一级为止 */
+    private static final int MIN_BUCKET_COUNT = 64;
+
+    /** 各级桶内最小值的下标,第level级保存在[level - 1]中 */
+    private int[][] minIndices = new int[0][];
+
+    /** 各级桶内最大值的下标,第level级保存在[level - 1]中 */
+    private int[][] maxIndices = new int[0][];
+
+    /** 已构建的级数,不含原始数据 */
+    private int levelCount;
+
+    /** 原始数据个数 */
+    private int size;
+
+    /**
+     * 根据数据构建金字塔,容量足够时复用已有数组
+     *
+     * @param data 数据值数组
+     * @param size 数据个数
+     * @author hubing
+     */
+    public void build(float[] data, int size) {
+        this.size = size;
+        int levels = 0;
+        for (int buckets = size; buckets > MIN_BUCKET_COUNT; buckets = (buckets + 1) >> 1) {
+            levels++;
+        }
+        ensureLevels(levels);
+        levelCount = levels;
+        for (int level = 1; level <= levels; level++) {
+            int[] mins = minIndices[level - 1];
+            int[] maxs = maxIndices[level - 1];
+            int buckets = bucketCount(level);
+            for (int b = 0; b < buckets; b++) {
+                int first = b << 1;
+                int second = first + 1;
+                int minIndex;
+                int maxIndex;
+                if (level == 1) {
+                    // 第一级直接比较相邻的两个原始数据
+                    minIndex = first;
+                    maxIndex = first;
+                    if (second < size) {
+                        if (data[second] < data[first]) {
+                            minIndex = second;
+                        } else if (data[second] > data[first]) {
+                            maxIndex = second;
+                        }
+                    }
+                } else {
+                    // 合并上一级相邻的两个桶
+                    int[] childMins = minIndices[level - 2];
+                    int[] childMaxs = maxIndices[level - 2];
+                    minIndex = childMins[first];
+                    maxIndex = childMaxs[first];
+                    if (second < bucketCount(level - 1)) {
+                        if (data[childMins[second]] < data[minIndex]) {
+                            minIndex = childMins[second];
+                        }
+                        if (data[childMaxs[second]] > data[maxIndex]) {
+                            maxIndex = childMaxs[second];
+                        }
+                    }
+                }
+                mins[b] = minIndex;
+                maxs[b] = maxIndex;
+            }
+        }
+    }
+
+    /**
+     * 选择桶数最接近像素宽度的一级
+     *
+     * @param count 可见的原始数据个数
+     * @param columns 像素宽度
+     * @return 级别,0表示直接使用原始数据
+     * @author hubing
+     */
+    public int chooseLevel(int count, int columns) {
+        if (columns < 1 || count <= columns * 2) {
+            return 0;
+        }
+        // 按对数比例取最接近的一级
+        int level = (int) Math.round(Math.log((double) count / columns) / Math.log(2));
+        return Math.max(0, Math.min(level, levelCount));
+    }
+
+    /**
+     * 查询下标范围内数据的最小值和最大值,按级向上合并,对齐的部分直接使用上一级的桶,时间复杂度O(log n)
+     *
+     * @param data 构建金字塔时的数据值数组
+     * @param from 起始下标(包含)
+     * @param to 结束下标(包含)
+     * @param out 输出最小值和最大值,长度不小于2
+     * @author hubing
+     */
+    public void rangeMinMax(float[] data, int from, int to, float[] out) {
+        out[0] = Float.POSITIVE_INFINITY;
+        out[1] = Float.NEGATIVE_INFINITY;
+        int low = from;
+        int high = to + 1;
+        int level = 0;
+        while (low < high) {
+            if (level == levelCount) {
+                // 最高一级的桶数不多,逐个合并
+                for (int i = low; i < high; i++) {
+                    include(data, level, i, out);
+                }
+                break;
+            }
+            // 两端不成对的桶在当前级合并,其余的交给上一级
+            if ((low & 1) != 0) {
+                include(data, level, low, out);
+                low++;
+            }
+            if ((high & 1) != 0) {
+                high--;
+                include(data, level, high, out);
+            }
+            low >>= 1;
+            high >>= 1;
+            level++;
+        }
+    }
+
+    /**
+     * 把一个桶的最小值和最大值合并到结果中
+     *
+     * @param data 数据值数组
+     * @param level 级别,0表示原始数据
+     * @param bucket 桶索引
+     * @param out 最小值和最大值
+     * @author hubing
+     */
+    private void include(float[] data, int level, int bucket, float[] out) {
+        float min;
+        float max;
+        if (level == 0) {
+            min = data[bucket];
+            max = min;
+        } else {
+            min = data[minIndices[level - 1][bucket]];
+            max = data[maxIndices[level - 1][bucket]];
+        }
+        if (min < out[0]) {
+            out[0] = min;
+        }
+        if (max > out[1]) {
+            out[1] = max;
+        }
+    }
+
+    /**
+     * 获取指定级别的桶数
+     *
+     * @param level 级别,不小于1
+     * @return
+     * @author hubing
+     */
+    public int bucketCount(int level) {
+        return (size + (1 << level) - 1) >> level;
+    }
+
+    /**
+     * 获取桶内最小值的下标
+     *
+     * @param level 级别,不小于1
+     * @param bucket 桶索引
+     * @return
+     * @author hubing
+     */
+    public int minIndex(int level, int bucket) {
+        return minIndices[level - 1][bucket];
+    }
+
+    /**
+     * 获取桶内最大值的下标
+     *
+     * @param level 级别,不小于1
+     * @param bucket 桶索引
+     * @return
+     * @author hubing
+     */
+    public int maxIndex(int level, int bucket) {
+        return maxIndices[level - 1][bucket];
+    }
+
+    public int getLevelCount() {
+        return levelCount;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 保证各级数组能容纳当前数据个数
+     *
+     * @param levels 需要的级数
+     * @author hubing
+     */
+    private void ensureLevels(int levels) {
+        if (minIndices.length < levels) {
+            int[][] mins = new int[levels][];
+            int[][] maxs = new int[levels][];
+            System.arraycopy(minIndices, 0, mins, 0, minIndices.length);
+            System.arraycopy(maxIndices, 0, maxs, 0, maxIndices.length);
+            minIndices = mins;
+            maxIndices = maxs;
+        }
+        for (int level = 1; level <= levels; level++) {
+            int buckets = bucketCount(level);
+            if (minIndices[level - 1] == null || minIndices[level - 1].length < buckets) {
+                minIndices[level - 1] = new int[buckets];
+                maxIndices[level - 1] = new int[buckets];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.iss.linechart.core;
+
+/**
+ * 单调三次样条,计算经过所有绘制点的平滑曲线的三次贝塞尔控制点。
+ * 每个点的切线按Fritsch-Butland方法只由相邻两段的斜率决定,相邻两点之间的曲线不会超出两点的数值范围,
+ * 修改某个点只影响它两侧各两段曲线,可以只重新计算受影响的部分
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-22]
+ */
+public final class MonotoneSpline {
+
+    private MonotoneSpline() {
+    }
+
+    /**
+     * 计算第from段到第to段(不含)曲线的控制点,第i段为第i个点到第i + 1个点之间的曲线
+     *
+     * @param xs 绘制点x坐标数组,需要递增
+     * @param ys 绘制点y坐标数组
+     * @param count 绘制点数
+     * @param from 起始段
+     * @param to 结束段(不含),不大于count - 1
+     * @param out 输出的控制点数组,每段依次保存c1x, c1y, c2x, c2y,长度不小于(count - 1) * 4
+     * @author hubing
+     */
+    public static void controlPoints(float[] xs, float[] ys, int count, int from, int to, float[] out) {
+        controlPoints(xs, ys, 0, count, from, to, out);
+    }
+
+    /**
+     * 计算第from段到第to段(不含)曲线的控制点,绘制点从数组的offset处开始保存,第i段的控制点保存在out的(offset + i) * 4处
+     *
+     * @param xs 绘制点x坐标数组,需要递增
+     * @param ys 绘制点y坐标数组
+     * @param offset 第一个绘制点在数组中的位置
+     * @param count 绘制点数
+     * @param from 起始段
+     * @param to 结束段(不含),不大于count - 1
+     * @param out 输出的控制点数组,长度不小于(offset + count - 1) * 4
+     * @author hubing
+     */
+    public static void controlPoints(float[] xs, float[] ys, int offset, int count, int from, int to, float[] out) {
+        if (from >= to) {
+            return;
+        }
+        float startTangent = tangent(xs, ys, offset, count, from);
+        for (int k = from; k < to; k++) {
+            float endTangent = tangent(xs, ys, offset, count, k + 1);
+            int i = offset + k;
+            float third = (xs[i + 1] - xs[i]) / 3;
+            int o = i * 4;
+            out[o] = xs[i] + third;
+            out[o + 1] = ys[i] + startTangent * third;
+            out[o + 2] = xs[i + 1] - third;
+            out[o + 3] = ys[i + 1] - endTangent * third;
+            // 下一段的起点切线即为本段的终点切线
+            startTangent = endTangent;
+        }
+    }
+
+    /**
+     * 计算第i个点的切线斜率。两侧斜率异号或为0时切线水平,否则取两侧斜率按间距加权的调和平均,
+     * 首尾两点取单侧斜率
+     *
+     * @param xs 绘制点x坐标数组
+     * @param ys 绘制点y坐标数组
+     * @param offset 第一个绘制点在数组中的位置
+     * @param count 绘制点数
+     * @param k 点的索引
+     * @return
+     * @author hubing
+     */
+    static float tangent(float[] xs, float[] ys, int offset, int count, int k) {
+        if (k == 0) {
+            return slope(xs, ys, offset);
+        }
+        if (k == count - 1) {
+            return slope(xs, ys, offset + count - 2);
+        }
+        int i = offset + k;
+        float d0 = slope(xs, ys, i - 1);
+        float d1 = slope(xs, ys, i);
+        if (d0 * d1 <= 0) {
+            return 0;
+        }
+        float h0 = xs[i] - xs[i - 1];
+        float h1 = xs[i + 1] - xs[i];
+        return 3 * (h0 + h1) / ((2 * h1 + h0) / d0 + (h1 + 2 * h0) / d1);
+    }
+
+    /**
+     * 计算第i段的斜率,两点x坐标相同时按水平处理
+     *
+     * @param xs
+     * @param ys
+     * @param i 段在数组中的位置
+     * @return
+     * @author hubing
+     */
+    private static float slope(float[] xs, float[] ys, int i) {
+        float h = xs[i + 1] - xs[i];
+        return h > 0 ? (ys[i + 1] - ys[i]) / h : 0;
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.iss.linechart.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单生产者单消费者的无锁数据队列,用于把网络等线程高频产生的数据交给主线程按显示帧率绘制。
+ * 生产者写入数据后有序发布写入位置,从不加锁和等待,队列已满时丢弃新数据并计数;
+ * 消费者每帧调用一次{@link #drain},按合并策略把积压的数据合并为一个值,每帧的工作量不超过队列容量。
+ * 主线程长时间没有取出(如窗口在后台)导致队列已满时,{@link #POLICY_LATEST}仍取到最新写入的数据,
+ * {@link #POLICY_MAX}和{@link #POLICY_AVERAGE}只统计队列中的数据,不包括被丢弃的数据
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-28]
+ */
+public final class SampleQueue {
+
+    /** 合并策略:取最新的数据,包括队列已满时被丢弃的数据 */
+    public static final int POLICY_LATEST = 0;
+
+    /** 合并策略:取最大值,不丢失两帧之间写入队列的峰值 */
+    public static final int POLICY_MAX = 1;
+
+    /** 合并策略:取平均值 */
+    public static final int POLICY_AVERAGE = 2;
+
+    /** 环形缓冲区,长度为2的幂 */
+    private final float[] buffer;
+
+    /** 下标掩码 */
+    private final int mask;
+
+    /** 下一个写入位置,只由生产者修改 */
+    private final AtomicLong tail = new AtomicLong();
+
+    /** 下一个读取位置,只由消费者修改 */
+    private final AtomicLong head = new AtomicLong();
+
+    /** 生产者缓存的读取位置,只有看起来已满时才重新读取head,减少两个线程间的缓存行争用 */
+    private long headCache;
+
+    /** 队列已满时丢弃的数据个数 */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** 最新写入的数据(float的位),队列已满时也更新,在发布写入位置之前有序写入 */
+    private final AtomicInteger latest = new AtomicInteger();
+
+    /**
+     * 构造方法
+     *
+     * @param capacity 容量,向上取整为2的幂,应大于每帧间隔内产生的数据个数
+     */
+    public SampleQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("非法的参数,capacity为: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        buffer = new float[size];
+        mask = size - 1;
+    }
+
+    /**
+     * 检查合并策略是否合法
+     *
+     * @param policy
+     * @author hubing
+     */
+    public static void checkPolicy(int policy) {
+        if (policy != POLICY_LATEST && policy != POLICY_MAX && policy != POLICY_AVERAGE) {
+            throw new IllegalArgumentException("非法的参数,policy为: " + policy);
+        }
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * 写入一个数据,只能在生产者线程调用
+     *
+     * @param value 数据值
+     * @return 是否写入,队列已满时丢弃并返回false,但仍作为{@link #POLICY_LATEST}的最新数据
+     * @author hubing
+     */
+    public boolean offer(float value) {
+        latest.lazySet(Float.floatToRawIntBits(value));
+        long t = tail.get();
+        if (t - headCache >= buffer.length) {
+            headCache = head.get();
+            if (t - headCache >= buffer.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+        buffer[(int) t & mask] = value;
+        // 有序写入,消费者读到新的写入位置时数据一定已经可见
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 批量写入数据,只能在生产者线程调用,所有数据只发布一次写入位置
+     *
+     * @param values 数据值数组
+     * @param offset 起始位置
+     * @param length 数据个数
+     * @return 写入的个数,队列剩余空间不足时丢弃后面的数据,最后一个数据仍作为{@link #POLICY_LATEST}的最新数据
+     * @author hubing
+     */
+    public int offer(float[] values, int offset, int length) {
+        if (length <= 0) {
+            return 0;
+        }
+        latest.lazySet(Float.floatToRawIntBits(values[offset + length - 1]));
+        long t = tail.get();
+        if (t - headCache + length > buffer.length) {
+            headCache = head.get();
+        }
+        int count = (int) Math.min(length, buffer.length - (t - headCache));
+        for (int i = 0; i < count; i++) {
+            buffer[(int) (t + i) & mask] = values[offset + i];
+        }
+        if (count < length) {
+            dropped.addAndGet(length - count);
+        }
+        if (count > 0) {
+            tail.lazySet(t + count);
+        }
+        return count;
+    }
+
+    /**
+     * 取出所有积压的数据并按策略合并为一个值,只能在消费者线程调用
+     *
+     * @param policy 合并策略,{@link #POLICY_LATEST}、{@link #POLICY_MAX}或{@link #POLICY_AVERAGE}
+     * @param out 输出合并结果的数组
+     * @param offset 输出位置
+     * @return 合并的数据个数,为0时没有新数据,不写入out
+     * @author hubing
+     */
+    public int drain(int policy, float[] out, int offset) {
+        long h = head.get();
+        long t = tail.get();
+        int count = (int) (t - h);
+        if (count == 0) {
+            return 0;
+        }
+        float result;
+        if (policy == POLICY_LATEST) {
+            // 读到写入位置后,不早于该位置的最新数据一定已经可见
+            result = Float.intBitsToFloat(latest.get());
+        } else if (policy == POLICY_MAX) {
+            result = Float.NEGATIVE_INFINITY;
+            for (long i = h; i < t; i++) {
+                result = Math.max(result, buffer[(int) i & mask]);
+            }
+        } else if (policy == POLICY_AVERAGE) {
+            double sum = 0;
+            for (long i = h; i < t; i++) {
+                sum += buffer[(int) i & mask];
+            }
+            result = (float) (sum / count);
+        } else {
+            throw new IllegalArgumentException("非法的参数,policy为: " + policy);
+        }
+        out[offset] = result;
+        // 读取完成后才释放空间给生产者
+        head.lazySet(t);
+        return count;
+    }
+
+    /**
+     * 获取积压的数据个数,任意线程调用,结果只是近似值
+     *
+     * @return
+     * @author hubing
+     */
+    public int size() {
+        // 先读head,tail只会增大,结果不会为负数
+        long h = head.get();
+        return (int) (tail.get() - h);
+    }
+
+    /**
+     * 获取队列已满时丢弃的数据个数
+     *
+     * @return
+     * @author hubing
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+}
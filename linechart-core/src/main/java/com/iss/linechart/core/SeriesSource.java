@@ -0,0 +1,50 @@
+package com.iss.linechart.core;
+
+/**
+ * 只读的数据序列,图表按可见范围分段读取到复用的数组中,数据不必整体加载到堆上。
+ * 实现需要支持多个线程同时读取
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-16]
+ */
+public interface SeriesSource {
+
+    /**
+     * 获取数据个数
+     *
+     * @return
+     * @author hubing
+     */
+    int size();
+
+    /**
+     * 读取一段数据值
+     *
+     * @param from 起始下标
+     * @param count 读取个数
+     * @param out 输出数组
+     * @param offset 在输出数组中的起始位置
+     * @author hubing
+     */
+    void readValues(int from, int count, float[] out, int offset);
+
+    /**
+     * 是否包含时间戳
+     *
+     * @return
+     * @author hubing
+     */
+    boolean hasTimestamps();
+
+    /**
+     * 读取一段时间戳,不包含时间戳时抛出UnsupportedOperationException
+     *
+     * @param from 起始下标
+     * @param count 读取个数
+     * @param out 输出数组
+     * @param offset 在输出数组中的起始位置
+     * @author hubing
+     */
+    void readTimestamps(int from, int count, long[] out, int offset);
+
+}
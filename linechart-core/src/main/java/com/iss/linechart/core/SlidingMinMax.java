@@ -0,0 +1,137 @@
+package com.iss.linechart.core;
+
+/**
+ * 滑动窗口的最小值和最大值,使用两个单调队列,每次写入均摊O(1),查询O(1)。
+ * 窗口大小固定,写入新值后只保留最近window个值的统计
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-14]
+ */
+public final class SlidingMinMax {
+
+    /** 窗口大小 */
+    private final int window;
+
+    /** 最小值队列中各值的写入序号,值单调递增 */
+    private final long[] minSeqs;
+
+    /** 最小值队列中的值 */
+    private final float[] minValues;
+
+    /** 最小值队列头部在环形数组中的位置 */
+    private int minHead;
+
+    /** 最小值队列长度 */
+    private int minSize;
+
+    /** 最大值队列中各值的写入序号,值单调递减 */
+    private final long[] maxSeqs;
+
+    /** 最大值队列中的值 */
+    private final float[] maxValues;
+
+    /** 最大值队列头部在环形数组中的位置 */
+    private int maxHead;
+
+    /** 最大值队列长度 */
+    private int maxSize;
+
+    /** 已写入的值个数,作为下一个值的序号 */
+    private long count;
+
+    public SlidingMinMax(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("非法的参数,window为: " + window);
+        }
+        this.window = window;
+        minSeqs = new long[window];
+        minValues = new float[window];
+        maxSeqs = new long[window];
+        maxValues = new float[window];
+    }
+
+    /**
+     * 写入一个值,最早的值超出窗口时移出
+     *
+     * @param value
+     * @author hubing
+     */
+    public void push(float value) {
+        long seq = count++;
+        long expired = seq - window;
+        // 移出超出窗口的值
+        while (minSize > 0 && minSeqs[minHead] <= expired) {
+            minHead = next(minHead);
+            minSize--;
+        }
+        while (maxSize > 0 && maxSeqs[maxHead] <= expired) {
+            maxHead = next(maxHead);
+            maxSize--;
+        }
+        // 队尾不小于新值的最小值候选不会再成为最小值
+        while (minSize > 0 && minValues[position(minHead, minSize - 1)] >= value) {
+            minSize--;
+        }
+        int minTail = position(minHead, minSize++);
+        minSeqs[minTail] = seq;
+        minValues[minTail] = value;
+        // 队尾不大于新值的最大值候选不会再成为最大值
+        while (maxSize > 0 && maxValues[position(maxHead, maxSize - 1)] <= value) {
+            maxSize--;
+        }
+        int maxTail = position(maxHead, maxSize++);
+        maxSeqs[maxTail] = seq;
+        maxValues[maxTail] = value;
+    }
+
+    /**
+     * 清空窗口
+     *
+     * @author hubing
+     */
+    public void clear() {
+        minHead = 0;
+        minSize = 0;
+        maxHead = 0;
+        maxSize = 0;
+        count = 0;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * 获取窗口内的最小值,窗口为空时返回Float.POSITIVE_INFINITY
+     *
+     * @return
+     * @author hubing
+     */
+    public float min() {
+        return minSize == 0 ? Float.POSITIVE_INFINITY : minValues[minHead];
+    }
+
+    /**
+     * 获取窗口内的最大值,窗口为空时返回Float.NEGATIVE_INFINITY
+     *
+     * @return
+     * @author hubing
+     */
+    public float max() {
+        return maxSize == 0 ? Float.NEGATIVE_INFINITY : maxValues[maxHead];
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    private int next(int index) {
+        return index + 1 == window ? 0 : index + 1;
+    }
+
+    private int position(int head, int offset) {
+        int index = head + offset;
+        return index >= window ? index - window : index;
+    }
+
+}
@@ -0,0 +1,301 @@
+package com.iss.linechart.core;
+
+import java.util.Arrays;
+
+/**
+ * 按固定时间间隔增量聚合带时间戳的数据,数据到达时写入当前时间段,进入下一个时间段时计算并保存上一段的
+ * 平均值、最小值、最大值和95百分位数。一天10Hz的数据按分钟聚合只有1440段,绘制成本与原始数据量无关。
+ * 没有数据的时间段不产生记录,绘制时配合最大采样间隔显示为数据空白。所有方法线程安全,可以在数据线程写入、主线程读取
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public final class TimeBucketAggregator {
+
+    /** 统计值:平均值 */
+    public static final int STAT_AVERAGE = 0;
+
+    /** 统计值:最小值 */
+    public static final int STAT_MIN = 1;
+
+    /** 统计值:最大值 */
+    public static final int STAT_MAX = 2;
+
+    /** 统计值:95百分位数 */
+    public static final int STAT_P95 = 3;
+
+    /** 统计值的种类数 */
+    private static final int STAT_COUNT = 4;
+
+    /** 初始的时间段容量 */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** 时间段长度 */
+    private final long interval;
+
+    /** 已结束时间段的起始时间 */
+    private long[] starts = new long[INITIAL_CAPACITY];
+
+    /** 已结束时间段的统计值,每段依次保存STAT_COUNT个 */
+    private float[] stats = new float[INITIAL_CAPACITY * STAT_COUNT];
+
+    /** 已结束的时间段个数 */
+    private int closedCount;
+
+    /** 当前时间段的起始时间 */
+    private long openStart;
+
+    /** 当前时间段的数据,计算百分位数时会被重新排列 */
+    private float[] openValues = new float[INITIAL_CAPACITY];
+
+    /** 当前时间段的数据个数 */
+    private int openCount;
+
+    /** 当前时间段的数据和 */
+    private double openSum;
+
+    private float openMin;
+
+    private float openMax;
+
+    /** 数据版本,每次写入后递增,用于判断是否需要刷新图表 */
+    private long version;
+
+    /**
+     * 构造方法
+     *
+     * @param interval 时间段长度,与时间戳的单位相同,需要大于0
+     */
+    public TimeBucketAggregator(long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("非法的参数,interval为: " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * 检查统计值种类是否合法
+     *
+     * @param stat
+     * @author hubing
+     */
+    public static void checkStat(int stat) {
+        if (stat < STAT_AVERAGE || stat > STAT_P95) {
+            throw new IllegalArgumentException("非法的参数,stat为: " + stat);
+        }
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * 写入一个数据,时间戳不能早于当前时间段,当前时间段已结束时不能早于最后一个时间段,NaN被忽略
+     *
+     * @param timestamp 时间戳
+     * @param value 数据值
+     * @author hubing
+     */
+    public synchronized void add(long timestamp, float value) {
+        if (Float.isNaN(value)) {
+            return;
+        }
+        long start = bucketStart(timestamp);
+        if (openCount > 0 && start != openStart) {
+            if (start < openStart) {
+                throw new IllegalArgumentException("非法的参数,timestamp早于当前时间段,timestamp为: " + timestamp);
+            }
+            closeBucket();
+        }
+        if (openCount == 0) {
+            if (closedCount > 0 && start < starts[closedCount - 1]) {
+                // flush之后同样要求时间段的起始时间非递减,按时间计算坐标时依赖此顺序
+                throw new IllegalArgumentException("非法的参数,timestamp早于最后一个时间段,timestamp为: " + timestamp);
+            }
+            openStart = start;
+            openSum = 0;
+            openMin = value;
+            openMax = value;
+        }
+        if (openCount == openValues.length) {
+            openValues = Arrays.copyOf(openValues, openCount * 2);
+        }
+        openValues[openCount++] = value;
+        openSum += value;
+        openMin = Math.min(openMin, value);
+        openMax = Math.max(openMax, value);
+        version++;
+    }
+
+    /**
+     * 结束当前时间段,之后写入的数据即使属于同一时间段也计入新的一段。通常在数据结束时调用
+     *
+     * @author hubing
+     */
+    public synchronized void flush() {
+        if (openCount > 0) {
+            closeBucket();
+            version++;
+        }
+    }
+
+    /**
+     * 清除所有数据
+     *
+     * @author hubing
+     */
+    public synchronized void clear() {
+        closedCount = 0;
+        openCount = 0;
+        version++;
+    }
+
+    /**
+     * 获取时间段个数,包括未结束的当前时间段
+     *
+     * @return
+     * @author hubing
+     */
+    public synchronized int getBucketCount() {
+        return closedCount + (openCount > 0 ? 1 : 0);
+    }
+
+    /**
+     * 获取数据版本,版本不变时聚合结果没有变化,不需要刷新图表
+     *
+     * @return
+     * @author hubing
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * 读取时间段的起始时间和统计值,未结束的当前时间段按已有数据计算
+     *
+     * @param stat 统计值种类,{@link #STAT_AVERAGE}、{@link #STAT_MIN}、{@link #STAT_MAX}或{@link #STAT_P95}
+     * @param from 第一个时间段的索引
+     * @param count 最多读取的时间段个数
+     * @param times 输出起始时间的数组,从0开始写入
+     * @param values 输出统计值的数组,从0开始写入
+     * @return 实际读取的个数
+     * @author hubing
+     */
+    public synchronized int readBuckets(int stat, int from, int count, long[] times, float[] values) {
+        checkStat(stat);
+        int total = closedCount + (openCount > 0 ? 1 : 0);
+        if (from < 0 || count < 0) {
+            throw new IllegalArgumentException("非法的参数,from为: " + from + ", count为: " + count);
+        }
+        int n = Math.max(0, Math.min(count, total - from));
+        for (int i = 0; i < n; i++) {
+            int bucket = from + i;
+            if (bucket < closedCount) {
+                times[i] = starts[bucket];
+                values[i] = stats[bucket * STAT_COUNT + stat];
+            } else {
+                times[i] = openStart;
+                values[i] = openStat(stat);
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 计算时间戳所在时间段的起始时间,按interval对齐,负数时间戳向下取整
+     *
+     * @param timestamp
+     * @return
+     * @author hubing
+     */
+    private long bucketStart(long timestamp) {
+        long q = timestamp / interval;
+        if (timestamp % interval < 0) {
+            q--;
+        }
+        return q * interval;
+    }
+
+    /**
+     * 计算当前时间段的统计值
+     *
+     * @param stat
+     * @return
+     * @author hubing
+     */
+    private float openStat(int stat) {
+        switch (stat) {
+            case STAT_AVERAGE:
+                return (float) (openSum / openCount);
+            case STAT_MIN:
+                return openMin;
+            case STAT_MAX:
+                return openMax;
+            default:
+                return percentile95();
+        }
+    }
+
+    /**
+     * 保存当前时间段的统计值并清空当前时间段
+     *
+     * @author hubing
+     */
+    private void closeBucket() {
+        if (closedCount == starts.length) {
+            starts = Arrays.copyOf(starts, closedCount * 2);
+            stats = Arrays.copyOf(stats, closedCount * 2 * STAT_COUNT);
+        }
+        int s = closedCount * STAT_COUNT;
+        starts[closedCount] = openStart;
+        stats[s + STAT_AVERAGE] = (float) (openSum / openCount);
+        stats[s + STAT_MIN] = openMin;
+        stats[s + STAT_MAX] = openMax;
+        stats[s + STAT_P95] = percentile95();
+        closedCount++;
+        openCount = 0;
+    }
+
+    /**
+     * 按最近秩法计算当前时间段的95百分位数,原地快速选择,平均O(n)
+     *
+     * @return
+     * @author hubing
+     */
+    private float percentile95() {
+        int k = (int) Math.ceil(openCount * 0.95) - 1;
+        float[] a = openValues;
+        int low = 0;
+        int high = openCount - 1;
+        while (low < high) {
+            float pivot = a[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    float t = a[i];
+                    a[i] = a[j];
+                    a[j] = t;
+                    i++;
+                    j--;
+                }
+            }
+            // [low, j]不大于pivot,[i, high]不小于pivot,两者之间等于pivot
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return a[k];
+            }
+        }
+        return a[k];
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.iss.linechart.core;
+
+/**
+ * 数据值格式化,把数值按指定的小数位数四舍五入并加上单位写入调用方提供的字符数组,
+ * 不创建String或StringBuilder,可以在每一帧绘制时调用
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-24]
+ */
+public final class ValueFormatter {
+
+    /** 支持的最大小数位数 */
+    public static final int MAX_DECIMALS = 6;
+
+    /** long可表示的最大十进制位数 */
+    private static final int MAX_DIGITS = 19;
+
+    /** 10的0到MAX_DECIMALS次方 */
+    private static final double[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000 };
+
+    /** 数值无效时显示的文本 */
+    private static final char[] INVALID = { '-', '-' };
+
+    /** 小数位数 */
+    private int decimals;
+
+    /** 单位 */
+    private String unit;
+
+    /** 单位的字符 */
+    private char[] unitChars;
+
+    /**
+     * 构造方法
+     *
+     * @param decimals 小数位数,0到{@link #MAX_DECIMALS}
+     * @param unit 单位,null表示不显示单位
+     */
+    public ValueFormatter(int decimals, String unit) {
+        setDecimals(decimals);
+        setUnit(unit);
+    }
+
+    /**
+     * 设置小数位数
+     *
+     * @param decimals 小数位数,0到{@link #MAX_DECIMALS}
+     * @author hubing
+     */
+    public void setDecimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("非法的参数,decimals为: " + decimals);
+        }
+        this.decimals = decimals;
+    }
+
+    public int getDecimals() {
+        return decimals;
+    }
+
+    /**
+     * 设置单位
+     *
+     * @param unit 单位,null表示不显示单位
+     * @author hubing
+     */
+    public void setUnit(String unit) {
+        this.unit = unit == null ? "" : unit;
+        this.unitChars = this.unit.toCharArray();
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * 获取格式化结果的最大长度,调用方按此长度准备字符数组
+     *
+     * @return
+     * @author hubing
+     */
+    public int getMaxLength() {
+        // 负号、整数和小数位、小数点、单位
+        return 1 + MAX_DIGITS + 1 + unitChars.length;
+    }
+
+    /**
+     * 格式化数据值
+     *
+     * @param value 数据值
+     * @param out 输出的字符数组,从offset开始至少有{@link #getMaxLength()}个位置
+     * @param offset 写入的起始位置
+     * @return 文本长度
+     * @author hubing
+     */
+    public int format(float value, char[] out, int offset) {
+        int length = 0;
+        double scaled = value * POWERS_OF_TEN[decimals];
+        if (Float.isNaN(value) || Math.abs(scaled) >= Long.MAX_VALUE) {
+            System.arraycopy(INVALID, 0, out, offset, INVALID.length);
+            length = INVALID.length;
+        } else {
+            long remain = Math.round(scaled);
+            if (remain < 0) {
+                out[offset + length++] = '-';
+                remain = -remain;
+            }
+            // 先求出位数,整数部分至少一位,再从低位到高位填充
+            int digits = 1;
+            for (long d = remain; d >= 10; d /= 10) {
+                digits++;
+            }
+            digits = Math.max(digits, decimals + 1);
+            int end = offset + length + digits + (decimals > 0 ? 1 : 0);
+            int pos = end - 1;
+            for (int i = 0; i < digits; i++) {
+                if (decimals > 0 && i == decimals) {
+                    out[pos--] = '.';
+                }
+                out[pos--] = (char) ('0' + remain % 10);
+                remain /= 10;
+            }
+            length = end - offset;
+        }
+        System.arraycopy(unitChars, 0, out, offset + length, unitChars.length);
+        return length + unitChars.length;
+    }
+
+}
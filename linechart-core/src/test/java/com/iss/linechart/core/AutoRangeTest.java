@@ -0,0 +1,125 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 自动范围的测试:取整结果与逐个尝试的结果相同,范围始终包含滑动窗口内的数据
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class AutoRangeTest {
+
+    private static final float[] STEPS = { 1F, 2F, 2.5F, 5F };
+
+    /**
+     * 逐个尝试1、2、2.5、5乘以10的整数次幂,取不小于value的最小值
+     *
+     * @param value 正数
+     * @return
+     * @author hubing
+     */
+    private static float bruteNiceCeil(float value) {
+        for (int exponent = -12; exponent <= 12; exponent++) {
+            for (float step : STEPS) {
+                float candidate = (float) (step * Math.pow(10, exponent));
+                if (candidate >= value) {
+                    return candidate;
+                }
+            }
+        }
+        throw new AssertionError("value out of range: " + value);
+    }
+
+    private static boolean isNice(float value) {
+        return value == 0 || bruteNiceCeil(Math.abs(value)) == Math.abs(value);
+    }
+
+    @Test
+    public void niceCeilMatchesBruteForce() {
+        // 正好为取整值的数及其前后相邻的float
+        for (int exponent = -6; exponent <= 9; exponent++) {
+            for (float step : STEPS) {
+                float nice = (float) (step * Math.pow(10, exponent));
+                assertEquals(nice, AutoRange.niceCeil(nice), 0);
+                float above = Math.nextUp(nice);
+                assertEquals(bruteNiceCeil(above), AutoRange.niceCeil(above), 0);
+                float below = Math.nextAfter(nice, 0);
+                assertEquals(bruteNiceCeil(below), AutoRange.niceCeil(below), 0);
+            }
+        }
+        Random random = new Random(31);
+        for (int i = 0; i < 10000; i++) {
+            float value = (float) Math.pow(10, random.nextDouble() * 16 - 6);
+            assertEquals("value " + value, bruteNiceCeil(value), AutoRange.niceCeil(value), 0);
+        }
+    }
+
+    @Test
+    public void rangeContainsSlidingWindow() {
+        Random random = new Random(32);
+        int window = 50;
+        SlidingMinMax sliding = new SlidingMinMax(window);
+        float[] values = new float[5000];
+        AutoRange range = new AutoRange(0, 1);
+        float level = 0;
+        for (int n = 0; n < values.length; n++) {
+            // 随机游走,偶尔跳变,覆盖扩大和缩小
+            level += (float) random.nextGaussian() * 3;
+            if (random.nextInt(500) == 0) {
+                level = (float) random.nextGaussian() * 2000;
+            }
+            values[n] = level + (float) random.nextGaussian();
+            sliding.push(values[n]);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = Math.max(0, n - window + 1); i <= n; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            assertEquals(min, sliding.min(), 0);
+            assertEquals(max, sliding.max(), 0);
+
+            float oldMin = range.getMin();
+            float oldMax = range.getMax();
+            boolean changed = range.update(min, max);
+            String message = "push " + n + ", data [" + min + ", " + max + "]";
+            assertTrue(message, range.getMin() <= min && max <= range.getMax());
+            assertTrue(message, range.getMin() < range.getMax());
+            assertEquals(message, changed, range.getMin() != oldMin || range.getMax() != oldMax);
+            if (changed) {
+                assertTrue(message, isNice(range.getMin()) && isNice(range.getMax()));
+                // 不含负数时从0开始,不含正数时到0为止
+                assertTrue(message, min < 0 || range.getMin() == 0);
+                assertTrue(message, max > 0 || range.getMax() == 0 || range.getMin() == range.getMax() - 1);
+            }
+        }
+    }
+
+    @Test
+    public void shrinksOnlyBelowHalf() {
+        AutoRange range = new AutoRange(0, 1);
+        assertTrue(range.update(0, 90));
+        assertEquals(0, range.getMin(), 0);
+        assertEquals(100, range.getMax(), 0);
+        // 数据在范围内且新范围不小于一半时不变
+        assertFalse(range.update(0, 50));
+        assertEquals(100, range.getMax(), 0);
+        // 新范围为50,正好一半时不缩小
+        assertFalse(range.update(0, 40));
+        // 新范围为25,小于一半时缩小
+        assertTrue(range.update(0, 20));
+        assertEquals(25, range.getMax(), 0);
+        // 超出时立即扩大,负数一侧同样取整并留出余量
+        assertTrue(range.update(-19, 20));
+        assertEquals(-25, range.getMin(), 0);
+        assertEquals(25, range.getMax(), 0);
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * 坐标背景布局的测试:参考圆点与刻度值一一对应,圆点高度与线条上同一数值的高度一致
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class ChartGridTest {
+
+    @Test
+    public void circlesSitAtTickValueHeight() {
+        int count = 7;
+        float[][] ranges = { { 0, 100 }, { -3.5F, 12.25F }, { 1000, 1001 } };
+        int[] heights = { 288, 301, 97 };
+        for (float[] range : ranges) {
+            for (int height : heights) {
+                float[] values = new float[count];
+                float[] circles = new float[count * 2];
+                ChartGrid.tickValues(values, count, range[0], range[1]);
+                ChartGrid.verticalCircles(circles, values, count, 40, height, range[0], range[1]);
+                assertEquals(range[1], values[0], 0);
+                assertEquals(range[0], values[count - 1], 0);
+                // 最大值在顶部,最小值在底部
+                assertEquals(0, circles[1], 0);
+                assertEquals(height, circles[count * 2 - 1], 0);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(40, circles[i * 2], 0);
+                    assertEquals(LineGeometry.valueToY(values[i], height, range[0], range[1]), circles[i * 2 + 1], 0);
+                    if (i > 0) {
+                        // 相邻圆点的间距与均匀间距相差不超过取整的1像素
+                        float space = circles[i * 2 + 1] - circles[i * 2 - 1];
+                        assertEquals((float) height / (count - 1), space, 1);
+                    }
+                }
+            }
+        }
+    }
+
+}
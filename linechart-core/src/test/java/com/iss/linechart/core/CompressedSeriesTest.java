@@ -0,0 +1,235 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 压缩序列的往返测试:写入的时间戳和数据值按位原样读回,覆盖块边界、64位时间戳差值、
+ * NaN、非规格化数和负零等特殊位模式,以及分段、乱序的读取
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class CompressedSeriesTest {
+
+    private static final int BLOCK = CompressedSeries.BLOCK_SIZE;
+
+    /** 各种特殊的float位模式 */
+    private static final int[] SPECIAL_BITS = {
+            0x7FC00000, // NaN
+            0x7FC00001, // 带负载的NaN
+            0xFFFFFFFF, // 负的NaN
+            0x7F800001, // signaling NaN
+            0x00000001, // 最小的非规格化数
+            0x007FFFFF, // 最大的非规格化数
+            0x80000001, // 负的非规格化数
+            0x80000000, // 负零
+            0x00000000, // 正零
+            0x7F800000, // 正无穷
+            0xFF800000, // 负无穷
+            0x7F7FFFFF, // 最大值
+    };
+
+    /**
+     * 创建带时间戳的压缩序列并写入数据
+     *
+     * @param times
+     * @param bits 数据值的位
+     * @return
+     * @author hubing
+     */
+    private static CompressedSeries create(long[] times, int[] bits) {
+        CompressedSeries series = new CompressedSeries(true);
+        for (int i = 0; i < times.length; i++) {
+            series.append(times[i], Float.intBitsToFloat(bits[i]));
+        }
+        return series;
+    }
+
+    /**
+     * 一次读取全部数据,检查时间戳和数据值的位与写入的相同
+     *
+     * @param series
+     * @param times
+     * @param bits
+     * @author hubing
+     */
+    private static void assertRoundTrip(CompressedSeries series, long[] times, int[] bits) {
+        int n = bits.length;
+        assertEquals(n, series.size());
+        float[] values = new float[n];
+        series.readValues(0, n, values, 0);
+        assertArrayEquals(bits, toBits(values));
+        if (times != null) {
+            long[] readTimes = new long[n];
+            series.readTimestamps(0, n, readTimes, 0);
+            assertArrayEquals(times, readTimes);
+        }
+    }
+
+    private static int[] toBits(float[] values) {
+        int[] bits = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bits[i] = Float.floatToRawIntBits(values[i]);
+        }
+        return bits;
+    }
+
+    /**
+     * 等间隔的时间戳,数据值为缓慢变化的正弦
+     *
+     * @param n
+     * @param times
+     * @param bits
+     * @author hubing
+     */
+    private static void fillRegular(int n, long[] times, int[] bits) {
+        for (int i = 0; i < n; i++) {
+            times[i] = 1461888000000L + i * 100L;
+            bits[i] = Float.floatToRawIntBits((float) Math.sin(i * 0.01) * 50 + 50);
+        }
+    }
+
+    @Test
+    public void roundTripsAcrossBlockBoundaries() {
+        int[] sizes = { 1, BLOCK - 1, BLOCK, BLOCK + 1, BLOCK * 3, BLOCK * 3 + 7 };
+        for (int n : sizes) {
+            long[] times = new long[n];
+            int[] bits = new int[n];
+            fillRegular(n, times, bits);
+            assertRoundTrip(create(times, bits), times, bits);
+        }
+    }
+
+    @Test
+    public void readsRangesSpanningBlocks() {
+        int n = BLOCK * 4 + 13;
+        long[] times = new long[n];
+        int[] bits = new int[n];
+        fillRegular(n, times, bits);
+        CompressedSeries series = create(times, bits);
+        // 跨块边界的区间
+        int[][] ranges = { { BLOCK - 3, 6 }, { BLOCK * 2 - 1, BLOCK + 2 }, { BLOCK * 4, 13 }, { 0, 1 }, { n - 1, 1 } };
+        for (int[] range : ranges) {
+            assertRange(series, times, bits, range[0], range[1]);
+        }
+        // 连续分段读取,接着上次的解码位置
+        for (int from = 0; from < n; from += 100) {
+            assertRange(series, times, bits, from, Math.min(100, n - from));
+        }
+        // 随机读取,包括向前跳转
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(n);
+            assertRange(series, times, bits, from, random.nextInt(n - from + 1));
+        }
+    }
+
+    private static void assertRange(CompressedSeries series, long[] times, int[] bits, int from, int count) {
+        float[] values = new float[count + 2];
+        long[] readTimes = new long[count + 2];
+        series.readValues(from, count, values, 1);
+        series.readTimestamps(from, count, readTimes, 1);
+        for (int i = 0; i < count; i++) {
+            assertEquals("index " + (from + i), bits[from + i], Float.floatToRawIntBits(values[i + 1]));
+            assertEquals("index " + (from + i), times[from + i], readTimes[i + 1]);
+        }
+    }
+
+    @Test
+    public void roundTripsEveryTimestampEncoding() {
+        // 依次覆盖差值为0、7位、9位、12位的边界和64位的转义
+        long[] deltaOfDeltas = { 0, -63, 64, -64, 65, -255, 256, -256, 257, -2047, 2048, -2048, 2049,
+                Long.MAX_VALUE / 4, Long.MIN_VALUE / 4, 1L << 40, -(1L << 40), 1 };
+        int n = deltaOfDeltas.length * 3;
+        long[] times = new long[n];
+        int[] bits = new int[n];
+        long delta = 0;
+        for (int i = 1; i < n; i++) {
+            // 每个差值之后接一次反向的差值,避免时间戳溢出
+            long dod = i % 2 == 1 ? deltaOfDeltas[(i / 2) % deltaOfDeltas.length] : -delta;
+            delta += dod;
+            times[i] = times[i - 1] + delta;
+            bits[i] = Float.floatToRawIntBits(i);
+        }
+        assertRoundTrip(create(times, bits), times, bits);
+    }
+
+    @Test
+    public void roundTripsExtremeTimestamps() {
+        long[] times = { Long.MIN_VALUE, Long.MAX_VALUE, 0, Long.MIN_VALUE, -1, Long.MAX_VALUE };
+        int[] bits = new int[times.length];
+        assertRoundTrip(create(times, bits), times, bits);
+    }
+
+    @Test
+    public void roundTripsSpecialBitPatterns() {
+        // 特殊值两两相邻,异或结果覆盖各种前导零和末尾零
+        int n = SPECIAL_BITS.length * SPECIAL_BITS.length * 2;
+        long[] times = new long[n];
+        int[] bits = new int[n];
+        for (int i = 0; i < SPECIAL_BITS.length; i++) {
+            for (int j = 0; j < SPECIAL_BITS.length; j++) {
+                int k = (i * SPECIAL_BITS.length + j) * 2;
+                bits[k] = SPECIAL_BITS[i];
+                bits[k + 1] = SPECIAL_BITS[j];
+                times[k] = k;
+                times[k + 1] = k + 1;
+            }
+        }
+        assertRoundTrip(create(times, bits), times, bits);
+    }
+
+    @Test
+    public void roundTripsRandomBitsWithoutTimestamps() {
+        int n = BLOCK * 2 + 100;
+        int[] bits = new int[n];
+        Random random = new Random(7);
+        CompressedSeries series = new CompressedSeries(false);
+        for (int i = 0; i < n; i++) {
+            // 混合完全随机的位、重复值和只改变低位的值
+            switch (i % 3) {
+                case 0:
+                    bits[i] = random.nextInt();
+                    break;
+                case 1:
+                    bits[i] = bits[i - 1];
+                    break;
+                default:
+                    bits[i] = bits[i - 1] ^ (1 << random.nextInt(32));
+                    break;
+            }
+            series.append(Float.intBitsToFloat(bits[i]));
+        }
+        assertRoundTrip(series, null, bits);
+    }
+
+    @Test
+    public void readsWhileAppending() {
+        int n = BLOCK * 2 + 5;
+        long[] times = new long[n];
+        int[] bits = new int[n];
+        fillRegular(n, times, bits);
+        CompressedSeries series = new CompressedSeries(true);
+        float[] value = new float[1];
+        for (int i = 0; i < n; i++) {
+            series.append(times[i], Float.intBitsToFloat(bits[i]));
+            // 每次追加后读取最后一个数据,追加不能破坏解码状态
+            series.readValues(i, 1, value, 0);
+            assertEquals(bits[i], Float.floatToRawIntBits(value[0]));
+        }
+        assertRoundTrip(series, times, bits);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsReadPastEnd() {
+        CompressedSeries series = new CompressedSeries(false);
+        series.append(1);
+        series.readValues(0, 2, new float[2], 0);
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 抽稀的测试:保留首尾两点,输出点数不超过预算,下标递增,按列抽稀不丢失最小值和最大值
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class LineDecimatorTest {
+
+    private static final int[] LENGTHS = { 1, 2, 3, 10, 101, 1000, 4096, 10007 };
+
+    private static final int[] BUDGETS = { 1, 2, 3, 5, 64, 320, 1000 };
+
+    private static float[] randomWalk(Random random, int length) {
+        float[] data = new float[length];
+        float value = 0;
+        for (int i = 0; i < length; i++) {
+            value += (float) random.nextGaussian();
+            // 偶尔出现尖峰
+            data[i] = random.nextInt(200) == 0 ? value + 100 * (random.nextBoolean() ? 1 : -1) : value;
+        }
+        return data;
+    }
+
+    /**
+     * 检查下标严格递增且在数据范围内,首尾两点都保留
+     *
+     * @param out
+     * @param count
+     * @param length
+     * @param message
+     * @author hubing
+     */
+    private static void assertIndices(int[] out, int count, int length, String message) {
+        assertTrue(message, count >= 1);
+        assertEquals(message, 0, out[0]);
+        assertEquals(message, length - 1, out[count - 1]);
+        for (int i = 1; i < count; i++) {
+            assertTrue(message + ", index " + i, out[i] > out[i - 1] && out[i] < length);
+        }
+    }
+
+    @Test
+    public void lttbKeepsEndpointsWithinBudget() {
+        Random random = new Random(41);
+        for (int length : LENGTHS) {
+            // 数据放在数组中间,检查offset
+            float[] padded = new float[length + 10];
+            System.arraycopy(randomWalk(random, length), 0, padded, 5, length);
+            for (int threshold : BUDGETS) {
+                int[] out = new int[Math.max(length, threshold)];
+                int count = LineDecimator.lttb(padded, 5, length, threshold, out);
+                String message = "length " + length + ", threshold " + threshold;
+                assertIndices(out, count, length, message);
+                if (threshold >= 3 && threshold < length) {
+                    assertEquals(message, threshold, count);
+                } else {
+                    assertEquals(message, length, count);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lttbPicksOnePointPerBucket() {
+        Random random = new Random(42);
+        int length = 1000;
+        int threshold = 37;
+        float[] data = randomWalk(random, length);
+        int[] out = new int[threshold];
+        int count = LineDecimator.lttb(data, 0, length, threshold, out);
+        double every = (double) (length - 2) / (threshold - 2);
+        for (int i = 1; i < count - 1; i++) {
+            int start = (int) ((i - 1) * every) + 1;
+            int end = (int) (i * every) + 1;
+            assertTrue("bucket " + i, out[i] >= start && out[i] < end);
+        }
+    }
+
+    @Test
+    public void minMaxKeepsEndpointsAndExtremes() {
+        Random random = new Random(43);
+        for (int length : LENGTHS) {
+            float[] padded = new float[length + 10];
+            float[] data = randomWalk(random, length);
+            System.arraycopy(data, 0, padded, 7, length);
+            for (int columns : BUDGETS) {
+                int[] out = new int[Math.max(length, columns * 2 + 2)];
+                int count = LineDecimator.minMax(padded, 7, length, columns, out);
+                String message = "length " + length + ", columns " + columns;
+                assertIndices(out, count, length, message);
+                if (columns * 2 + 2 >= length) {
+                    // 数据不多于预算时不抽稀
+                    assertEquals(message, length, count);
+                    continue;
+                }
+                assertTrue(message, count <= columns * 2 + 2);
+                // 每列的最小值和最大值都被保留
+                double every = (double) length / columns;
+                for (int c = 0; c < columns; c++) {
+                    int from = (int) (c * every);
+                    int to = c == columns - 1 ? length : (int) ((c + 1) * every);
+                    float min = Float.POSITIVE_INFINITY;
+                    float max = Float.NEGATIVE_INFINITY;
+                    for (int j = from; j < to; j++) {
+                        min = Math.min(min, data[j]);
+                        max = Math.max(max, data[j]);
+                    }
+                    float keptMin = Float.POSITIVE_INFINITY;
+                    float keptMax = Float.NEGATIVE_INFINITY;
+                    for (int i = 0; i < count; i++) {
+                        if (out[i] >= from && out[i] < to) {
+                            keptMin = Math.min(keptMin, data[out[i]]);
+                            keptMax = Math.max(keptMax, data[out[i]]);
+                        }
+                    }
+                    assertEquals(message + ", column " + c, min, keptMin, 0);
+                    assertEquals(message + ", column " + c, max, keptMax, 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void minMaxKeepsEndpointsAwayFromExtremes() {
+        // 首尾两点都不是所在列的极值
+        float[] data = new float[100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = i % 10 == 5 ? 10 : i % 10 == 7 ? -10 : 0;
+        }
+        int[] out = new int[10 * 2 + 2];
+        int count = LineDecimator.minMax(data, 0, data.length, 10, out);
+        assertEquals(22, count);
+        assertIndices(out, count, data.length, "endpoints");
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 线条几何数据的测试
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class LineGeometryTest {
+
+    private static final float LEFT = 10;
+
+    private static final float WIDTH = 300;
+
+    private static final float HEIGHT = 200;
+
+    private static final float MIN_VALUE = 0;
+
+    private static final float MAX_VALUE = 100;
+
+    private static float toY(float value) {
+        return LineGeometry.valueToY(value, HEIGHT, MIN_VALUE, MAX_VALUE);
+    }
+
+    /**
+     * 创建已有size个数据的实时滚动线条
+     *
+     * @param capacity 容量
+     * @param size 数据个数
+     * @return
+     * @author hubing
+     */
+    private static LineGeometry createStream(int capacity, int size) {
+        float[] ring = new float[capacity];
+        for (int i = 0; i < size; i++) {
+            ring[i] = i % 100;
+        }
+        LineGeometry geometry = new LineGeometry();
+        geometry.computeStream(ring, 0, size, LEFT, WIDTH, HEIGHT, MIN_VALUE, MAX_VALUE);
+        return geometry;
+    }
+
+    /**
+     * 检查每个绘制点的y坐标与数据值对应
+     *
+     * @param geometry
+     * @author hubing
+     */
+    private static void assertYsMatchValues(LineGeometry geometry) {
+        for (int i = 0; i < geometry.pointCount; i++) {
+            assertEquals("point " + i, toY(geometry.getValue(i)), geometry.getY(i), 0);
+        }
+    }
+
+    /**
+     * 逐个追加超过数组长度的数据,每次追加后与按环形缓冲区重新计算的结果比较
+     *
+     * @param capacity 容量
+     * @param initial 初始数据个数
+     * @param curveStride 每追加几次更新一次控制点,0为不更新
+     * @author hubing
+     */
+    private static void assertAppendMatchesRecompute(int capacity, int initial, int curveStride) {
+        LineGeometry geometry = createStream(capacity, initial);
+        float[] ring = new float[capacity];
+        for (int i = 0; i < initial; i++) {
+            ring[i] = i % 100;
+        }
+        float slotSpace = WIDTH / (capacity - 1);
+        int appendCount = capacity * 5 + 3;
+        int wraps = 0;
+        int lastOffset = 0;
+        for (int n = 0; n < appendCount; n++) {
+            int index = initial + n;
+            float value = (index * 37) % 100;
+            ring[index % capacity] = value;
+            geometry.appendPoint(value, toY(value), capacity);
+            if (geometry.offset < lastOffset) {
+                wraps++;
+            }
+            lastOffset = geometry.offset;
+
+            int size = Math.min(index + 1, capacity);
+            int start = index + 1 - size;
+            String message = "capacity " + capacity + ", append " + n;
+            assertEquals(message, size, geometry.pointCount);
+            assertTrue(message, geometry.offset + geometry.pointCount <= capacity * 2);
+            assertEquals(message, geometry.xs[0] - geometry.xs[geometry.offset], geometry.scrollX, 0);
+            for (int i = 0; i < size; i++) {
+                int p = geometry.offset + i;
+                float value0 = ring[(start + i) % capacity];
+                assertEquals(message, LEFT + i * slotSpace, geometry.getX(i), 1e-3);
+                assertEquals(message, value0, geometry.getValue(i), 0);
+                assertEquals(message, toY(value0), geometry.getY(i), 0);
+                assertEquals(message, geometry.xs[p], geometry.points[p * 2], 0);
+                assertEquals(message, geometry.ys[p], geometry.points[p * 2 + 1], 0);
+                if (i > 0) {
+                    int s = (p - 1) * 4;
+                    assertEquals(message, geometry.xs[p - 1], geometry.segments[s], 0);
+                    assertEquals(message, geometry.ys[p - 1], geometry.segments[s + 1], 0);
+                    assertEquals(message, geometry.xs[p], geometry.segments[s + 2], 0);
+                    assertEquals(message, geometry.ys[p], geometry.segments[s + 3], 0);
+                }
+            }
+            if (curveStride > 0 && n % curveStride == 0) {
+                assertCurvesFresh(geometry, message);
+            }
+        }
+        // 追加次数超过数组长度,窗口至少移回数组开头一次
+        if (initial + appendCount > capacity * 2) {
+            assertTrue(wraps > 0);
+        }
+        assertCurvesFresh(geometry, "capacity " + capacity + ", end");
+    }
+
+    /**
+     * 更新控制点,检查缓存的控制点与重新计算的相同
+     *
+     * @param geometry
+     * @param message
+     * @author hubing
+     */
+    private static void assertCurvesFresh(LineGeometry geometry, String message) {
+        geometry.updateCurves();
+        int curveCount = Math.max(geometry.pointCount - 1, 0);
+        float[] fresh = new float[geometry.curves.length];
+        MonotoneSpline.controlPoints(geometry.xs, geometry.ys, geometry.offset, geometry.pointCount, 0, curveCount, fresh);
+        int from = geometry.offset * 4;
+        for (int i = from; i < from + curveCount * 4; i++) {
+            assertEquals(message + ", curve value " + (i - from), fresh[i], geometry.curves[i], 1e-4);
+        }
+    }
+
+    @Test
+    public void appendPastArrayLengthMatchesRecompute() {
+        assertAppendMatchesRecompute(8, 0, 1);
+        assertAppendMatchesRecompute(8, 8, 1);
+        assertAppendMatchesRecompute(8, 3, 3);
+        assertAppendMatchesRecompute(16, 16, 5);
+        assertAppendMatchesRecompute(16, 16, 0);
+        assertAppendMatchesRecompute(2, 2, 1);
+        assertAppendMatchesRecompute(3, 1, 2);
+    }
+
+    @Test
+    public void appendDuringMorphFinishesMorph() {
+        int capacity = 16;
+        LineGeometry geometry = createStream(capacity, capacity);
+        // 从一条水平线变形到当前数据,停在动画中途
+        float[] fromXs = { LEFT, LEFT + WIDTH };
+        float[] fromYs = { toY(50), toY(50) };
+        geometry.beginMorph(fromXs, fromYs, 2);
+        geometry.morph(0.4F);
+        assertTrue(geometry.isMorphing());
+
+        geometry.appendPoint(42, toY(42), capacity);
+        assertFalse(geometry.isMorphing());
+        assertEquals(capacity, geometry.pointCount);
+        assertEquals(42, geometry.getValue(capacity - 1), 0);
+        assertYsMatchValues(geometry);
+        // 线段也要与移到终点的点一致
+        for (int i = 1; i < geometry.pointCount; i++) {
+            int s = (geometry.offset + i - 1) * 4;
+            assertEquals(geometry.getY(i - 1), geometry.segments[s + 1], 0);
+            assertEquals(geometry.getY(i), geometry.segments[s + 3], 0);
+        }
+    }
+
+    @Test
+    public void appendDuringMorphBeforeFull() {
+        int capacity = 16;
+        LineGeometry geometry = createStream(capacity, 5);
+        geometry.beginMorph(new float[] { LEFT, LEFT + WIDTH }, new float[] { 0, HEIGHT }, 2);
+        geometry.appendPoint(7, toY(7), capacity);
+        assertFalse(geometry.isMorphing());
+        assertEquals(6, geometry.pointCount);
+        assertYsMatchValues(geometry);
+    }
+
+}
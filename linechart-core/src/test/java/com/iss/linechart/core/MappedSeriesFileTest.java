@@ -0,0 +1,187 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * 内存映射数据文件的测试:写入后打开读回相同的数据,读取范围超出数据个数或文件格式不正确时失败
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class MappedSeriesFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /** 超过写文件时一次写入的个数 */
+    private static final int COUNT = 8192 * 2 + 3;
+
+    private static long[] times(int count) {
+        long[] times = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = 1461888000000L + i * 100L + (i % 7);
+        }
+        return times;
+    }
+
+    private static float[] values(int count) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (float) Math.sin(i * 0.01) * 100;
+        }
+        // 特殊值按位原样保存
+        values[1] = Float.NaN;
+        values[2] = -0F;
+        values[3] = Float.MIN_VALUE;
+        return values;
+    }
+
+    /**
+     * 分段读取全部数据值
+     *
+     * @param series
+     * @return
+     * @author hubing
+     */
+    private static float[] readAllValues(SeriesSource series) {
+        float[] out = new float[series.size()];
+        for (int from = 0; from < out.length; from += 1000) {
+            series.readValues(from, Math.min(1000, out.length - from), out, from);
+        }
+        return out;
+    }
+
+    private static void assertSameBits(float[] expected, float[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("index " + i, Float.floatToRawIntBits(expected[i]), Float.floatToRawIntBits(actual[i]));
+        }
+    }
+
+    @Test
+    public void roundTripsWithTimestamps() throws IOException {
+        File file = folder.newFile();
+        long[] times = times(COUNT);
+        float[] values = values(COUNT);
+        MappedSeriesFile.write(file, times, values, COUNT);
+        assertEquals(16 + COUNT * 12L, file.length());
+        MappedSeriesFile series = MappedSeriesFile.open(file);
+        assertEquals(COUNT, series.size());
+        assertTrue(series.hasTimestamps());
+        assertSameBits(values, readAllValues(series));
+        long[] readTimes = new long[COUNT + 2];
+        series.readTimestamps(0, COUNT, readTimes, 2);
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals("index " + i, times[i], readTimes[i + 2]);
+        }
+    }
+
+    @Test
+    public void roundTripsValuesOnly() throws IOException {
+        File file = folder.newFile();
+        float[] values = values(COUNT);
+        // 只写入前一部分数据
+        MappedSeriesFile.write(file, null, values, COUNT - 5);
+        MappedSeriesFile series = MappedSeriesFile.open(file);
+        assertEquals(COUNT - 5, series.size());
+        assertFalse(series.hasTimestamps());
+        float[] expected = new float[COUNT - 5];
+        System.arraycopy(values, 0, expected, 0, expected.length);
+        assertSameBits(expected, readAllValues(series));
+        try {
+            series.readTimestamps(0, 1, new long[1], 0);
+            fail("file without timestamps returned timestamps");
+        } catch (UnsupportedOperationException e) {
+            // 期望的异常
+        }
+    }
+
+    @Test
+    public void rewriteTruncatesOldContent() throws IOException {
+        File file = folder.newFile();
+        MappedSeriesFile.write(file, times(COUNT), values(COUNT), COUNT);
+        MappedSeriesFile.write(file, null, new float[] { 1, 2, 3 }, 3);
+        assertEquals(16 + 3 * 4L, file.length());
+        MappedSeriesFile series = MappedSeriesFile.open(file);
+        assertArrayEquals(new float[] { 1, 2, 3 }, readAllValues(series), 0);
+    }
+
+    @Test
+    public void rejectsReadsPastCountWithTrailingBytes() throws IOException {
+        File file = folder.newFile();
+        MappedSeriesFile.write(file, times(10), values(10), 10);
+        // 文件末尾有多余的字节,映射的数据列比数据个数长
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.seek(raf.length());
+            raf.write(new byte[64]);
+        } finally {
+            raf.close();
+        }
+        MappedSeriesFile series = MappedSeriesFile.open(file);
+        assertEquals(10, series.size());
+        int[][] ranges = { { 0, 11 }, { 10, 1 }, { -1, 1 }, { 5, -1 } };
+        for (int[] range : ranges) {
+            try {
+                series.readValues(range[0], range[1], new float[20], 0);
+                fail("values read out of range [" + range[0] + ", " + range[1] + "]");
+            } catch (IndexOutOfBoundsException e) {
+                // 期望的异常
+            }
+            try {
+                series.readTimestamps(range[0], range[1], new long[20], 0);
+                fail("timestamps read out of range [" + range[0] + ", " + range[1] + "]");
+            } catch (IndexOutOfBoundsException e) {
+                // 期望的异常
+            }
+        }
+        // 范围内的读取不受影响,包括空范围
+        series.readValues(10, 0, new float[1], 0);
+        float[] last = new float[1];
+        series.readValues(9, 1, last, 0);
+        assertEquals(values(10)[9], last[0], 0);
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        File file = folder.newFile();
+        MappedSeriesFile.write(file, times(10), values(10), 10);
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(raf.length() - 1);
+        } finally {
+            raf.close();
+        }
+        try {
+            MappedSeriesFile.open(file);
+            fail("truncated file was opened");
+        } catch (IOException e) {
+            // 期望的异常
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsWrongMagic() throws IOException {
+        File file = folder.newFile();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.write(new byte[32]);
+        } finally {
+            raf.close();
+        }
+        MappedSeriesFile.open(file);
+    }
+
+}
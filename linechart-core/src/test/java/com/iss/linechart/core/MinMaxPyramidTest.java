@@ -0,0 +1,158 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 最小值/最大值金字塔的测试:各级桶和任意区间的查询结果与逐个比较的结果相同,选出的级别桶数最接近像素宽度
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class MinMaxPyramidTest {
+
+    /** 包括不足一级、正好2的幂和2的幂前后的数据个数 */
+    private static final int[] SIZES = { 1, 2, 63, 64, 65, 127, 128, 129, 1000, 1024, 1025, 4099 };
+
+    private static float[] randomData(Random random, int size) {
+        float[] data = new float[size];
+        for (int i = 0; i < size; i++) {
+            // 取值范围小,包含大量重复值
+            data[i] = random.nextInt(50) - 25;
+        }
+        return data;
+    }
+
+    private static float bruteMin(float[] data, int from, int to) {
+        float min = Float.POSITIVE_INFINITY;
+        for (int i = from; i <= to; i++) {
+            min = Math.min(min, data[i]);
+        }
+        return min;
+    }
+
+    private static float bruteMax(float[] data, int from, int to) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = from; i <= to; i++) {
+            max = Math.max(max, data[i]);
+        }
+        return max;
+    }
+
+    @Test
+    public void bucketsHoldMinAndMax() {
+        Random random = new Random(11);
+        MinMaxPyramid pyramid = new MinMaxPyramid();
+        for (int size : SIZES) {
+            float[] data = randomData(random, size);
+            pyramid.build(data, size);
+            assertEquals(size, pyramid.getSize());
+            for (int level = 1; level <= pyramid.getLevelCount(); level++) {
+                int width = 1 << level;
+                int buckets = pyramid.bucketCount(level);
+                assertEquals((size + width - 1) / width, buckets);
+                for (int b = 0; b < buckets; b++) {
+                    // 最后一个桶可能不满
+                    int from = b * width;
+                    int to = Math.min(from + width, size) - 1;
+                    int minIndex = pyramid.minIndex(level, b);
+                    int maxIndex = pyramid.maxIndex(level, b);
+                    String message = "size " + size + ", level " + level + ", bucket " + b;
+                    assertTrue(message, minIndex >= from && minIndex <= to);
+                    assertTrue(message, maxIndex >= from && maxIndex <= to);
+                    assertEquals(message, bruteMin(data, from, to), data[minIndex], 0);
+                    assertEquals(message, bruteMax(data, from, to), data[maxIndex], 0);
+                }
+            }
+            // 最高一级的桶数不多于64
+            int top = pyramid.getLevelCount();
+            assertTrue(top == 0 ? size <= 64 : pyramid.bucketCount(top) <= 64);
+        }
+    }
+
+    @Test
+    public void rangeMatchesBruteForce() {
+        Random random = new Random(12);
+        MinMaxPyramid pyramid = new MinMaxPyramid();
+        float[] out = new float[2];
+        for (int size : SIZES) {
+            float[] data = randomData(random, size);
+            pyramid.build(data, size);
+            for (int i = 0; i < 500; i++) {
+                int from = random.nextInt(size);
+                int to = from + random.nextInt(size - from);
+                pyramid.rangeMinMax(data, from, to, out);
+                String message = "size " + size + ", range [" + from + ", " + to + "]";
+                assertEquals(message, bruteMin(data, from, to), out[0], 0);
+                assertEquals(message, bruteMax(data, from, to), out[1], 0);
+            }
+            // 单个数据和全部数据
+            pyramid.rangeMinMax(data, size - 1, size - 1, out);
+            assertEquals(data[size - 1], out[0], 0);
+            assertEquals(data[size - 1], out[1], 0);
+            pyramid.rangeMinMax(data, 0, size - 1, out);
+            assertEquals(bruteMin(data, 0, size - 1), out[0], 0);
+            assertEquals(bruteMax(data, 0, size - 1), out[1], 0);
+        }
+    }
+
+    @Test
+    public void rebuildWithFewerValuesIgnoresOldBuckets() {
+        Random random = new Random(13);
+        MinMaxPyramid pyramid = new MinMaxPyramid();
+        float[] large = randomData(random, 5000);
+        pyramid.build(large, large.length);
+        // 复用较大的数组,旧数据的极值不能影响新结果
+        float[] small = new float[300];
+        for (int i = 0; i < small.length; i++) {
+            small[i] = i % 7;
+        }
+        pyramid.build(small, small.length);
+        float[] out = new float[2];
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(small.length);
+            int to = from + random.nextInt(small.length - from);
+            pyramid.rangeMinMax(small, from, to, out);
+            assertEquals(bruteMin(small, from, to), out[0], 0);
+            assertEquals(bruteMax(small, from, to), out[1], 0);
+        }
+    }
+
+    @Test
+    public void chooseLevelClosestToColumns() {
+        MinMaxPyramid pyramid = new MinMaxPyramid();
+        float[] data = new float[1 << 16];
+        pyramid.build(data, data.length);
+        int[] columnCounts = { 1, 100, 320, 1080 };
+        Random random = new Random(14);
+        for (int columns : columnCounts) {
+            for (int i = 0; i < 200; i++) {
+                int count = 1 + random.nextInt(data.length);
+                int level = pyramid.chooseLevel(count, columns);
+                assertTrue(level >= 0 && level <= pyramid.getLevelCount());
+                if (count <= columns * 2) {
+                    assertEquals(0, level);
+                    continue;
+                }
+                // 逐级比较桶数与像素宽度在对数上的距离
+                int best = 0;
+                double bestDistance = Double.MAX_VALUE;
+                for (int l = 0; l <= pyramid.getLevelCount(); l++) {
+                    double distance = Math.abs(Math.log((double) count / (1 << l) / columns));
+                    if (distance < bestDistance - 1e-9) {
+                        best = l;
+                        bestDistance = distance;
+                    }
+                }
+                double distance = Math.abs(Math.log((double) count / (1 << level) / columns));
+                assertEquals("count " + count + ", columns " + columns + ", best " + best, bestDistance, distance, 1e-9);
+            }
+        }
+        assertEquals(0, pyramid.chooseLevel(1000, 0));
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 单调三次样条的测试:每段曲线的控制点和曲线上的点都不超出两端点的数值范围,单调数据的曲线保持单调,
+ * 分段计算的结果与一次计算全部的结果相同
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class MonotoneSplineTest {
+
+    private static final float EPSILON = 1e-3F;
+
+    /** 每段曲线上检查的点数 */
+    private static final int SAMPLES = 16;
+
+    /**
+     * 随机生成x坐标递增、间距不等的点,包括间距为0的点
+     *
+     * @param random
+     * @param count
+     * @return
+     * @author hubing
+     */
+    private static float[] randomXs(Random random, int count) {
+        float[] xs = new float[count];
+        for (int i = 1; i < count; i++) {
+            xs[i] = xs[i - 1] + (random.nextInt(20) == 0 ? 0 : 0.5F + random.nextFloat() * 20);
+        }
+        return xs;
+    }
+
+    /**
+     * 随机生成单调的y坐标,包括相等的相邻点
+     *
+     * @param random
+     * @param count
+     * @param increasing 是否递增
+     * @return
+     * @author hubing
+     */
+    private static float[] monotoneYs(Random random, int count, boolean increasing) {
+        float[] ys = new float[count];
+        for (int i = 1; i < count; i++) {
+            float step = random.nextInt(5) == 0 ? 0 : (float) Math.pow(10, random.nextFloat() * 4 - 2);
+            ys[i] = ys[i - 1] + (increasing ? step : -step);
+        }
+        return ys;
+    }
+
+    private static float bezier(float p0, float p1, float p2, float p3, float t) {
+        float u = 1 - t;
+        return u * u * u * p0 + 3 * u * u * t * p1 + 3 * u * t * t * p2 + t * t * t * p3;
+    }
+
+    /**
+     * 检查每段曲线的控制点和曲线上的点都在两端点之间,monotone为true时检查曲线单调
+     *
+     * @param xs
+     * @param ys
+     * @param offset
+     * @param count
+     * @param curves
+     * @param monotone
+     * @author hubing
+     */
+    private static void assertNoOvershoot(float[] xs, float[] ys, int offset, int count, float[] curves, boolean monotone) {
+        for (int k = 0; k < count - 1; k++) {
+            int i = offset + k;
+            int o = i * 4;
+            float low = Math.min(ys[i], ys[i + 1]) - EPSILON;
+            float high = Math.max(ys[i], ys[i + 1]) + EPSILON;
+            String message = "segment " + k;
+            assertTrue(message, curves[o] >= xs[i] - EPSILON && curves[o] <= xs[i + 1] + EPSILON);
+            assertTrue(message, curves[o + 2] >= xs[i] - EPSILON && curves[o + 2] <= xs[i + 1] + EPSILON);
+            assertTrue(message, curves[o + 1] >= low && curves[o + 1] <= high);
+            assertTrue(message, curves[o + 3] >= low && curves[o + 3] <= high);
+            float previous = ys[i];
+            float direction = Math.signum(ys[i + 1] - ys[i]);
+            for (int s = 1; s <= SAMPLES; s++) {
+                float y = bezier(ys[i], curves[o + 1], curves[o + 3], ys[i + 1], (float) s / SAMPLES);
+                assertTrue(message + ", sample " + s, y >= low && y <= high);
+                if (monotone) {
+                    assertTrue(message + ", sample " + s, (y - previous) * direction >= -EPSILON);
+                }
+                previous = y;
+            }
+        }
+    }
+
+    @Test
+    public void monotoneInputNeverOvershoots() {
+        Random random = new Random(51);
+        for (int round = 0; round < 200; round++) {
+            int count = 2 + random.nextInt(60);
+            float[] xs = randomXs(random, count);
+            float[] ys = monotoneYs(random, count, round % 2 == 0);
+            float[] curves = new float[(count - 1) * 4];
+            MonotoneSpline.controlPoints(xs, ys, count, 0, count - 1, curves);
+            assertNoOvershoot(xs, ys, 0, count, curves, true);
+        }
+    }
+
+    @Test
+    public void segmentsStayBetweenEndpoints() {
+        // 任意数据的每段曲线也不超出两端点的数值范围,极值点处切线水平
+        Random random = new Random(52);
+        for (int round = 0; round < 200; round++) {
+            int count = 2 + random.nextInt(60);
+            float[] xs = randomXs(random, count);
+            float[] ys = new float[count];
+            for (int i = 0; i < count; i++) {
+                ys[i] = random.nextInt(4) == 0 && i > 0 ? ys[i - 1] : (float) random.nextGaussian() * 100;
+            }
+            float[] curves = new float[(count - 1) * 4];
+            MonotoneSpline.controlPoints(xs, ys, count, 0, count - 1, curves);
+            assertNoOvershoot(xs, ys, 0, count, curves, false);
+        }
+    }
+
+    @Test
+    public void partialUpdateMatchesFullWithOffset() {
+        Random random = new Random(53);
+        int offset = 9;
+        int count = 40;
+        float[] xs = new float[offset + count];
+        float[] ys = new float[offset + count];
+        System.arraycopy(randomXs(random, count), 0, xs, offset, count);
+        System.arraycopy(monotoneYs(random, count, true), 0, ys, offset, count);
+        float[] full = new float[(offset + count - 1) * 4];
+        MonotoneSpline.controlPoints(xs, ys, offset, count, 0, count - 1, full);
+        assertNoOvershoot(xs, ys, offset, count, full, true);
+        // 分几次计算不同的段
+        float[] parts = new float[full.length];
+        int[] bounds = { 0, 1, 7, 8, 30, count - 1 };
+        for (int b = 1; b < bounds.length; b++) {
+            MonotoneSpline.controlPoints(xs, ys, offset, count, bounds[b - 1], bounds[b], parts);
+        }
+        for (int i = offset * 4; i < full.length; i++) {
+            assertEquals("value " + i, full[i], parts[i], 0);
+        }
+        // offset之前的位置不写入
+        for (int i = 0; i < offset * 4; i++) {
+            assertEquals(0, parts[i], 0);
+        }
+    }
+
+    @Test
+    public void straightLineStaysStraight() {
+        float[] xs = { 0, 10, 30, 35, 60 };
+        float[] ys = new float[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            ys[i] = 2 * xs[i] + 5;
+        }
+        float[] curves = new float[(xs.length - 1) * 4];
+        MonotoneSpline.controlPoints(xs, ys, xs.length, 0, xs.length - 1, curves);
+        for (int k = 0; k < xs.length - 1; k++) {
+            // 控制点落在直线上
+            assertEquals(2 * curves[k * 4] + 5, curves[k * 4 + 1], EPSILON);
+            assertEquals(2 * curves[k * 4 + 2] + 5, curves[k * 4 + 3], EPSILON);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * 数据队列的测试:容量取整、各合并策略的结果、队列已满时的丢弃计数和最新数据
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class SampleQueueTest {
+
+    @Test
+    public void roundsCapacityToPowerOfTwo() {
+        assertEquals(1, new SampleQueue(1).getCapacity());
+        assertEquals(4, new SampleQueue(3).getCapacity());
+        assertEquals(4, new SampleQueue(4).getCapacity());
+        assertEquals(8, new SampleQueue(5).getCapacity());
+    }
+
+    @Test
+    public void mergesByPolicy() {
+        float[] values = { 3, 9, -2, 6 };
+        float[] out = new float[1];
+        int[] policies = { SampleQueue.POLICY_LATEST, SampleQueue.POLICY_MAX, SampleQueue.POLICY_AVERAGE };
+        float[] expected = { 6, 9, 4 };
+        for (int p = 0; p < policies.length; p++) {
+            SampleQueue queue = new SampleQueue(8);
+            for (float v : values) {
+                assertTrue(queue.offer(v));
+            }
+            assertEquals(values.length, queue.size());
+            assertEquals(values.length, queue.drain(policies[p], out, 0));
+            assertEquals(expected[p], out[0], 0);
+            assertEquals(0, queue.size());
+        }
+    }
+
+    @Test
+    public void drainsNothingWhenEmpty() {
+        SampleQueue queue = new SampleQueue(4);
+        float[] out = { 7 };
+        assertEquals(0, queue.drain(SampleQueue.POLICY_MAX, out, 0));
+        assertEquals(7, out[0], 0);
+    }
+
+    @Test
+    public void keepsLatestWhenFull() {
+        SampleQueue queue = new SampleQueue(4);
+        for (int i = 1; i <= 10; i++) {
+            assertEquals(i <= 4, queue.offer(i));
+        }
+        assertEquals(6, queue.getDroppedCount());
+        assertEquals(4, queue.size());
+        float[] out = new float[1];
+        assertEquals(4, queue.drain(SampleQueue.POLICY_LATEST, out, 0));
+        // 被丢弃的最后一个数据仍是最新数据
+        assertEquals(10, out[0], 0);
+    }
+
+    @Test
+    public void mergesOnlyQueuedValuesWhenFull() {
+        SampleQueue queue = new SampleQueue(4);
+        for (int i = 1; i <= 10; i++) {
+            queue.offer(i);
+        }
+        float[] out = new float[1];
+        assertEquals(4, queue.drain(SampleQueue.POLICY_MAX, out, 0));
+        assertEquals(4, out[0], 0);
+        // 取出后空间释放,可以继续写入
+        assertTrue(queue.offer(11));
+        assertEquals(1, queue.drain(SampleQueue.POLICY_AVERAGE, out, 0));
+        assertEquals(11, out[0], 0);
+    }
+
+    @Test
+    public void batchOfferDropsTail() {
+        SampleQueue queue = new SampleQueue(4);
+        assertEquals(3, queue.offer(new float[] { 1, 2, 3 }, 0, 3));
+        assertEquals(1, queue.offer(new float[] { 0, 4, 5, 6 }, 1, 3));
+        assertEquals(2, queue.getDroppedCount());
+        assertFalse(queue.offer(7));
+        assertEquals(3, queue.getDroppedCount());
+        float[] out = new float[2];
+        assertEquals(4, queue.drain(SampleQueue.POLICY_AVERAGE, out, 1));
+        assertEquals(2.5F, out[1], 0);
+        assertEquals(0, queue.offer(new float[0], 0, 0));
+    }
+
+    @Test
+    public void wrapsAroundBuffer() {
+        SampleQueue queue = new SampleQueue(4);
+        float[] out = new float[1];
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                assertTrue(queue.offer(round * 3 + i));
+            }
+            assertEquals(3, queue.drain(SampleQueue.POLICY_MAX, out, 0));
+            assertEquals(round * 3 + 2, out[0], 0);
+        }
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPolicy() {
+        SampleQueue queue = new SampleQueue(4);
+        queue.offer(1);
+        queue.drain(3, new float[1], 0);
+    }
+
+}
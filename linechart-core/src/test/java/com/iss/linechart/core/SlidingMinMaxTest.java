@@ -0,0 +1,92 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 滑动窗口最小值/最大值的测试:每次写入后与逐个比较最近window个值的结果相同
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class SlidingMinMaxTest {
+
+    /**
+     * 写入随机数据,每次写入后与逐个比较的结果比较
+     *
+     * @param window 窗口大小
+     * @param count 写入个数
+     * @param random
+     * @param distinct 不同取值的个数,较小时包含大量重复值
+     * @author hubing
+     */
+    private static void assertMatchesBruteForce(int window, int count, Random random, int distinct) {
+        SlidingMinMax sliding = new SlidingMinMax(window);
+        float[] values = new float[count];
+        for (int n = 0; n < count; n++) {
+            values[n] = random.nextInt(distinct) - distinct / 2;
+            sliding.push(values[n]);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            for (int i = Math.max(0, n - window + 1); i <= n; i++) {
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+            }
+            String message = "window " + window + ", push " + n;
+            assertEquals(message, min, sliding.min(), 0);
+            assertEquals(message, max, sliding.max(), 0);
+        }
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(21);
+        int[] windows = { 1, 2, 3, 7, 64, 100 };
+        for (int window : windows) {
+            assertMatchesBruteForce(window, window * 10 + 5, random, 1000);
+            assertMatchesBruteForce(window, window * 10 + 5, random, 3);
+        }
+    }
+
+    @Test
+    public void evictsInWriteOrder() {
+        SlidingMinMax sliding = new SlidingMinMax(4);
+        // 递增时最小值依次移出,递减时最大值依次移出
+        for (int i = 0; i < 10; i++) {
+            sliding.push(i);
+            assertEquals(Math.max(0, i - 3), sliding.min(), 0);
+            assertEquals(i, sliding.max(), 0);
+        }
+        for (int i = 9; i >= 0; i--) {
+            sliding.push(i);
+        }
+        assertEquals(0, sliding.min(), 0);
+        assertEquals(3, sliding.max(), 0);
+    }
+
+    @Test
+    public void clearEmptiesWindow() {
+        SlidingMinMax sliding = new SlidingMinMax(3);
+        assertTrue(sliding.isEmpty());
+        assertEquals(Float.POSITIVE_INFINITY, sliding.min(), 0);
+        assertEquals(Float.NEGATIVE_INFINITY, sliding.max(), 0);
+        sliding.push(5);
+        sliding.push(-5);
+        sliding.clear();
+        assertTrue(sliding.isEmpty());
+        assertEquals(Float.POSITIVE_INFINITY, sliding.min(), 0);
+        sliding.push(1);
+        assertEquals(1, sliding.min(), 0);
+        assertEquals(1, sliding.max(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEmptyWindow() {
+        new SlidingMinMax(0);
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.iss.linechart.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * 按时间聚合的测试:各时间段的平均值、最小值、最大值和95百分位数与排序后直接计算的结果比较
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class TimeBucketAggregatorTest {
+
+    private static final long INTERVAL = 1000;
+
+    /**
+     * 排序后按最近秩法计算95百分位数
+     *
+     * @param values
+     * @return
+     * @author hubing
+     */
+    private static float oracleP95(float[] values) {
+        float[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+    }
+
+    /**
+     * 读取全部时间段的一种统计值
+     *
+     * @param aggregator
+     * @param stat
+     * @param times 输出起始时间
+     * @return
+     * @author hubing
+     */
+    private static float[] read(TimeBucketAggregator aggregator, int stat, long[] times) {
+        float[] values = new float[aggregator.getBucketCount()];
+        int n = aggregator.readBuckets(stat, 0, values.length, times, values);
+        assertEquals(values.length, n);
+        return values;
+    }
+
+    /**
+     * 每个时间段写入指定个数的数据,检查各统计值
+     *
+     * @param counts 各时间段的数据个数
+     * @param random 数据值生成器
+     * @param duplicates 是否只取少数几个重复的值
+     * @author hubing
+     */
+    private static void assertStats(int[] counts, Random random, boolean duplicates) {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        List<float[]> buckets = new ArrayList<float[]>();
+        for (int b = 0; b < counts.length; b++) {
+            float[] values = new float[counts[b]];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = duplicates ? random.nextInt(4) : (float) random.nextGaussian() * 100;
+                aggregator.add(b * INTERVAL + (long) i * INTERVAL / values.length, values[i]);
+            }
+            buckets.add(values);
+        }
+        long[] times = new long[counts.length];
+        float[] p95 = read(aggregator, TimeBucketAggregator.STAT_P95, times);
+        float[] min = read(aggregator, TimeBucketAggregator.STAT_MIN, times);
+        float[] max = read(aggregator, TimeBucketAggregator.STAT_MAX, times);
+        float[] average = read(aggregator, TimeBucketAggregator.STAT_AVERAGE, times);
+        for (int b = 0; b < counts.length; b++) {
+            float[] values = buckets.get(b);
+            float[] sorted = values.clone();
+            Arrays.sort(sorted);
+            double sum = 0;
+            for (float v : values) {
+                sum += v;
+            }
+            String message = "bucket " + b + ", count " + values.length;
+            assertEquals(message, b * INTERVAL, times[b]);
+            assertEquals(message, oracleP95(values), p95[b], 0);
+            assertEquals(message, sorted[0], min[b], 0);
+            assertEquals(message, sorted[sorted.length - 1], max[b], 0);
+            assertEquals(message, (float) (sum / values.length), average[b], 0);
+        }
+    }
+
+    @Test
+    public void matchesSortedOracle() {
+        // 包括1、2、19、20、21等最近秩变化的边界个数,最后一段未结束
+        int[] counts = { 1, 2, 3, 19, 20, 21, 39, 40, 41, 64, 65, 100, 1000, 1001, 7 };
+        Random random = new Random(1);
+        for (int round = 0; round < 20; round++) {
+            assertStats(counts, random, false);
+        }
+    }
+
+    @Test
+    public void matchesSortedOracleWithDuplicates() {
+        int[] counts = { 1, 5, 20, 21, 100, 257, 3 };
+        Random random = new Random(2);
+        for (int round = 0; round < 20; round++) {
+            assertStats(counts, random, true);
+        }
+    }
+
+    @Test
+    public void matchesSortedOracleForSortedInput() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        float[] ascending = new float[500];
+        float[] descending = new float[500];
+        for (int i = 0; i < 500; i++) {
+            ascending[i] = i;
+            descending[i] = 500 - i;
+            aggregator.add(i, ascending[i]);
+        }
+        for (int i = 0; i < 500; i++) {
+            aggregator.add(INTERVAL + i, descending[i]);
+        }
+        float[] p95 = read(aggregator, TimeBucketAggregator.STAT_P95, new long[2]);
+        assertEquals(oracleP95(ascending), p95[0], 0);
+        assertEquals(oracleP95(descending), p95[1], 0);
+    }
+
+    @Test
+    public void readingOpenBucketKeepsItsValues() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        float[] values = new float[50];
+        Random random = new Random(3);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextFloat();
+            aggregator.add(i, values[i]);
+            // 读取未结束时间段的百分位数会重新排列数据,不能影响之后的统计
+            float[] p95 = read(aggregator, TimeBucketAggregator.STAT_P95, new long[1]);
+            assertEquals(oracleP95(Arrays.copyOf(values, i + 1)), p95[0], 0);
+        }
+        aggregator.flush();
+        float[] p95 = read(aggregator, TimeBucketAggregator.STAT_P95, new long[1]);
+        assertEquals(oracleP95(values), p95[0], 0);
+    }
+
+    @Test
+    public void skipsEmptyBucketsAndNaN() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        aggregator.add(-1, 1);
+        aggregator.add(10, Float.NaN);
+        aggregator.add(10, 2);
+        aggregator.add(5 * INTERVAL + 1, 3);
+        long[] times = new long[3];
+        float[] max = read(aggregator, TimeBucketAggregator.STAT_MAX, times);
+        assertEquals(3, max.length);
+        assertEquals(-INTERVAL, times[0]);
+        assertEquals(0, times[1]);
+        assertEquals(5 * INTERVAL, times[2]);
+        assertEquals(2, max[1], 0);
+    }
+
+    @Test
+    public void rejectsTimestampBeforeLastBucketAfterFlush() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        aggregator.add(5 * INTERVAL, 1);
+        aggregator.flush();
+        try {
+            aggregator.add(INTERVAL, 2);
+            fail("timestamp before the last bucket was accepted");
+        } catch (IllegalArgumentException e) {
+            // 期望的异常
+        }
+        // flush之后仍可以写入同一时间段,计入新的一段
+        aggregator.add(5 * INTERVAL + 1, 3);
+        aggregator.add(6 * INTERVAL, 4);
+        long[] times = new long[3];
+        float[] max = read(aggregator, TimeBucketAggregator.STAT_MAX, times);
+        assertEquals(3, max.length);
+        assertEquals(5 * INTERVAL, times[0]);
+        assertEquals(5 * INTERVAL, times[1]);
+        assertEquals(6 * INTERVAL, times[2]);
+        assertEquals(1, max[0], 0);
+        assertEquals(3, max[1], 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsTimestampBeforeOpenBucket() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(INTERVAL);
+        aggregator.add(INTERVAL, 1);
+        aggregator.add(0, 1);
+    }
+
+}
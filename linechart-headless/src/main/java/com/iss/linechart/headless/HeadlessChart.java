@@ -0,0 +1,387 @@
+package com.iss.linechart.headless;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import javax.imageio.ImageIO;
+
+import com.iss.linechart.core.ChartGrid;
+import com.iss.linechart.core.ChartSnapshot;
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.SeriesSource;
+import com.iss.linechart.core.ValueFormatter;
+
+/**
+ * 不依赖控件的图表,按与LineChartView相同的布局和默认样式计算坐标,生成{@link ChartSnapshot}并导出为PNG图片,
+ * 用于服务端生成报表或在普通JVM上比较绘制结果。每个实例只能在一个线程中使用,不同实例可以在不同线程并行绘制
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-27]
+ */
+public final class HeadlessChart {
+
+    /** 默认刻度值字号(像素),相当于xhdpi屏幕上的10sp */
+    private static final float DEFAULT_TICK_TEXT_SIZE = 20;
+
+    /** 图片宽度 */
+    private final int width;
+
+    /** 图片高度 */
+    private final int height;
+
+    /** 背景颜色,默认透明 */
+    private int backgroundColor = 0;
+
+    /** 坐标的线条颜色 */
+    private int coordinateColor = 0xffeeeeee;
+
+    /** 左侧坐标参考圆点颜色 */
+    private int referCircleColor = 0xFF4cc2b6;
+
+    /** 线条大小 */
+    private int lineSize = 3;
+
+    /** 小圆点半径 */
+    private int circleRadius = 6;
+
+    /** 显示的坐标基线数 */
+    private int baseLineCount = 8;
+
+    /** 垂直坐标圆点数 */
+    private int verticalCircleCount = 10;
+
+    /** 最小值 */
+    private float minValue = 0F;
+
+    /** 最大值 */
+    private float maxValue = 100F;
+
+    /** 数据点多于像素宽度时的抽稀方式 */
+    private int decimationMode = LineDecimator.MODE_LTTB;
+
+    /** 是否绘制为平滑曲线 */
+    private boolean isSmooth = false;
+
+    /** 是否在线条下方绘制渐变的面积填充 */
+    private boolean isAreaFill = false;
+
+    /** 是否在顶部显示图例 */
+    private boolean isLegendEnabled = false;
+
+    /** 允许的最大采样间隔,按时间显示的线条中相邻数据的时间间隔超过此值时不连线,不大于0时不检查 */
+    private long maxTimeGap;
+
+    /** 刻度值字号(像素) */
+    private float tickTextSize = DEFAULT_TICK_TEXT_SIZE;
+
+    /** 刻度值格式化 */
+    private final ValueFormatter valueFormatter = new ValueFormatter(0, "Mbps");
+
+    /** 要绘制的线条 */
+    private final ArrayList<HeadlessLine> lines = new ArrayList<HeadlessLine>();
+
+    /**
+     * 构造方法
+     *
+     * @param width 图片宽度
+     * @param height 图片高度
+     */
+    public HeadlessChart(int width, int height) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("非法的参数,width为: " + width + ", height为: " + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+
+    public void setBackgroundColor(int backgroundColor) {
+        this.backgroundColor = backgroundColor;
+    }
+
+    public void setCoordinateColor(int coordinateColor) {
+        this.coordinateColor = coordinateColor;
+    }
+
+    public void setReferCircleColor(int referCircleColor) {
+        this.referCircleColor = referCircleColor;
+    }
+
+    public void setLineSize(int lineSize) {
+        this.lineSize = lineSize;
+    }
+
+    public void setCircleRadius(int circleRadius) {
+        this.circleRadius = circleRadius;
+    }
+
+    /**
+     * 设置坐标基线数
+     *
+     * @param baseLineCount 不小于2
+     * @author hubing
+     */
+    public void setBaseLineCount(int baseLineCount) {
+        if (baseLineCount < 2) {
+            throw new IllegalArgumentException("非法的参数,baseLineCount为: " + baseLineCount);
+        }
+        this.baseLineCount = baseLineCount;
+    }
+
+    /**
+     * 设置数值范围
+     *
+     * @param min 最小值
+     * @param max 最大值,需要大于最小值
+     * @author hubing
+     */
+    public void setValueRange(float min, float max) {
+        if (!(max > min)) {
+            throw new IllegalArgumentException("非法的参数,min为: " + min + ", max为: " + max);
+        }
+        this.minValue = min;
+        this.maxValue = max;
+    }
+
+    public void setDecimationMode(int decimationMode) {
+        this.decimationMode = decimationMode;
+    }
+
+    public void setSmoothEnabled(boolean smooth) {
+        this.isSmooth = smooth;
+    }
+
+    public void setAreaFillEnabled(boolean isAreaFill) {
+        this.isAreaFill = isAreaFill;
+    }
+
+    public void setLegendEnabled(boolean isLegendEnabled) {
+        this.isLegendEnabled = isLegendEnabled;
+    }
+
+    /**
+     * 设置线条在图例中显示的名称,没有名称的线条不显示在图例中
+     *
+     * @param lineIndex 线条索引,按添加顺序
+     * @param name 名称
+     * @author hubing
+     */
+    public void setLineName(int lineIndex, String name) {
+        lines.get(lineIndex).name = name;
+    }
+
+    public void setMaxTimeGap(long maxTimeGap) {
+        this.maxTimeGap = maxTimeGap;
+    }
+
+    public void setTickTextSize(float tickTextSize) {
+        this.tickTextSize = tickTextSize;
+    }
+
+    public void setUnit(String unit) {
+        valueFormatter.setUnit(unit);
+    }
+
+    public void setValueDecimals(int decimals) {
+        valueFormatter.setDecimals(decimals);
+    }
+
+    /**
+     * 添加线条,数据不复制,生成快照前不能修改
+     *
+     * @param values 数据值数组
+     * @param size 数据个数
+     * @param color 线条颜色
+     * @author hubing
+     */
+    public void addLine(float[] values, int size, int color) {
+        if (values == null || size <= 0 || size > values.length) {
+            String msg = values == null ? "values为: null" : "size为: " + size;
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+        HeadlessLine line = new HeadlessLine();
+        line.values = values;
+        line.size = size;
+        line.color = color;
+        lines.add(line);
+    }
+
+    /**
+     * 添加按时间显示的线条,所有时间线条共用最早到最晚的时间范围,数据不复制,生成快照前不能修改
+     *
+     * @param timestamps 时间戳数组,需要非递减
+     * @param values 数据值数组
+     * @param size 数据个数
+     * @param color 线条颜色
+     * @author hubing
+     */
+    public void addLine(long[] timestamps, float[] values, int size, int color) {
+        if (timestamps == null || size > timestamps.length) {
+            String msg = timestamps == null ? "timestamps为: null" : "size为: " + size;
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+        for (int i = 1; i < size; i++) {
+            if (timestamps[i] < timestamps[i - 1]) {
+                throw new IllegalArgumentException("非法的参数,时间戳不是非递减的,timestamps[" + i + "]为: " + timestamps[i]);
+            }
+        }
+        addLine(values, size, color);
+        lines.get(lines.size() - 1).timestamps = timestamps;
+    }
+
+    /**
+     * 以外部数据序列添加线条,生成快照时只分段读取数据
+     *
+     * @param source 数据序列
+     * @param color 线条颜色
+     * @author hubing
+     */
+    public void addLine(SeriesSource source, int color) {
+        if (source == null || source.size() == 0) {
+            String msg = source == null ? "source为: null" : "source的size为: 0";
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+        HeadlessLine line = new HeadlessLine();
+        line.source = source;
+        line.color = color;
+        lines.add(line);
+    }
+
+    /**
+     * 按LineChartView的布局计算坐标背景和线条坐标,生成快照
+     *
+     * @return
+     * @author hubing
+     */
+    public ChartSnapshot createSnapshot() {
+        int chartHeight = height - circleRadius * 2;
+        int paddingLeft = (int) (width * 0.1);
+        int chartWidth = width - paddingLeft * 2;
+        float[] verticalLines = new float[baseLineCount * 4];
+        ChartGrid.verticalLines(verticalLines, baseLineCount, paddingLeft, width - paddingLeft, height);
+        float[] tickValues = new float[verticalCircleCount];
+        ChartGrid.tickValues(tickValues, verticalCircleCount, minValue, maxValue);
+        float[] verticalCircles = new float[verticalCircleCount * 2];
+        ChartGrid.verticalCircles(verticalCircles, tickValues, verticalCircleCount, paddingLeft, chartHeight, minValue, maxValue);
+
+        ChartSnapshot snapshot = new ChartSnapshot(width, height);
+        snapshot.setStyle(lineSize, circleRadius, coordinateColor, referCircleColor, tickTextSize);
+        snapshot.setGrid(verticalLines, baseLineCount, verticalCircles, tickValues, verticalCircleCount, paddingLeft - circleRadius * 3,
+                valueFormatter);
+        if (isAreaFill) {
+            snapshot.setAreaFill(chartHeight);
+        }
+        if (isLegendEnabled) {
+            // 图例与刻度值字号相同,与控件一致
+            snapshot.setLegend(paddingLeft, width - paddingLeft, tickTextSize, referCircleColor);
+        }
+        long timeStart = Long.MAX_VALUE;
+        long timeEnd = Long.MIN_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            HeadlessLine line = lines.get(i);
+            if (line.timestamps != null) {
+                timeStart = Math.min(timeStart, line.timestamps[0]);
+                timeEnd = Math.max(timeEnd, line.timestamps[line.size - 1]);
+            }
+        }
+        LineGeometry geometry = new LineGeometry();
+        for (int i = 0; i < lines.size(); i++) {
+            HeadlessLine line = lines.get(i);
+            if (line.timestamps != null) {
+                geometry.computeTime(line.values, line.timestamps, line.size, timeStart, Math.max(timeEnd, timeStart + 1), maxTimeGap, paddingLeft,
+                        chartWidth, chartHeight, minValue, maxValue);
+            } else if (line.source != null) {
+                geometry.computeSource(line.source, 0, 1, baseLineCount, paddingLeft, chartWidth, chartHeight, minValue, maxValue);
+            } else {
+                geometry.compute(line.values, line.size, decimationMode, baseLineCount, paddingLeft, chartWidth, chartHeight, minValue,
+                        maxValue);
+            }
+            // 快照复制坐标,几何数据可以复用
+            snapshot.addLine(geometry, line.color, isSmooth, line.name);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 生成快照并绘制成图片
+     *
+     * @return
+     * @author hubing
+     */
+    public BufferedImage render() {
+        return render(createSnapshot(), backgroundColor);
+    }
+
+    /**
+     * 把快照绘制成图片,如LineChartView.createSnapshot()创建的快照
+     *
+     * @param snapshot 快照
+     * @param backgroundColor 背景颜色,0为透明
+     * @return
+     * @author hubing
+     */
+    public static BufferedImage render(ChartSnapshot snapshot, int backgroundColor) {
+        BufferedImage image = new BufferedImage(snapshot.getWidth(), snapshot.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Java2DChartRenderer renderer = new Java2DChartRenderer(image);
+        if (backgroundColor != 0) {
+            renderer.drawRect(0, 0, snapshot.getWidth(), snapshot.getHeight(), backgroundColor);
+        }
+        snapshot.paint(renderer);
+        renderer.dispose();
+        return image;
+    }
+
+    /**
+     * 绘制并写入PNG文件
+     *
+     * @param file
+     * @throws IOException
+     * @author hubing
+     */
+    public void writePng(File file) throws IOException {
+        ImageIO.write(render(), "png", file);
+    }
+
+    /**
+     * 绘制并写入PNG数据,不关闭输出流
+     *
+     * @param out
+     * @throws IOException
+     * @author hubing
+     */
+    public void writePng(OutputStream out) throws IOException {
+        ImageIO.write(render(), "png", out);
+    }
+
+    /**
+     * 要绘制的线条
+     *
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-27]
+     */
+    static class HeadlessLine {
+
+        /** 数据值数组,外部数据序列时为null */
+        public float[] values;
+
+        /** 数据个数 */
+        public int size;
+
+        /** 时间戳数组,不为null时按时间显示 */
+        public long[] timestamps;
+
+        /** 外部数据序列 */
+        public SeriesSource source;
+
+        /** 线条颜色 */
+        public int color;
+
+        /** 在图例中显示的名称 */
+        public String name;
+
+    }
+
+}
@@ -0,0 +1,304 @@
+package com.iss.linechart.headless;
+
+import java.awt.AlphaComposite;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+import com.iss.linechart.core.ChartRenderer;
+
+/**
+ * 基于Java2D的图表绘制实现,绘制到BufferedImage上,不依赖Android,可以在服务端或普通JVM上使用。
+ * 每个实例只能在一个线程中使用
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-27]
+ */
+public final class Java2DChartRenderer implements ChartRenderer {
+
+    /** 默认字体 */
+    private static final Font BASE_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+
+    /** 绘制的目标图片 */
+    private final BufferedImage image;
+
+    /** 当前绘制的Graphics,图层中为图层图片的Graphics */
+    private Graphics2D graphics;
+
+    /** 未结束的图层 */
+    private final ArrayList<Layer> layers = new ArrayList<Layer>();
+
+    /** 复用的图形对象 */
+    private final Line2D.Float line = new Line2D.Float();
+
+    private final Path2D.Float path = new Path2D.Float();
+
+    private final Ellipse2D.Float circle = new Ellipse2D.Float();
+
+    private final Rectangle2D.Float rect = new Rectangle2D.Float();
+
+    /** 上次使用的颜色,颜色不变时不重新创建 */
+    private int lastColor;
+
+    private Color color;
+
+    /** 上次使用的线宽 */
+    private float lastStrokeWidth = -1;
+
+    private BasicStroke stroke;
+
+    /** 上次使用的字号 */
+    private float lastTextSize = -1;
+
+    private Font font;
+
+    /**
+     * 构造方法
+     *
+     * @param image 绘制的目标图片,需要支持透明度,如TYPE_INT_ARGB
+     */
+    public Java2DChartRenderer(BufferedImage image) {
+        this.image = image;
+        this.graphics = createGraphics(image);
+        this.lastColor = 0;
+        this.color = new Color(0, true);
+    }
+
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * 创建开启抗锯齿的Graphics
+     *
+     * @param target
+     * @return
+     * @author hubing
+     */
+    private static Graphics2D createGraphics(BufferedImage target) {
+        Graphics2D g = target.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        return g;
+    }
+
+    /**
+     * 设置颜色,参数为Android格式的ARGB
+     *
+     * @param argb
+     * @author hubing
+     */
+    private void setColor(int argb) {
+        if (argb != lastColor) {
+            lastColor = argb;
+            color = new Color(argb, true);
+        }
+        graphics.setColor(color);
+    }
+
+    /**
+     * 设置圆头圆角的线宽
+     *
+     * @param strokeWidth
+     * @author hubing
+     */
+    private void setStrokeWidth(float strokeWidth) {
+        if (strokeWidth != lastStrokeWidth) {
+            lastStrokeWidth = strokeWidth;
+            stroke = new BasicStroke(strokeWidth, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+        }
+        graphics.setStroke(stroke);
+    }
+
+    /**
+     * 获取指定字号的字体
+     *
+     * @param textSize
+     * @return
+     * @author hubing
+     */
+    private Font getFont(float textSize) {
+        if (textSize != lastTextSize) {
+            lastTextSize = textSize;
+            font = BASE_FONT.deriveFont(textSize);
+        }
+        return font;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, int color, float strokeWidth) {
+        setColor(color);
+        setStrokeWidth(strokeWidth);
+        for (int i = offset; i + 3 < offset + count; i += 4) {
+            line.setLine(pts[i], pts[i + 1], pts[i + 2], pts[i + 3]);
+            graphics.draw(line);
+        }
+    }
+
+    @Override
+    public void drawPolyline(float[] xs, float[] ys, int from, int count, int color, float strokeWidth) {
+        if (count < 2) {
+            return;
+        }
+        path.reset();
+        path.moveTo(xs[from], ys[from]);
+        for (int i = from + 1; i < from + count; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        setColor(color);
+        setStrokeWidth(strokeWidth);
+        graphics.draw(path);
+    }
+
+    @Override
+    public void drawArea(float[] xs, float[] ys, int from, int count, float bottom, int topColor, int bottomColor) {
+        if (count < 2) {
+            return;
+        }
+        path.reset();
+        path.moveTo(xs[from], bottom);
+        for (int i = from; i < from + count; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        path.lineTo(xs[from + count - 1], bottom);
+        path.closePath();
+        Paint paint = graphics.getPaint();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(topColor, true), 0, bottom, new Color(bottomColor, true)));
+        graphics.fill(path);
+        graphics.setPaint(paint);
+    }
+
+    @Override
+    public void drawCircles(float[] pts, int offset, int count, float radius, int color) {
+        setColor(color);
+        float diameter = radius * 2;
+        for (int i = offset; i + 1 < offset + count; i += 2) {
+            circle.setFrame(pts[i] - radius, pts[i + 1] - radius, diameter, diameter);
+            graphics.fill(circle);
+        }
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        setColor(color);
+        rect.setRect(left, top, right - left, bottom - top);
+        graphics.fill(rect);
+    }
+
+    @Override
+    public void drawText(char[] text, int offset, int length, float x, float y, float textSize, int color, int align) {
+        Font textFont = getFont(textSize);
+        graphics.setFont(textFont);
+        setColor(color);
+        if (align != ALIGN_LEFT) {
+            float width = measureText(text, offset, length, textSize);
+            x -= align == ALIGN_RIGHT ? width : width / 2;
+        }
+        graphics.drawString(new String(text, offset, length), x, y);
+    }
+
+    @Override
+    public float measureText(char[] text, int offset, int length, float textSize) {
+        FontRenderContext context = graphics.getFontRenderContext();
+        return (float) getFont(textSize).getStringBounds(text, offset, offset + length, context).getWidth();
+    }
+
+    @Override
+    public float getTextAscent(float textSize) {
+        return getFont(textSize).getLineMetrics("0", graphics.getFontRenderContext()).getAscent();
+    }
+
+    @Override
+    public float getTextCenterOffset(float textSize) {
+        // Java2D的ascent为正数,与Android相反
+        LineMetrics metrics = getFont(textSize).getLineMetrics("0", graphics.getFontRenderContext());
+        return (metrics.getDescent() - metrics.getAscent()) / 2;
+    }
+
+    @Override
+    public void saveLayer(float left, float top, float right, float bottom, int alpha) {
+        Layer layer = new Layer();
+        layer.parent = graphics;
+        layer.clip = graphics.getClip();
+        layer.alpha = alpha;
+        if (alpha < 255) {
+            // 半透明图层先绘制到单独的图片,结束时整体合成
+            layer.image = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+            graphics = createGraphics(layer.image);
+            graphics.setClip(layer.clip);
+        }
+        rect.setRect(left, top, right - left, bottom - top);
+        graphics.clip(rect);
+        layers.add(layer);
+    }
+
+    @Override
+    public void restoreLayer() {
+        if (layers.isEmpty()) {
+            throw new IllegalStateException("restoreLayer之前没有调用saveLayer");
+        }
+        Layer layer = layers.remove(layers.size() - 1);
+        if (layer.image != null) {
+            graphics.dispose();
+            graphics = layer.parent;
+            graphics.setClip(layer.clip);
+            Composite composite = graphics.getComposite();
+            graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, layer.alpha / 255F));
+            graphics.drawImage(layer.image, 0, 0, null);
+            graphics.setComposite(composite);
+        } else {
+            graphics.setClip(layer.clip);
+        }
+    }
+
+    /**
+     * 释放Graphics,之后不能再绘制
+     *
+     * @author hubing
+     */
+    public void dispose() {
+        while (!layers.isEmpty()) {
+            restoreLayer();
+        }
+        graphics.dispose();
+    }
+
+    /**
+     * 未结束的图层
+     *
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-27]
+     */
+    static class Layer {
+
+        /** 开始图层前的Graphics */
+        public Graphics2D parent;
+
+        /** 开始图层前的裁剪区域 */
+        public Shape clip;
+
+        /** 图层透明度 */
+        public int alpha;
+
+        /** 半透明图层的图片,不透明时为null */
+        public BufferedImage image;
+
+    }
+
+}
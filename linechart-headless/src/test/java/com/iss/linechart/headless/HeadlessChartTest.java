@@ -0,0 +1,132 @@
+package com.iss.linechart.headless;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 按已知数据绘制图表,检查线条、面积填充、数据空白和图例在预期位置的像素
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+public class HeadlessChartTest {
+
+    private static final int WIDTH = 400;
+
+    private static final int HEIGHT = 300;
+
+    private static final int BACKGROUND = 0xFFFFFFFF;
+
+    private static final int LINE_COLOR = 0xFFFF0000;
+
+    /** 与HeadlessChart相同的布局 */
+    private static final int CIRCLE_RADIUS = 6;
+
+    private static final int CHART_HEIGHT = HEIGHT - CIRCLE_RADIUS * 2;
+
+    private static final int PADDING_LEFT = (int) (WIDTH * 0.1);
+
+    private static final int CHART_WIDTH = WIDTH - PADDING_LEFT * 2;
+
+    /** 数值50对应的y坐标 */
+    private static final int LINE_Y = (int) LineGeometry.valueToY(50, CHART_HEIGHT, 0, 100);
+
+    /**
+     * 创建白色背景、数值范围0到100的图表,添加一条8个点、数值都为50的水平线条
+     *
+     * @return
+     * @author hubing
+     */
+    private static HeadlessChart createFlatChart() {
+        HeadlessChart chart = new HeadlessChart(WIDTH, HEIGHT);
+        chart.setBackgroundColor(BACKGROUND);
+        chart.setValueRange(0, 100);
+        float[] values = new float[8];
+        Arrays.fill(values, 50);
+        chart.addLine(values, values.length, LINE_COLOR);
+        return chart;
+    }
+
+    /**
+     * 第i个点与第i + 1个点中间的x坐标,8个点均分图表宽度
+     *
+     * @param i
+     * @return
+     * @author hubing
+     */
+    private static int midX(int i) {
+        return (int) (PADDING_LEFT + (i + 0.5F) * CHART_WIDTH / 7);
+    }
+
+    @Test
+    public void drawsLineAtMappedY() {
+        BufferedImage image = createFlatChart().render();
+        int x = midX(2);
+        assertEquals(LINE_COLOR, image.getRGB(x, LINE_Y));
+        assertEquals(BACKGROUND, image.getRGB(x, LINE_Y - 30));
+        assertEquals(BACKGROUND, image.getRGB(x, LINE_Y + 30));
+    }
+
+    @Test
+    public void fillsBelowLineOnly() {
+        HeadlessChart chart = createFlatChart();
+        chart.setAreaFillEnabled(true);
+        BufferedImage image = chart.render();
+        int x = midX(2);
+        assertEquals(BACKGROUND, image.getRGB(x, LINE_Y - 30));
+        int below = image.getRGB(x, LINE_Y + 30);
+        assertNotEquals(BACKGROUND, below);
+        // 填充为半透明的线条颜色,红色分量不变,绿色和蓝色分量减小
+        assertEquals(0xFF, (below >> 16) & 0xFF);
+        assertTrue(((below >> 8) & 0xFF) < 0xFF);
+        assertEquals(LINE_COLOR, image.getRGB(x, LINE_Y));
+    }
+
+    @Test
+    public void leavesDataGapEmpty() {
+        HeadlessChart chart = new HeadlessChart(WIDTH, HEIGHT);
+        chart.setBackgroundColor(BACKGROUND);
+        chart.setValueRange(0, 100);
+        chart.setAreaFillEnabled(true);
+        chart.setMaxTimeGap(2);
+        long[] times = { 0, 1, 2, 3, 10, 11, 12, 13 };
+        float[] values = new float[times.length];
+        Arrays.fill(values, 50);
+        chart.addLine(times, values, values.length, LINE_COLOR);
+        BufferedImage image = chart.render();
+        int gapX = (int) (PADDING_LEFT + 6.5 * CHART_WIDTH / 13);
+        int dataX = (int) (PADDING_LEFT + 1.5 * CHART_WIDTH / 13);
+        assertEquals(BACKGROUND, image.getRGB(gapX, LINE_Y));
+        assertEquals(BACKGROUND, image.getRGB(gapX, LINE_Y + 30));
+        assertEquals(LINE_COLOR, image.getRGB(dataX, LINE_Y));
+        assertNotEquals(BACKGROUND, image.getRGB(dataX, LINE_Y + 30));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDecreasingTimestamps() {
+        HeadlessChart chart = new HeadlessChart(WIDTH, HEIGHT);
+        chart.addLine(new long[] { 0, 2, 1 }, new float[3], 3, LINE_COLOR);
+    }
+
+    @Test
+    public void drawsLegendSwatch() {
+        HeadlessChart chart = createFlatChart();
+        chart.setLineName(0, "in");
+        chart.setLegendEnabled(true);
+        BufferedImage image = chart.render();
+        float swatch = new Java2DChartRenderer(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB)).getTextAscent(20);
+        int x = (int) (PADDING_LEFT + swatch / 2);
+        int y = (int) (swatch / 2);
+        assertEquals(LINE_COLOR, image.getRGB(x, y));
+        assertEquals(BACKGROUND, createFlatChart().render().getRGB(x, y));
+    }
+
+}
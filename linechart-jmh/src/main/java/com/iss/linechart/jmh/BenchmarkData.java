@@ -0,0 +1,47 @@
+package com.iss.linechart.jmh;
+
+import java.util.Random;
+
+/**
+ * 基准测试使用的数据,以固定种子生成,保证每次运行的数据一致
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+final class BenchmarkData {
+
+    /** 模拟的图表宽度(像素) */
+    static final int CHART_WIDTH = 1080;
+
+    /** 模拟的图表高度(像素) */
+    static final int CHART_HEIGHT = 800;
+
+    /** 图表最小值 */
+    static final float MIN_VALUE = 0F;
+
+    /** 图表最大值 */
+    static final float MAX_VALUE = 100F;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成随机游走的数据值,模拟网速曲线
+     *
+     * @param size 数据个数
+     * @return
+     * @author hubing
+     */
+    static float[] randomWalk(int size) {
+        Random random = new Random(42);
+        float[] values = new float[size];
+        float value = MAX_VALUE / 2;
+        for (int i = 0; i < size; i++) {
+            value += (random.nextFloat() - 0.5F) * 10;
+            value = Math.max(0, Math.min(MAX_VALUE, value));
+            values[i] = value;
+        }
+        return values;
+    }
+
+}
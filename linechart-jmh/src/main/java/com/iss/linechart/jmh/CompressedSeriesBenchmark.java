@@ -0,0 +1,86 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.CompressedSeries;
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 压缩数据序列的基准测试:追加一个数据的耗时,以及计算坐标时只解码视口内数据的耗时,与内存映射数据文件对比
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-26]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressedSeriesBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] values;
+
+    private CompressedSeries series;
+
+    private CompressedSeries appending;
+
+    private LineGeometry geometry;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(size);
+        series = new CompressedSeries(true);
+        for (int i = 0; i < size; i++) {
+            series.append(i * 1000L, values[i]);
+        }
+        geometry = new LineGeometry();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetAppending() {
+        appending = new CompressedSeries(true);
+        next = 0;
+    }
+
+    @Benchmark
+    public CompressedSeries append() {
+        appending.append(next * 1000L, values[next % size]);
+        next++;
+        return appending;
+    }
+
+    @Benchmark
+    public LineGeometry computeVisibleWindow() {
+        // 显示千分之一的数据
+        geometry.computeSource(series, 0.5, 0.501, 2, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry;
+    }
+
+    @Benchmark
+    public LineGeometry computeFullRange() {
+        geometry.computeSource(series, 0, 1, 2, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry;
+    }
+
+}
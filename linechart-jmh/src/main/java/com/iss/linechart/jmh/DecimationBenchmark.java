@@ -0,0 +1,57 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+
+/**
+ * 抽稀算法的基准测试,抽稀到一屏的像素宽度
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecimationBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] values;
+
+    private int[] indices;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(size);
+        indices = new int[Math.max(size, BenchmarkData.CHART_WIDTH * 2 + 2)];
+    }
+
+    @Benchmark
+    public int lttb() {
+        return LineDecimator.lttb(values, 0, size, BenchmarkData.CHART_WIDTH, indices);
+    }
+
+    @Benchmark
+    public int minMax() {
+        return LineDecimator.minMax(values, 0, size, BenchmarkData.CHART_WIDTH, indices);
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.ValueFormatter;
+
+/**
+ * 数值格式化的基准测试,对比写入复用的字符数组和拼接字符串两种方式格式化一组刻度值
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-24]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatBenchmark {
+
+    /** 刻度值个数,与图表左侧的参考圆点数一致 */
+    private static final int TICK_COUNT = 10;
+
+    private float[] ticks;
+
+    private ValueFormatter formatter;
+
+    private char[] text;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        ticks = BenchmarkData.randomWalk(TICK_COUNT);
+        formatter = new ValueFormatter(1, "Mbps");
+        text = new char[formatter.getMaxLength() * TICK_COUNT];
+    }
+
+    @Benchmark
+    public int formatToChars() {
+        int length = 0;
+        for (int i = 0; i < TICK_COUNT; i++) {
+            length += formatter.format(ticks[i], text, length);
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int formatToStrings() {
+        int length = 0;
+        for (int i = 0; i < TICK_COUNT; i++) {
+            length += (Math.round(ticks[i] * 10) / 10F + "Mbps").length();
+        }
+        return length;
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.iss.linechart.jmh;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 触摸点查找的基准测试,在未抽稀的几何数据上查找随机触摸位置附近的点
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+
+    /** 预先生成的触摸位置个数 */
+    private static final int TOUCH_COUNT = 1024;
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private LineGeometry geometry;
+
+    private float[] touchXs;
+
+    private float[] touchYs;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        geometry = new LineGeometry();
+        geometry.compute(BenchmarkData.randomWalk(size), size, LineDecimator.MODE_NONE, 2, 0, BenchmarkData.CHART_WIDTH,
+                BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        Random random = new Random(7);
+        touchXs = new float[TOUCH_COUNT];
+        touchYs = new float[TOUCH_COUNT];
+        for (int i = 0; i < TOUCH_COUNT; i++) {
+            touchXs[i] = random.nextFloat() * BenchmarkData.CHART_WIDTH;
+            touchYs[i] = random.nextFloat() * BenchmarkData.CHART_HEIGHT;
+        }
+    }
+
+    @Benchmark
+    public int hitTest() {
+        int i = next;
+        next = (next + 1) & (TOUCH_COUNT - 1);
+        return geometry.hitTest(touchXs[i], touchYs[i], 18, 18);
+    }
+
+}
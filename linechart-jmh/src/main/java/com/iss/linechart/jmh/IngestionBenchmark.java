@@ -0,0 +1,83 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.SlidingMinMax;
+
+/**
+ * 数据写入的基准测试:实时滚动线条已满时追加一个点、更新滑动窗口的最小值和最大值,以及整条线条的数据替换
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] source;
+
+    private float[] target;
+
+    private LineGeometry stream;
+
+    private SlidingMinMax window;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = BenchmarkData.randomWalk(size);
+        target = new float[size];
+        // 填满实时滚动线条,之后每次追加都会滚动一格
+        float[] ring = BenchmarkData.randomWalk(size);
+        stream = new LineGeometry();
+        window = new SlidingMinMax(size);
+        for (int i = 0; i < size; i++) {
+            window.push(ring[i]);
+        }
+        stream.computeStream(ring, 0, size, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+    }
+
+    @Benchmark
+    public LineGeometry appendToFullStream() {
+        float value = source[next];
+        next = (next + 1) % size;
+        stream.appendPoint(value, LineGeometry.valueToY(value, BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE), size);
+        return stream;
+    }
+
+    @Benchmark
+    public float appendToSlidingWindow() {
+        window.push(source[next]);
+        next = (next + 1) % size;
+        return window.max() - window.min();
+    }
+
+    @Benchmark
+    public float[] replaceValues() {
+        System.arraycopy(source, 0, target, 0, size);
+        return target;
+    }
+
+}
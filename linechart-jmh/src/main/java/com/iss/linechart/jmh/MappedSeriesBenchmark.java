@@ -0,0 +1,77 @@
+package com.iss.linechart.jmh;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.MappedSeriesFile;
+
+/**
+ * 内存映射数据文件的基准测试:打开文件只读文件头,计算坐标只读取视口内的数据
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-16]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappedSeriesBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private File file;
+
+    private MappedSeriesFile series;
+
+    private LineGeometry geometry;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        file = File.createTempFile("series", ".lcv");
+        long[] timestamps = new long[size];
+        for (int i = 0; i < size; i++) {
+            timestamps[i] = i * 1000L;
+        }
+        MappedSeriesFile.write(file, timestamps, BenchmarkData.randomWalk(size), size);
+        series = MappedSeriesFile.open(file);
+        geometry = new LineGeometry();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public MappedSeriesFile open() throws IOException {
+        return MappedSeriesFile.open(file);
+    }
+
+    @Benchmark
+    public LineGeometry computeVisibleWindow() {
+        // 显示千分之一的数据
+        geometry.computeSource(series, 0.5, 0.501, 2, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry;
+    }
+
+}
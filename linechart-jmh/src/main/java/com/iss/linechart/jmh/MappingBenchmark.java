@@ -0,0 +1,69 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 数据值到像素坐标映射的基准测试,分别测量不抽稀和两种抽稀模式下完整的几何计算
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-10]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MappingBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] values;
+
+    private LineGeometry geometry;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(size);
+        geometry = new LineGeometry();
+    }
+
+    @Benchmark
+    public LineGeometry computeAllPoints() {
+        return compute(LineDecimator.MODE_NONE);
+    }
+
+    @Benchmark
+    public LineGeometry computeLttb() {
+        return compute(LineDecimator.MODE_LTTB);
+    }
+
+    @Benchmark
+    public LineGeometry computeMinMax() {
+        return compute(LineDecimator.MODE_MIN_MAX);
+    }
+
+    private LineGeometry compute(int decimationMode) {
+        geometry.compute(values, size, decimationMode, 2, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry;
+    }
+
+}
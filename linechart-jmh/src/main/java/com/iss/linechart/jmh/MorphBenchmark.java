@@ -0,0 +1,82 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 线条变形的基准测试,测量开始变形时在旧线条上插值起点和动画每一帧计算y坐标的耗时,
+ * 两者都只与抽稀后的绘制点数有关
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-20]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MorphBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    /** 变形前的绘制点x坐标 */
+    private float[] fromXs;
+
+    /** 变形前的绘制点y坐标 */
+    private float[] fromYs;
+
+    private int fromCount;
+
+    private LineGeometry geometry;
+
+    private float fraction;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        LineGeometry from = new LineGeometry();
+        from.compute(BenchmarkData.randomWalk(size), size, LineDecimator.MODE_LTTB, 2, 0, BenchmarkData.CHART_WIDTH,
+                BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        fromXs = from.xs;
+        fromYs = from.ys;
+        fromCount = from.pointCount;
+        // 新数据与旧数据不同,变形起点需要插值
+        float[] values = BenchmarkData.randomWalk(size + 1);
+        geometry = new LineGeometry();
+        geometry.compute(values, size + 1, LineDecimator.MODE_LTTB, 2, 0, BenchmarkData.CHART_WIDTH,
+                BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        geometry.beginMorph(fromXs, fromYs, fromCount);
+    }
+
+    @Benchmark
+    public LineGeometry beginMorph() {
+        // 每次调用都以当前y坐标作为终点,耗时与数据值无关
+        geometry.beginMorph(fromXs, fromYs, fromCount);
+        return geometry;
+    }
+
+    @Benchmark
+    public LineGeometry morphFrame() {
+        // 进度不到1,变形一直进行
+        fraction = fraction >= 0.9F ? 0F : fraction + 0.1F;
+        geometry.morph(fraction);
+        return geometry;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.SampleQueue;
+
+/**
+ * 数据队列的基准测试:生产者写入一个数据的耗时,以及一帧内积压不同个数的数据时主线程合并一次的耗时
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-28]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SampleQueueBenchmark {
+
+    /** 每帧间隔内产生的数据个数 */
+    @Param({ "1", "16", "256" })
+    public int samplesPerFrame;
+
+    @Param({ "0", "1", "2" })
+    public int policy;
+
+    private float[] values;
+
+    private SampleQueue queue;
+
+    private final float[] out = new float[1];
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(samplesPerFrame);
+        queue = new SampleQueue(1024);
+    }
+
+    @Benchmark
+    public int offer() {
+        queue.offer(values[next]);
+        next = (next + 1) % samplesPerFrame;
+        // 及时取出,保证测量的是写入而不是丢弃
+        return next == 0 ? queue.drain(policy, out, 0) : 0;
+    }
+
+    @Benchmark
+    public float frame() {
+        queue.offer(values, 0, samplesPerFrame);
+        queue.drain(policy, out, 0);
+        return out[0];
+    }
+
+}
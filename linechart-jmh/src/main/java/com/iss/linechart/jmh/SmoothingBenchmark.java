@@ -0,0 +1,84 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+
+/**
+ * 平滑曲线控制点的基准测试,分别测量绘制点全部变化后重新计算所有控制点、实时滚动线条追加一个点后只计算受影响的段,
+ * 以及绘制点没有变化时的开销
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-22]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmoothingBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] source;
+
+    private LineGeometry geometry;
+
+    private LineGeometry stream;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        source = BenchmarkData.randomWalk(size);
+        geometry = new LineGeometry();
+        geometry.compute(source, size, LineDecimator.MODE_LTTB, 2, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        // 实时滚动线条的容量与图表宽度相当,之后每次追加都会触发整体前移
+        int capacity = BenchmarkData.CHART_WIDTH;
+        stream = new LineGeometry();
+        stream.computeStream(BenchmarkData.randomWalk(capacity), 0, capacity, 0, BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT,
+                BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        stream.updateCurves();
+    }
+
+    @Benchmark
+    public LineGeometry updateAllCurves() {
+        geometry.fillBuffers();
+        geometry.updateCurves();
+        return geometry;
+    }
+
+    @Benchmark
+    public LineGeometry appendAndUpdateCurves() {
+        float value = source[next];
+        next = (next + 1) % size;
+        stream.appendPoint(value, LineGeometry.valueToY(value, BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE),
+                BenchmarkData.CHART_WIDTH);
+        stream.updateCurves();
+        return stream;
+    }
+
+    @Benchmark
+    public LineGeometry unchangedCurves() {
+        geometry.updateCurves();
+        return geometry;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.TimeBucketAggregator;
+
+/**
+ * 按时间聚合的基准测试:一天10Hz的数据逐个写入聚合器的耗时,以及直接按时间计算原始数据和按分钟聚合后计算的耗时
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-29]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeBucketBenchmark {
+
+    /** 一天10Hz的数据个数 */
+    private static final int SAMPLE_COUNT = 864000;
+
+    /** 采样间隔(毫秒) */
+    private static final long SAMPLE_INTERVAL = 100;
+
+    /** 聚合的时间段长度(毫秒) */
+    private static final long BUCKET_INTERVAL = 60000;
+
+    @Param({ "0", "3" })
+    public int stat;
+
+    private float[] values;
+
+    private long[] times;
+
+    private long[] bucketTimes;
+
+    private float[] bucketValues;
+
+    private int bucketCount;
+
+    private final LineGeometry geometry = new LineGeometry();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(SAMPLE_COUNT);
+        times = new long[SAMPLE_COUNT];
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            times[i] = i * SAMPLE_INTERVAL;
+        }
+        TimeBucketAggregator aggregator = aggregate();
+        bucketCount = aggregator.getBucketCount();
+        bucketTimes = new long[bucketCount];
+        bucketValues = new float[bucketCount];
+        aggregator.readBuckets(stat, 0, bucketCount, bucketTimes, bucketValues);
+    }
+
+    private TimeBucketAggregator aggregate() {
+        TimeBucketAggregator aggregator = new TimeBucketAggregator(BUCKET_INTERVAL);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            aggregator.add(times[i], values[i]);
+        }
+        return aggregator;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int aggregateDay() {
+        return aggregate().getBucketCount();
+    }
+
+    @Benchmark
+    public int computeRaw() {
+        geometry.computeTime(values, times, SAMPLE_COUNT, 0, times[SAMPLE_COUNT - 1], 0, 0, BenchmarkData.CHART_WIDTH,
+                BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry.pointCount;
+    }
+
+    @Benchmark
+    public int computeBuckets() {
+        geometry.computeTime(bucketValues, bucketTimes, bucketCount, 0, times[SAMPLE_COUNT - 1], 0, 0, BenchmarkData.CHART_WIDTH,
+                BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry.pointCount;
+    }
+
+}
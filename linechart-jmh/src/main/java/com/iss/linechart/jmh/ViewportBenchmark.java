@@ -0,0 +1,76 @@
+package com.iss.linechart.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.MinMaxPyramid;
+
+/**
+ * 缩放平移的基准测试:金字塔构建一次,之后每帧按视口计算几何数据的成本应只与图表宽度有关
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-12]
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewportBenchmark {
+
+    /** 每次平移的距离,占整个横向范围的比例 */
+    private static final double PAN_STEP = 0.001;
+
+    @Param({ "1000", "100000", "10000000" })
+    public int size;
+
+    private float[] values;
+
+    private MinMaxPyramid pyramid;
+
+    private LineGeometry geometry;
+
+    private double viewportStart;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        values = BenchmarkData.randomWalk(size);
+        pyramid = new MinMaxPyramid();
+        pyramid.build(values, size);
+        geometry = new LineGeometry();
+    }
+
+    @Benchmark
+    public MinMaxPyramid buildPyramid() {
+        pyramid.build(values, size);
+        return pyramid;
+    }
+
+    @Benchmark
+    public LineGeometry panZoomedViewport() {
+        // 显示十分之一的数据,每次向右平移一小段
+        viewportStart += PAN_STEP;
+        if (viewportStart > 0.9) {
+            viewportStart = 0;
+        }
+        geometry.computeViewport(values, size, pyramid, LineDecimator.MODE_MIN_MAX, viewportStart, viewportStart + 0.1, 2, 0,
+                BenchmarkData.CHART_WIDTH, BenchmarkData.CHART_HEIGHT, BenchmarkData.MIN_VALUE, BenchmarkData.MAX_VALUE);
+        return geometry;
+    }
+
+}
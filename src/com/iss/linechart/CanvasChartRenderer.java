@@ -0,0 +1,191 @@
+package com.iss.linechart;
+
+import android.graphics.Canvas;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Paint.Align;
+import android.graphics.Paint.Cap;
+import android.graphics.Paint.Join;
+import android.graphics.Paint.Style;
+import android.graphics.Path;
+import android.graphics.Shader;
+
+import com.iss.linechart.core.ChartRenderer;
+
+/**
+ * 基于Canvas的图表绘制实现,画笔和路径复用,绘制时不创建对象。
+ * 可以绘制到控件的Canvas,也可以绘制到new Canvas(bitmap)上导出图片
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-27]
+ */
+public final class CanvasChartRenderer implements ChartRenderer {
+
+    /** 绘制的目标 */
+    private Canvas canvas;
+
+    /** 线条画笔,圆头 */
+    private final Paint strokePaint;
+
+    /** 折线画笔,圆角 */
+    private final Paint pathPaint;
+
+    /** 实心图形画笔 */
+    private final Paint fillPaint;
+
+    /** 文本画笔 */
+    private final Paint textPaint;
+
+    /** 折线路径,每次绘制时重置 */
+    private final Path path = new Path();
+
+    /** 上次填充使用的渐变,颜色和底边不变时复用 */
+    private LinearGradient areaShader;
+
+    private int areaTopColor;
+
+    private int areaBottomColor;
+
+    private float areaBottom;
+
+    /**
+     * 构造方法
+     *
+     * @param canvas 绘制的目标
+     */
+    public CanvasChartRenderer(Canvas canvas) {
+        this.canvas = canvas;
+        strokePaint = new Paint();
+        strokePaint.setAntiAlias(true);
+        strokePaint.setStrokeCap(Cap.ROUND);
+        pathPaint = new Paint();
+        pathPaint.setAntiAlias(true);
+        pathPaint.setStyle(Style.STROKE);
+        pathPaint.setStrokeCap(Cap.ROUND);
+        pathPaint.setStrokeJoin(Join.ROUND);
+        fillPaint = new Paint();
+        fillPaint.setAntiAlias(true);
+        textPaint = new Paint();
+        textPaint.setAntiAlias(true);
+    }
+
+    /**
+     * 设置绘制的目标,如渲染线程每帧锁定的Canvas
+     *
+     * @param canvas
+     * @author hubing
+     */
+    public void setCanvas(Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    @Override
+    public void drawLines(float[] pts, int offset, int count, int color, float strokeWidth) {
+        if (count < 4) {
+            return;
+        }
+        strokePaint.setColor(color);
+        strokePaint.setStrokeWidth(strokeWidth);
+        canvas.drawLines(pts, offset, count, strokePaint);
+    }
+
+    @Override
+    public void drawPolyline(float[] xs, float[] ys, int from, int count, int color, float strokeWidth) {
+        if (count < 2) {
+            return;
+        }
+        path.rewind();
+        path.moveTo(xs[from], ys[from]);
+        for (int i = from + 1; i < from + count; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        pathPaint.setColor(color);
+        pathPaint.setStrokeWidth(strokeWidth);
+        canvas.drawPath(path, pathPaint);
+    }
+
+    @Override
+    public void drawArea(float[] xs, float[] ys, int from, int count, float bottom, int topColor, int bottomColor) {
+        if (count < 2) {
+            return;
+        }
+        path.rewind();
+        path.moveTo(xs[from], bottom);
+        for (int i = from; i < from + count; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+        path.lineTo(xs[from + count - 1], bottom);
+        path.close();
+        if (areaShader == null || areaTopColor != topColor || areaBottomColor != bottomColor || areaBottom != bottom) {
+            areaShader = new LinearGradient(0, 0, 0, bottom, topColor, bottomColor, Shader.TileMode.CLAMP);
+            areaTopColor = topColor;
+            areaBottomColor = bottomColor;
+            areaBottom = bottom;
+        }
+        fillPaint.setColor(0xFF000000);
+        fillPaint.setShader(areaShader);
+        canvas.drawPath(path, fillPaint);
+        fillPaint.setShader(null);
+    }
+
+    @Override
+    public void drawCircles(float[] pts, int offset, int count, float radius, int color) {
+        if (count < 2) {
+            return;
+        }
+        // 圆头的点即为实心圆,与控件绘制圆点的方式一致
+        strokePaint.setColor(color);
+        strokePaint.setStrokeWidth(radius * 2);
+        canvas.drawPoints(pts, offset, count, strokePaint);
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, int color) {
+        fillPaint.setColor(color);
+        canvas.drawRect(left, top, right, bottom, fillPaint);
+    }
+
+    @Override
+    public void drawText(char[] text, int offset, int length, float x, float y, float textSize, int color, int align) {
+        textPaint.setTextSize(textSize);
+        textPaint.setColor(color);
+        textPaint.setTextAlign(align == ALIGN_RIGHT ? Align.RIGHT : align == ALIGN_CENTER ? Align.CENTER : Align.LEFT);
+        canvas.drawText(text, offset, length, x, y, textPaint);
+    }
+
+    @Override
+    public float measureText(char[] text, int offset, int length, float textSize) {
+        textPaint.setTextSize(textSize);
+        return textPaint.measureText(text, offset, length);
+    }
+
+    @Override
+    public float getTextAscent(float textSize) {
+        textPaint.setTextSize(textSize);
+        return -textPaint.ascent();
+    }
+
+    @Override
+    public float getTextCenterOffset(float textSize) {
+        textPaint.setTextSize(textSize);
+        return (textPaint.ascent() + textPaint.descent()) / 2;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public void saveLayer(float left, float top, float right, float bottom, int alpha) {
+        if (alpha >= 255) {
+            // 不透明时只需裁剪,不分配离屏缓冲
+            canvas.save();
+        } else {
+            canvas.saveLayerAlpha(left, top, right, bottom, alpha, Canvas.ALL_SAVE_FLAG);
+        }
+        canvas.clipRect(left, top, right, bottom);
+    }
+
+    @Override
+    public void restoreLayer() {
+        canvas.restore();
+    }
+
+}
@@ -0,0 +1,221 @@
+package com.iss.linechart;
+
+/**
+ * 图表性能统计数据,统计一个上报周期内的绘制耗时、坐标计算耗时、绘制点数、数据点数、动画数及掉帧数。
+ * 通过{@link LineChartView#setOnMetricsListener(LineChartView.OnMetricsListener)}开启,
+ * 上报的对象会被复用,需要保存时请复制其中的数值
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-9]
+ */
+public final class ChartMetrics {
+
+    /** 绘制耗时直方图各个桶的上限(微秒),最后一个桶统计超过最大上限的帧 */
+    private static final long[] BUCKET_LIMITS_MICROS = { 1000, 2000, 4000, 8000, 16000, 33000, 66000 };
+
+    /** 绘制耗时直方图 */
+    private final int[] drawTimeHistogram = new int[BUCKET_LIMITS_MICROS.length + 1];
+
+    /** 统计周期时长(毫秒) */
+    private long periodMillis;
+
+    /** 绘制帧数 */
+    private int frameCount;
+
+    /** 绘制总耗时(纳秒) */
+    private long totalDrawNanos;
+
+    /** 最长的单帧绘制耗时(纳秒) */
+    private long maxDrawNanos;
+
+    /** 坐标计算次数 */
+    private int geometryCount;
+
+    /** 坐标计算总耗时(纳秒) */
+    private long totalGeometryNanos;
+
+    /** 最长的单次坐标计算耗时(纳秒) */
+    private long maxGeometryNanos;
+
+    /** 最后一帧绘制的点数 */
+    private int renderedPoints;
+
+    /** 周期内添加到图表的数据点数 */
+    private int ingestedPoints;
+
+    /** 正在运行的动画数 */
+    private int animatorCount;
+
+    /** 周期内的掉帧数 */
+    private int droppedFrames;
+
+    ChartMetrics() {
+    }
+
+    /**
+     * 记录一帧的绘制
+     *
+     * @param nanos 绘制耗时
+     * @param points 绘制的点数
+     * @author hubing
+     */
+    void recordDraw(long nanos, int points) {
+        frameCount++;
+        totalDrawNanos += nanos;
+        if (nanos > maxDrawNanos) {
+            maxDrawNanos = nanos;
+        }
+        long micros = nanos / 1000;
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MICROS.length && micros > BUCKET_LIMITS_MICROS[bucket]) {
+            bucket++;
+        }
+        drawTimeHistogram[bucket]++;
+        renderedPoints = points;
+    }
+
+    /**
+     * 记录一次坐标计算
+     *
+     * @param nanos 计算耗时
+     * @author hubing
+     */
+    void recordGeometry(long nanos) {
+        geometryCount++;
+        totalGeometryNanos += nanos;
+        if (nanos > maxGeometryNanos) {
+            maxGeometryNanos = nanos;
+        }
+    }
+
+    /**
+     * 记录添加到图表的数据点
+     *
+     * @param points 数据点数
+     * @author hubing
+     */
+    void recordIngest(int points) {
+        ingestedPoints += points;
+    }
+
+    /**
+     * 记录掉帧
+     *
+     * @param frames 掉帧数
+     * @author hubing
+     */
+    void recordDroppedFrames(int frames) {
+        droppedFrames += frames;
+    }
+
+    /**
+     * 结束统计周期
+     *
+     * @param periodMillis 周期时长
+     * @param animatorCount 正在运行的动画数
+     * @author hubing
+     */
+    void finish(long periodMillis, int animatorCount) {
+        this.periodMillis = periodMillis;
+        this.animatorCount = animatorCount;
+    }
+
+    /**
+     * 清空统计数据,开始新的周期
+     *
+     * @author hubing
+     */
+    void reset() {
+        for (int i = 0; i < drawTimeHistogram.length; i++) {
+            drawTimeHistogram[i] = 0;
+        }
+        periodMillis = 0;
+        frameCount = 0;
+        totalDrawNanos = 0;
+        maxDrawNanos = 0;
+        geometryCount = 0;
+        totalGeometryNanos = 0;
+        maxGeometryNanos = 0;
+        renderedPoints = 0;
+        ingestedPoints = 0;
+        animatorCount = 0;
+        droppedFrames = 0;
+    }
+
+    /**
+     * 获取绘制耗时直方图的桶数
+     *
+     * @return
+     * @author hubing
+     */
+    public int getBucketCount() {
+        return drawTimeHistogram.length;
+    }
+
+    /**
+     * 获取绘制耗时直方图中桶的上限
+     *
+     * @param bucket 桶索引
+     * @return 上限(微秒),最后一个桶返回Long.MAX_VALUE
+     * @author hubing
+     */
+    public long getBucketLimitMicros(int bucket) {
+        return bucket < BUCKET_LIMITS_MICROS.length ? BUCKET_LIMITS_MICROS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * 获取绘制耗时落在指定桶中的帧数
+     *
+     * @param bucket 桶索引
+     * @return
+     * @author hubing
+     */
+    public int getBucketFrameCount(int bucket) {
+        return drawTimeHistogram[bucket];
+    }
+
+    public long getPeriodMillis() {
+        return periodMillis;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    public long getTotalDrawNanos() {
+        return totalDrawNanos;
+    }
+
+    public long getMaxDrawNanos() {
+        return maxDrawNanos;
+    }
+
+    public int getGeometryCount() {
+        return geometryCount;
+    }
+
+    public long getTotalGeometryNanos() {
+        return totalGeometryNanos;
+    }
+
+    public long getMaxGeometryNanos() {
+        return maxGeometryNanos;
+    }
+
+    public int getRenderedPoints() {
+        return renderedPoints;
+    }
+
+    public int getIngestedPoints() {
+        return ingestedPoints;
+    }
+
+    public int getAnimatorCount() {
+        return animatorCount;
+    }
+
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.iss.linechart;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import android.graphics.Canvas;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+import android.view.TextureView;
+
+/**
+ * 图表渲染线程,在独立线程上按垂直同步信号把图表绘制到TextureView上。
+ * 只有数据变化时才请求绘制下一帧,不依赖主线程的invalidate
+ *
+ * @author hubing
+ * @version [1.0.0.0, 2016-4-2]
+ */
+final class ChartRenderThread extends HandlerThread implements TextureView.SurfaceTextureListener, Choreographer.FrameCallback {
+
+    /**
+     * 图表绘制回调
+     *
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-2]
+     */
+    interface Renderer {
+
+        /**
+         * 在渲染线程上绘制图表
+         *
+         * @param canvas
+         * @author hubing
+         */
+        void render(Canvas canvas);
+
+    }
+
+    /** 绘制目标 */
+    private final TextureView textureView;
+
+    /** 图表绘制回调 */
+    private final Renderer renderer;
+
+    /** 是否已请求绘制下一帧 */
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+
+    /** 保护绘制表面的锁,保证表面销毁时没有正在进行的绘制 */
+    private final Object surfaceLock = new Object();
+
+    /** 绘制表面是否可用 */
+    private boolean surfaceAvailable;
+
+    /** 渲染线程的Handler */
+    private Handler handler;
+
+    /** 渲染线程的Choreographer,在渲染线程上创建 */
+    private Choreographer choreographer;
+
+    /** 在渲染线程上请求下一帧回调 */
+    private final Runnable scheduleFrame = new Runnable() {
+
+        @Override
+        public void run() {
+            choreographer.postFrameCallback(ChartRenderThread.this);
+        }
+
+    };
+
+    public ChartRenderThread(TextureView textureView, Renderer renderer) {
+        super("LineChartView-render", Process.THREAD_PRIORITY_DISPLAY);
+        this.textureView = textureView;
+        this.renderer = renderer;
+        textureView.setOpaque(false);
+        textureView.setSurfaceTextureListener(this);
+    }
+
+    @Override
+    protected void onLooperPrepared() {
+        choreographer = Choreographer.getInstance();
+    }
+
+    /**
+     * 启动渲染线程
+     *
+     * @author hubing
+     */
+    public void startRendering() {
+        start();
+        // getLooper会等待渲染线程准备好Looper
+        handler = new Handler(getLooper());
+        requestRender();
+    }
+
+    /**
+     * 请求在下一个垂直同步信号时绘制一帧,可在任意线程调用,多次请求合并为一帧
+     *
+     * @author hubing
+     */
+    public void requestRender() {
+        if (handler != null && frameScheduled.compareAndSet(false, true)) {
+            handler.post(scheduleFrame);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled.set(false);
+        synchronized (surfaceLock) {
+            if (!surfaceAvailable) {
+                return;
+            }
+            Canvas canvas = textureView.lockCanvas();
+            if (canvas == null) {
+                return;
+            }
+            try {
+                canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+                renderer.render(canvas);
+            } finally {
+                textureView.unlockCanvasAndPost(canvas);
+            }
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        synchronized (surfaceLock) {
+            surfaceAvailable = true;
+        }
+        requestRender();
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        requestRender();
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        synchronized (surfaceLock) {
+            surfaceAvailable = false;
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+
+}
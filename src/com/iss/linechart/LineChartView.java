@@ -2,26 +2,57 @@
 package com.iss.linechart;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
-import android.animation.TypeEvaluator;
 import android.animation.ValueAnimator;
 import android.animation.ValueAnimator.AnimatorUpdateListener;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.LinearGradient;
 import android.graphics.Paint;
+import android.graphics.Paint.Cap;
+import android.graphics.Paint.Join;
 import android.graphics.Paint.Style;
 import android.graphics.Path;
-import android.graphics.Point;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Parcel;
+import android.os.Parcelable;
+import android.os.Process;
 import android.util.AttributeSet;
-import android.view.Gravity;
+import android.util.LongSparseArray;
+import android.view.Choreographer;
+import android.view.GestureDetector;
 import android.view.MotionEvent;
-import android.view.View;
+import android.view.ScaleGestureDetector;
+import android.view.TextureView;
+import android.view.WindowManager;
+import android.view.animation.LinearInterpolator;
 import android.widget.FrameLayout;
-import android.widget.TextView;
+import android.widget.OverScroller;
+
+import com.iss.linechart.core.AutoRange;
+import com.iss.linechart.core.ChartGrid;
+import com.iss.linechart.core.ChartPainter;
+import com.iss.linechart.core.ChartRenderer;
+import com.iss.linechart.core.ChartSnapshot;
+import com.iss.linechart.core.LineDecimator;
+import com.iss.linechart.core.LineGeometry;
+import com.iss.linechart.core.MinMaxPyramid;
+import com.iss.linechart.core.SampleQueue;
+import com.iss.linechart.core.SeriesSource;
+import com.iss.linechart.core.SlidingMinMax;
+import com.iss.linechart.core.ValueFormatter;
 
 /**
  * 折线图表自定义View
@@ -32,8 +63,88 @@ import android.widget.TextView;
 
 public class LineChartView extends FrameLayout {
 
-    /** 网速单位 */
-    private static final String MB = "Mbps";
+    /** 不抽稀,绘制所有数据点 */
+    public static final int DECIMATION_NONE = LineDecimator.MODE_NONE;
+
+    /** 使用Largest-Triangle-Three-Buckets算法抽稀 */
+    public static final int DECIMATION_LTTB = LineDecimator.MODE_LTTB;
+
+    /** 按像素列保留最小值和最大值抽稀 */
+    public static final int DECIMATION_MIN_MAX = LineDecimator.MODE_MIN_MAX;
+
+    /** 每帧取绑定队列中最新的数据 */
+    public static final int SAMPLE_LATEST = SampleQueue.POLICY_LATEST;
+
+    /** 每帧取绑定队列中数据的最大值 */
+    public static final int SAMPLE_MAX = SampleQueue.POLICY_MAX;
+
+    /** 每帧取绑定队列中数据的平均值 */
+    public static final int SAMPLE_AVERAGE = SampleQueue.POLICY_AVERAGE;
+
+    /** 在控件自身的onDraw中绘制图表 */
+    public static final int RENDER_MODE_VIEW = 0;
+
+    /** 在独立的渲染线程上把图表绘制到TextureView */
+    public static final int RENDER_MODE_TEXTURE = 1;
+
+    /** 默认的数值单位 */
+    private static final String DEFAULT_UNIT = "Mbps";
+
+    /** 刻度值文字大小(sp) */
+    private static final float TICK_LABEL_TEXT_SIZE = 10;
+
+    /** 数据点值文字大小(sp) */
+    private static final float POINT_VALUE_TEXT_SIZE = 14;
+
+    /** 数据点值显示和隐藏的动画时长 */
+    private static final long POINT_ANIMATION_DURATION = 200;
+
+    /** 线条绘制经过相邻两条坐标背景线的动画时长 */
+    private static final long SEGMENT_ANIMATION_DURATION = 300;
+
+    /** 自动范围变化时坐标缩放的动画时长 */
+    private static final long RANGE_ANIMATION_DURATION = 300;
+
+    /** 线条数据更新时从旧线条变形到新线条的动画时长 */
+    private static final long MORPH_ANIMATION_DURATION = 400;
+
+    /** 在主线程直接计算坐标的最大数据个数,超过则在后台线程计算 */
+    private static final int SYNC_GEOMETRY_LIMIT = 4096;
+
+    /** 计算线条坐标的后台线程,所有图表共用 */
+    private static final ExecutorService GEOMETRY_EXECUTOR = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread thread = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    r.run();
+                }
+
+            }, "LineChartView-geometry");
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    });
+
+    /** 缩放到最大时视口内至少显示的数据点数 */
+    private static final int MIN_VISIBLE_POINTS = 4;
+
+    /**
+     * 保存状态时所有线条默认最多保存的数据个数(约32KB),超出时按列抽稀。
+     * 同一个Activity的所有保存状态共用约1MB的Binder事务,需要给其它控件和Fragment留出空间
+     */
+    private static final int DEFAULT_SAVED_VALUE_LIMIT = 8192;
+
+    /** 性能统计数据的上报周期(纳秒) */
+    private static final long METRICS_REPORT_PERIOD = 1000000000L;
+
+    /** 主线程Handler,用于发布后台线程的计算结果 */
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
 
     /** 坐标的线条颜色 */
     private int coordinateColor = 0xffeeeeee;
@@ -59,6 +170,60 @@ public class LineChartView extends FrameLayout {
     /** 最大值 */
     private float maxValue = 100F;
 
+    /** 最小值 */
+    private float minValue = 0F;
+
+    /** 左侧参考圆点对应的刻度值,只在数值范围变化时重新计算 */
+    private float[] tickValues;
+
+    /** 数值格式化,刻度值和数据点值共用 */
+    private final ValueFormatter valueFormatter = new ValueFormatter(0, DEFAULT_UNIT);
+
+    /** 刻度值文本,第i个刻度值从i * tickLabelStride开始保存 */
+    private char[] tickLabelText = new char[0];
+
+    /** tickLabelText中每个刻度值占用的长度 */
+    private int tickLabelStride;
+
+    /** 刻度值文本长度 */
+    private int[] tickLabelLengths;
+
+    /** 刻度值文本宽度,文本变化时才重新测量 */
+    private float[] tickLabelWidths;
+
+    /** 格式化刻度值时使用的缓冲区,与上次的文本比较 */
+    private char[] tickLabelScratch;
+
+    /** 刻度值文本是否需要更新 */
+    private boolean isTickLabelDirty = true;
+
+    /** 测量刻度值宽度的画笔,绘制时只使用其字号 */
+    private Paint tickLabelPaint;
+
+    /** 是否根据数据自动调整数值范围 */
+    private boolean isAutoRange = false;
+
+    /** 自动范围计算,未开启时为null */
+    private AutoRange autoRange;
+
+    /** 自动范围变化时的坐标缩放动画 */
+    private ValueAnimator rangeAnimator;
+
+    /** 缩放动画开始时的最小值 */
+    private float rangeFromMin;
+
+    /** 缩放动画开始时的最大值 */
+    private float rangeFromMax;
+
+    /** 查询数据范围时使用的缓冲区,依次保存最小值和最大值 */
+    private final float[] rangeBuffer = new float[2];
+
+    /** 数据抽稀模式 */
+    private int decimationMode = DECIMATION_LTTB;
+
+    /** 保存状态时所有线条最多保存的数据个数,0表示不保存线条 */
+    private int savedValueLimit = DEFAULT_SAVED_VALUE_LIMIT;
+
     /** 控件高 */
     private int mHeight;
 
@@ -68,14 +233,26 @@ public class LineChartView extends FrameLayout {
     /** 控件宽 */
     private int mWidth;
 
-    /** 垂直坐标基线数组 */
-    private CoordinateLine[] verticalLines;
+    /** 垂直坐标基线端点数组,每条基线依次保存startX, startY, endX, endY */
+    private float[] verticalLines;
 
-    /** 垂直坐标圆点数组 */
-    private Point[] verticalCircles;
+    /** 垂直坐标圆点数组,每个圆点依次保存x, y */
+    private float[] verticalCircles;
 
-    /** 画笔 */
-    private Paint paint;
+    /** 坐标背景线、参考圆点等静态背景的缓存 */
+    private Bitmap backgroundCache;
+
+    /** 绘制到背景缓存上的画布 */
+    private Canvas backgroundCanvas;
+
+    /** 绘制到背景缓存上的绘制接口,背景与快照共用{@link ChartPainter}的绘制过程 */
+    private CanvasChartRenderer backgroundRenderer;
+
+    /** 每帧绘制图例等与快照共用的部分,绘制前设置当前帧的画布 */
+    private final CanvasChartRenderer chartRenderer = new CanvasChartRenderer(null);
+
+    /** 背景缓存是否需要重新绘制 */
+    private boolean isBackgroundDirty = true;
 
     private int paddingLeft;
 
@@ -87,8 +264,238 @@ public class LineChartView extends FrameLayout {
     /** 是否启动动画 */
     private boolean isStartAnimotion = true;
 
-    /** 显示数据点的TextView */
-    private TextView tvPoint;
+    /** 是否以平滑曲线绘制线条 */
+    private boolean isSmooth = false;
+
+    /** 是否填充线条下方的面积 */
+    private boolean isAreaFill = false;
+
+    /** 下一条线条的标识 */
+    private int nextLineId = 1;
+
+    /** 按层级排列的线条,层级相同时按添加顺序,线条增删或层级变化后重建 */
+    private Line[] drawOrder = new Line[0];
+
+    /** 本帧需要绘制的线条,隐藏和完全在可见区域外的线条不在其中 */
+    private Line[] visibleLines = new Line[0];
+
+    /** 实时滚动线条不缓存的首尾两段路径,每帧重建 */
+    private final Path streamEdgePath = new Path();
+
+    /** drawOrder是否需要重建 */
+    private boolean isDrawOrderDirty = true;
+
+    /** 是否显示图例 */
+    private boolean isLegendEnabled = false;
+
+    /** 测量图例的画笔,绘制时只使用其字号 */
+    private Paint legendPaint;
+
+    /** 图例中的线条 */
+    private Line[] legendLines = new Line[0];
+
+    /** 图例项的名称宽度 */
+    private float[] legendWidths = new float[0];
+
+    /** 图例项数 */
+    private int legendCount;
+
+    /** 图例项的左边界 */
+    private float[] legendXs = new float[0];
+
+    /** 图例项的文字基线 */
+    private float[] legendYs = new float[0];
+
+    /** 图例是否需要重新排列 */
+    private boolean isLegendDirty = true;
+
+    /** 面积填充的渐变,按颜色和图表高度缓存,颜色相同的线条共用 */
+    private final LongSparseArray<LinearGradient> fillShaders = new LongSparseArray<LinearGradient>();
+
+    /** 线条绘制动画,所有线条共用 */
+    private ValueAnimator lineAnimator;
+
+    /** 线条已绘制到的x坐标,线条只绘制此坐标左侧的部分,与选中状态一样在lines锁内修改 */
+    private float revealX = Float.MAX_VALUE;
+
+    /** 线条数据更新时的变形动画,所有线条共用 */
+    private ValueAnimator morphAnimator;
+
+    /** 数据点值的背景 */
+    private Drawable pointBackground;
+
+    /** 数据点值背景的内边距 */
+    private final Rect pointPadding = new Rect();
+
+    /** 数据点值画笔 */
+    private Paint pointTextPaint;
+
+    /** 显示数据点值的文本缓冲区,避免每次触摸创建字符串 */
+    private char[] pointValueText;
+
+    /** 格式化数据点值时使用的缓冲区,与上次的文本比较 */
+    private char[] pointValueScratch;
+
+    /** 数据点值文本长度 */
+    private int pointValueLength;
+
+    /** 数据点值文本宽度,文本变化时才重新测量 */
+    private float pointValueWidth;
+
+    /** 数据点值是否显示 */
+    private boolean isPointVisible;
+
+    /** 数据点值是否正在播放隐藏动画 */
+    private boolean isPointHiding;
+
+    /** 数据点值的缩放比例,显示和隐藏动画中变化 */
+    private float pointScale = 1F;
+
+    /** 数据点值的显示和隐藏动画 */
+    private ValueAnimator pointAnimator;
+
+    /** 是否开启拖动查看数据模式 */
+    private boolean isScrubEnabled = false;
+
+    /** 是否正在拖动查看数据 */
+    private boolean isScrubbing = false;
+
+    /**
+     * 选中的线条索引,-1表示未选中。选中、拖动和数据点值的状态只在主线程修改,修改时持有lines锁,
+     * 渲染线程在锁内读取,不会读到只更新了一半的状态
+     */
+    private int selectedLine = -1;
+
+    /** 选中的点在线条上的索引 */
+    private int selectedPoint = -1;
+
+    /** 拖动查看数据时十字线的画笔 */
+    private Paint crosshairPaint;
+
+    /** 渲染模式 */
+    private int renderMode = RENDER_MODE_VIEW;
+
+    /** 渲染线程模式下绘制图表的TextureView */
+    private TextureView textureView;
+
+    /** 渲染线程,仅在渲染线程模式且控件显示时存在 */
+    private ChartRenderThread renderThread;
+
+    /** 控件是否已显示在窗口上 */
+    private boolean isAttached;
+
+    /** 是否开启缩放和平移 */
+    private boolean isZoomEnabled = false;
+
+    /** 视口起点,占整个横向范围的比例 */
+    private double viewportStart = 0;
+
+    /** 视口终点,占整个横向范围的比例 */
+    private double viewportEnd = 1;
+
+    /** 按时间显示的线条的时间范围起点,对应视口起点为0时的图表左边界 */
+    private long timeStart;
+
+    /** 按时间显示的线条的时间范围终点 */
+    private long timeEnd;
+
+    /** 是否按所有时间线条的最早和最晚时间自动确定时间范围 */
+    private boolean isAutoTimeRange = true;
+
+    /** 允许的最大采样间隔,相邻数据的时间间隔超过此值时不连线,不大于0时不检查 */
+    private long maxTimeGap;
+
+    /** 双指缩放手势检测 */
+    private ScaleGestureDetector scaleDetector;
+
+    /** 平移和快速滑动手势检测 */
+    private GestureDetector gestureDetector;
+
+    /** 快速滑动后的惯性滚动 */
+    private OverScroller scroller;
+
+    /** 惯性滚动开始时整个横向范围对应的像素宽度 */
+    private double flingContentWidth;
+
+    /** 当前手势是否已开始平移 */
+    private boolean isPanning;
+
+    /** 恢复状态后等待布局完成再显示点值的线条索引,-1表示没有 */
+    private int restoredSelectedLine = -1;
+
+    /** 恢复状态后等待显示点值的数据点x坐标,占图表宽度的比例 */
+    private float restoredSelectedX;
+
+    /** 批量更新的嵌套层数,大于0时推迟应用更新 */
+    private int updateDepth;
+
+    /** 是否已请求在下一帧应用待处理的更新 */
+    private boolean isUpdateScheduled;
+
+    /** 应用待处理的更新时是否隐藏数据点值 */
+    private boolean isHidePointPending;
+
+    /** 在下一帧应用待处理的更新,同一帧内的多次修改只计算一次坐标、启动一次动画 */
+    private final Choreographer.FrameCallback updateFrameCallback = new Choreographer.FrameCallback() {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isUpdateScheduled = false;
+            if (updateDepth == 0) {
+                applyPendingUpdates();
+            }
+        }
+
+    };
+
+    /** 每帧取出绑定队列中的数据,有绑定的线条且控件已显示时持续运行 */
+    private final Choreographer.FrameCallback sampleFrameCallback = new Choreographer.FrameCallback() {
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            isSamplePosted = false;
+            if (drainBoundLines()) {
+                postSampleFrame();
+            }
+        }
+
+    };
+
+    /** 是否已请求在下一帧取出绑定队列中的数据 */
+    private boolean isSamplePosted;
+
+    /** 取出绑定队列数据时使用的缓冲区 */
+    private final float[] sampleBuffer = new float[1];
+
+    /** 性能统计监听器 */
+    private OnMetricsListener metricsListener;
+
+    /** 当前周期正在收集的性能统计数据,未开启统计时为null */
+    private ChartMetrics metrics;
+
+    /** 上一周期已上报的性能统计数据,与metrics交替使用 */
+    private ChartMetrics reportedMetrics;
+
+    /** 统计掉帧数并定时上报性能数据的帧回调 */
+    private MetricsFrameCallback metricsFrameCallback;
+
+    /** 正在运行的动画数 */
+    private int runningAnimatorCount;
+
+    /** 统计正在运行的动画数的监听器 */
+    private final AnimatorListenerAdapter animatorCounter = new AnimatorListenerAdapter() {
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            runningAnimatorCount++;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            runningAnimatorCount--;
+        }
+
+    };
 
     public LineChartView(Context context, AttributeSet attrs) {
         super(context, attrs);
@@ -105,587 +512,3650 @@ public class LineChartView extends FrameLayout {
      * @author hubing
      */
     public void setNeedShowPointValue(boolean isNeedShowPointValue) {
-        if (isNeedShowPointValue && tvPoint == null) {
-            // 创建显示数据点的子控件
-            createPointView(getContext());
-            LayoutParams params = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
-            addView(tvPoint, params);
+        if (isNeedShowPointValue && pointBackground == null) {
+            // 创建显示数据点值的背景和画笔
+            initPointValue();
         }
         this.isNeedShowPointValue = isNeedShowPointValue;
     }
 
     /**
-     * 创建显示数据点的TextView
+     * 设置数值单位,刻度值和数据点值都显示此单位
      * 
-     * @param context 上下文对象
+     * @param unit 单位,null表示不显示单位
      * @author hubing
      */
-    void createPointView(Context context) {
-        tvPoint = new TextView(context);
-        tvPoint.setBackgroundResource(R.drawable.point_select_bg);
-        tvPoint.setGravity(Gravity.CENTER);
-        tvPoint.setVisibility(View.GONE);
-        tvPoint.setTextColor(0xffffffff);
+    public void setUnit(String unit) {
+        synchronized (lines) {
+            valueFormatter.setUnit(unit);
+            onFormatChanged();
+        }
+        invalidateBackground();
     }
 
     /**
-     * 显示数据点值
+     * 设置刻度值和数据点值显示的小数位数,默认为0
      * 
-     * @param x 图表上数据点圆心x坐标
-     * @param y 图表上数据点圆心y坐标
-     * @param valueText 数据点的文本数值
+     * @param decimals 小数位数,0到{@link ValueFormatter#MAX_DECIMALS}
      * @author hubing
      */
-    private void showPointValue(float x, float y, String valueText) {
-        if (isNeedShowPointValue) {
-            // 计算并设置数据点显示位置
-            float pointX = x + circleRadius - tvPoint.getBackground().getMinimumWidth() / 2;
-            float pointY = y + circleRadius;
-
-            tvPoint.setX(pointX);
-            tvPoint.setY(pointY);
-            tvPoint.setText(valueText);
-            tvPoint.setVisibility(View.VISIBLE);
-            // 开启显示动画
-            startShowAnimation();
+    public void setValueDecimals(int decimals) {
+        synchronized (lines) {
+            valueFormatter.setDecimals(decimals);
+            onFormatChanged();
         }
+        invalidateBackground();
     }
 
     /**
-     * 启动显示数据点值的动画
+     * 格式变化后重新生成刻度值和正在显示的数据点值
      * 
      * @author hubing
      */
-    private void startShowAnimation() {
-        // x缩放
-        ObjectAnimator animatorX = ObjectAnimator.ofFloat(tvPoint, "scaleX", 0.2F, 1F);
-        animatorX.setDuration(200);
-        // y缩放
-        ObjectAnimator animatorY = ObjectAnimator.ofFloat(tvPoint, "scaleY", 0.2F, 1F);
-        animatorY.setDuration(200);
-        // 动画集合，让两个缩放动画一起播放
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(animatorX, animatorY);
-        set.start();
+    private void onFormatChanged() {
+        synchronized (lines) {
+            ensureTextCapacity();
+            isTickLabelDirty = true;
+            if (isPointVisible && selectedLine >= 0 && selectedLine < lines.size() && selectedPoint < lines.get(selectedLine).geometry.pointCount) {
+                updatePointValueText(lines.get(selectedLine).geometry.getValue(selectedPoint));
+            }
+        }
     }
 
     /**
-     * 隐藏数据点值
+     * 保证文本缓冲区能容纳格式化结果,只在单位变长时重新创建
      * 
      * @author hubing
      */
-    private void hidePointValue() {
-        if (isNeedShowPointValue && tvPoint.getVisibility() == View.VISIBLE) {
-            // 启动隐藏动画
-            startHideAnimation();
+    private void ensureTextCapacity() {
+        int maxLength = valueFormatter.getMaxLength();
+        if (pointValueText == null || pointValueText.length < maxLength) {
+            pointValueText = new char[maxLength];
+            pointValueScratch = new char[maxLength];
+            tickLabelScratch = new char[maxLength];
+            pointValueLength = 0;
+        }
+        if (tickLabelStride != maxLength) {
+            // 每个刻度值的位置变化,全部重新测量
+            tickLabelStride = maxLength;
+            tickLabelText = new char[maxLength * verticalCircleCount];
+            for (int i = 0; i < tickLabelLengths.length; i++) {
+                tickLabelLengths[i] = 0;
+            }
         }
     }
 
     /**
-     * 启动隐藏数据点的动画
+     * 设置是否开启拖动查看数据模式,开启后按住图表左右拖动,十字线和数据点值跟随手指移动
      * 
+     * @param isScrubEnabled
      * @author hubing
      */
-    private void startHideAnimation() {
-        ObjectAnimator animatorX = ObjectAnimator.ofFloat(tvPoint, "scaleX", 1F, 0.2F);
-        animatorX.setDuration(200);
-        ObjectAnimator animatorY = ObjectAnimator.ofFloat(tvPoint, "scaleY", 1F, 0.2F);
-        animatorY.setDuration(200);
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(animatorX, animatorY);
-        set.addListener(new AnimatorListenerAdapter() {
+    public void setScrubEnabled(boolean isScrubEnabled) {
+        this.isScrubEnabled = isScrubEnabled;
+    }
 
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                super.onAnimationEnd(animation);
-                tvPoint.setVisibility(View.GONE);
-            }
+    /**
+     * 设置是否以平滑曲线绘制线条。曲线为单调三次样条,不会超出相邻两点的数值范围,
+     * 控制点只在绘制点变化时计算,绘制动画通过裁剪显示已绘制的部分
+     * 
+     * @param isSmooth
+     * @author hubing
+     */
+    public void setSmoothEnabled(boolean isSmooth) {
+        this.isSmooth = isSmooth;
+        invalidateChart();
+    }
 
-        });
-        set.start();
+    /**
+     * 设置是否填充线条下方的面积,填充颜色为线条颜色,从上到下渐变为透明。
+     * 填充路径与平滑曲线路径一样只在绘制点变化时重建
+     * 
+     * @param isAreaFill
+     * @author hubing
+     */
+    public void setAreaFillEnabled(boolean isAreaFill) {
+        this.isAreaFill = isAreaFill;
+        invalidateChart();
     }
 
     /**
-     * 初始化参数
+     * 设置是否开启缩放和平移,开启后双指缩放、单指拖动及快速滑动查看历史数据,
+     * 点击数据点仍然显示点值。开启后拖动查看数据模式不再生效
      * 
+     * @param isZoomEnabled
      * @author hubing
      */
-    private void init() {
-        // 创建画笔对象
-        paint = new Paint();
-        // 设置抗锯齿
-        paint.setAntiAlias(true);
-        // 设置线宽
-        paint.setStrokeWidth(lineSize);
+    public void setZoomEnabled(boolean isZoomEnabled) {
+        this.isZoomEnabled = isZoomEnabled;
+        if (isZoomEnabled && scaleDetector == null) {
+            scaleDetector = new ScaleGestureDetector(getContext(), new ZoomListener());
+            gestureDetector = new GestureDetector(getContext(), new PanListener());
+            scroller = new OverScroller(getContext());
+        }
+    }
 
-        lines = new ArrayList<Line>();
+    /**
+     * 设置视口,只显示横向范围中的一部分,实时滚动线条不受影响
+     * 
+     * @param start 视口起点,占整个横向范围的比例
+     * @param end 视口终点,占整个横向范围的比例
+     * @author hubing
+     */
+    public void setViewport(float start, float end) {
+        if (start < 0 || end > 1 || start >= end) {
+            throw new IllegalArgumentException("非法的参数,start为: " + start + ", end为: " + end);
+        }
+        if (scroller != null) {
+            scroller.forceFinished(true);
+        }
+        applyViewport(start, end);
+    }
 
-        // 初始化参照物
-        initReference();
+    public float getViewportStart() {
+        return (float) viewportStart;
+    }
+
+    public float getViewportEnd() {
+        return (float) viewportEnd;
     }
 
     /**
-     * 设置基线数
+     * 设置按时间显示的线条的时间范围并关闭自动时间范围,视口按此范围的比例截取
      * 
-     * @param baseLineCount
+     * @param start 时间范围起点,与时间戳的单位相同
+     * @param end 时间范围终点,需要大于起点
      * @author hubing
      */
-    public void setBaseLineCount(int baseLineCount) {
-        this.baseLineCount = baseLineCount;
-        // 重新初始化参照物
-        initReference();
-        // 计算坐标背景线位置
-        calculateVerticalLines();
-        // 计算垂直坐标点坐标
-        calculateVerticalCircles();
-        this.invalidate();
+    public void setTimeRange(long start, long end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("非法的参数,start为: " + start + ", end为: " + end);
+        }
+        synchronized (lines) {
+            isAutoTimeRange = false;
+            applyTimeRange(start, end);
+        }
+        scheduleUpdate();
     }
 
     /**
-     * 初始化参照物
+     * 按所有时间线条的最早和最晚时间自动确定时间范围,数据变化后自动更新,默认开启
      * 
      * @author hubing
      */
-    private void initReference() {
-        // 初始化坐标背景线
-        verticalLines = new CoordinateLine[baseLineCount];
-        CoordinateLine tempCoordinateLine;
-        for (int i = 0; i < verticalLines.length; i++) {
-            tempCoordinateLine = new CoordinateLine(0, 0, 0, 0);
-            verticalLines[i] = tempCoordinateLine;
+    public void setAutoTimeRange() {
+        synchronized (lines) {
+            isAutoTimeRange = true;
+            updateTimeRange();
         }
+        scheduleUpdate();
+    }
 
-        // 初始化垂直坐标圆点
-        verticalCircles = new Point[verticalCircleCount];
-        Point tempPoint;
-        for (int i = 0; i < verticalCircles.length; i++) {
-            tempPoint = new Point();
-            verticalCircles[i] = tempPoint;
+    public long getTimeStart() {
+        return timeStart;
+    }
+
+    public long getTimeEnd() {
+        return timeEnd;
+    }
+
+    /**
+     * 设置允许的最大采样间隔,按时间显示的线条中相邻数据的时间间隔超过此值时视为数据空白,不连线也不填充
+     * 
+     * @param maxTimeGap 最大采样间隔,与时间戳的单位相同,不大于0时不检查
+     * @author hubing
+     */
+    public void setMaxTimeGap(long maxTimeGap) {
+        synchronized (lines) {
+            this.maxTimeGap = maxTimeGap;
+            markTimeLinesDirty();
         }
+        scheduleUpdate();
     }
 
     /**
-     * 设置最大值
+     * 自动时间范围时按所有时间线条的最早和最晚时间更新时间范围,在持有lines锁时调用
      * 
-     * @param maxValue
      * @author hubing
      */
-    public void setMaxValue(float maxValue) {
-        if (maxValue <= 0) {
+    private void updateTimeRange() {
+        if (!isAutoTimeRange) {
+            return;
+        }
+        long start = Long.MAX_VALUE;
+        long end = Long.MIN_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.timestamps != null) {
+                // 时间戳非递减,首尾即为最早和最晚时间
+                start = Math.min(start, line.timestamps[0]);
+                end = Math.max(end, line.timestamps[line.size - 1]);
+            }
+        }
+        if (start > end) {
             return;
         }
-        this.maxValue = maxValue;
+        // 只有一个时间点时也保证范围不为空
+        applyTimeRange(start, Math.max(end, start + 1));
     }
 
     /**
-     * 设置坐标线条的颜色
+     * 更新时间范围,变化时标记时间线条需要重新计算坐标,在持有lines锁时调用
      * 
-     * @param coordinateColor
+     * @param start
+     * @param end
      * @author hubing
      */
-    public void setCoordinateColor(int coordinateColor) {
-        this.coordinateColor = coordinateColor;
-        invalidate();
+    private void applyTimeRange(long start, long end) {
+        if (start == timeStart && end == timeEnd) {
+            return;
+        }
+        timeStart = start;
+        timeEnd = end;
+        markTimeLinesDirty();
     }
 
     /**
-     * 设置左侧坐标参考圆点颜色
+     * 标记按时间显示的线条需要重新计算坐标
      * 
-     * @param referCircleColor
      * @author hubing
      */
-    public void setReferCircleColor(int referCircleColor) {
-        this.referCircleColor = referCircleColor;
+    private void markTimeLinesDirty() {
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.timestamps != null) {
+                line.geometryDirty = true;
+            }
+        }
     }
 
     /**
-     * 清除之前添加的所有线条
+     * 更新视口并重新计算线条坐标,视口宽度限制在最小宽度和整个范围之间,超出边界时平移回范围内
      * 
+     * @param start
+     * @param end
      * @author hubing
      */
-    public void clearAllLines() {
-        lines.clear();
+    private void applyViewport(double start, double end) {
+        double width = Math.max(Math.min(end - start, 1), minViewportWidth());
+        start = Math.max(0, Math.min(start, 1 - width));
+        if (start == viewportStart && start + width == viewportEnd) {
+            return;
+        }
+        synchronized (lines) {
+            viewportStart = start;
+            viewportEnd = start + width;
+        }
+        markAllLinesDirty();
+        if (updateDepth == 0) {
+            // 手势和惯性滚动在当前帧内完成计算,不推迟到下一帧
+            applyPendingUpdates();
+        }
     }
 
     /**
-     * 添加线条到图表上显示
+     * 获取最小的视口宽度,保证数据最多的线条在视口内至少显示MIN_VISIBLE_POINTS个点
      * 
-     * @param linePoints
-     * @param lineColor
+     * @return
      * @author hubing
      */
-    public void addLinePoints(IPointValue[] linePoints, int lineColor) {
-        if (linePoints == null || linePoints.length == 0 || linePoints.length > baseLineCount) {
-            String msg = linePoints == null ? "linePoints为: null" : "linePoints的size为: " + linePoints.length;
-            throw new IllegalArgumentException("非法的参数," + msg);
+    private double minViewportWidth() {
+        int slotCount = baseLineCount;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (!line.streaming) {
+                slotCount = Math.max(slotCount, line.size);
+            }
         }
-        CoordinatePoint[] coordinatePoints = new CoordinatePoint[linePoints.length];
-        Line line = new Line(linePoints, coordinatePoints, lineColor);
-        lines.add(line);
-        // 计算线条对应的坐标点位置
-        calculateLinePosition(line);
-
-        hidePointValue();
+        return Math.min(1, (double) (MIN_VISIBLE_POINTS - 1) / (slotCount - 1));
+    }
 
-        // 启动动画
-        isStartAnimotion = true;
-        // 重绘
-        this.invalidate();
+    /**
+     * 是否已缩放,只显示横向范围中的一部分
+     * 
+     * @return
+     * @author hubing
+     */
+    private boolean isZoomed() {
+        return viewportStart > 0 || viewportEnd < 1;
     }
 
     /**
-     * 计算线条对应的坐标点位置
+     * 设置渲染模式。{@link #RENDER_MODE_TEXTURE}模式下图表在独立的渲染线程上按垂直同步信号绘制,
+     * 数据变化时才绘制新的一帧,主线程繁忙时不影响图表的帧率
      * 
-     * @param line
+     * @param renderMode {@link #RENDER_MODE_VIEW}或{@link #RENDER_MODE_TEXTURE}
      * @author hubing
      */
-    private void calculateLinePosition(Line line) {
-        IPointValue[] linePoints = line.linePoints;
-        CoordinatePoint[] coordinatePoints = line.coordinatePoints;
-        for (int i = 0; i < coordinatePoints.length; i++) {
-            coordinatePoints[i] = new CoordinatePoint();
-            float value = linePoints[i].getValue();
-            int y = mRealChartHeight - (int) (value / maxValue * mRealChartHeight);
-            coordinatePoints[i].set(verticalLines[i].startX, y, value);
+    public void setRenderMode(int renderMode) {
+        if (renderMode != RENDER_MODE_VIEW && renderMode != RENDER_MODE_TEXTURE) {
+            throw new IllegalArgumentException("非法的参数,renderMode为: " + renderMode);
+        }
+        if (this.renderMode == renderMode) {
+            return;
+        }
+        this.renderMode = renderMode;
+        if (renderMode == RENDER_MODE_TEXTURE) {
+            // TextureView放在最底层
+            textureView = new TextureView(getContext());
+            addView(textureView, 0, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+            if (isAttached) {
+                startRenderThread();
+            }
+        } else {
+            stopRenderThread();
+            removeView(textureView);
+            textureView = null;
         }
+        invalidateChart();
     }
 
-    @Override
-    public boolean onInterceptTouchEvent(MotionEvent ev) {
-        return true;
-    }
+    /**
+     * 启动渲染线程
+     * 
+     * @author hubing
+     */
+    private void startRenderThread() {
+        renderThread = new ChartRenderThread(textureView, new ChartRenderThread.Renderer() {
+
+            @Override
+            public void render(Canvas canvas) {
+                drawChart(canvas);
+            }
+
+        });
+        renderThread.startRendering();
+    }
+
+    /**
+     * 停止渲染线程
+     * 
+     * @author hubing
+     */
+    private void stopRenderThread() {
+        if (renderThread != null) {
+            renderThread.quit();
+            renderThread = null;
+        }
+    }
+
+    /**
+     * 设置性能统计监听器,设置后每秒在主线程上报一次绘制耗时、坐标计算耗时、绘制点数、数据点数、
+     * 动画数及掉帧数。传入null关闭统计,关闭时各统计点只有一次判空的开销
+     * 
+     * @param listener 性能统计监听器
+     * @author hubing
+     */
+    public void setOnMetricsListener(OnMetricsListener listener) {
+        this.metricsListener = listener;
+        if (listener != null && metricsFrameCallback == null) {
+            synchronized (lines) {
+                metrics = new ChartMetrics();
+                reportedMetrics = new ChartMetrics();
+            }
+            metricsFrameCallback = new MetricsFrameCallback();
+            if (isAttached) {
+                metricsFrameCallback.start();
+            }
+        } else if (listener == null && metricsFrameCallback != null) {
+            metricsFrameCallback.stop();
+            metricsFrameCallback = null;
+            synchronized (lines) {
+                metrics = null;
+                reportedMetrics = null;
+            }
+        }
+    }
+
+    /**
+     * 结束当前统计周期,上报统计数据并开始新的周期
+     * 
+     * @param periodNanos 周期时长
+     * @author hubing
+     */
+    private void reportMetrics(long periodNanos) {
+        ChartMetrics report;
+        synchronized (lines) {
+            report = metrics;
+            report.finish(periodNanos / 1000000, runningAnimatorCount);
+            // 交换两份统计数据,渲染线程继续写入新的周期,上报的数据在回调期间不会被修改
+            metrics = reportedMetrics;
+            metrics.reset();
+            reportedMetrics = report;
+        }
+        metricsListener.onMetrics(report);
+    }
+
+    /**
+     * 请求重绘图表,渲染线程模式下由渲染线程在下一帧绘制,否则调用invalidate
+     * 
+     * @author hubing
+     */
+    private void invalidateChart() {
+        if (renderMode == RENDER_MODE_TEXTURE) {
+            if (isStartAnimotion) {
+                isStartAnimotion = false;
+                startDrawLineAnimation();
+            }
+            if (renderThread != null) {
+                renderThread.requestRender();
+            }
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * 创建显示数据点值的背景和画笔
+     * 
+     * @author hubing
+     */
+    private void initPointValue() {
+        pointBackground = getResources().getDrawable(R.drawable.point_select_bg);
+        pointBackground.getPadding(pointPadding);
+        pointTextPaint = new Paint();
+        pointTextPaint.setAntiAlias(true);
+        pointTextPaint.setColor(0xffffffff);
+        pointTextPaint.setTextSize(POINT_VALUE_TEXT_SIZE * getResources().getDisplayMetrics().scaledDensity);
+        pointTextPaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    /**
+     * 显示选中的数据点值
+     * 
+     * @param animate 是否播放显示动画
+     * @author hubing
+     */
+    private void showPointValue(boolean animate) {
+        if (isNeedShowPointValue) {
+            LineGeometry geometry = lines.get(selectedLine).geometry;
+            synchronized (lines) {
+                updatePointValueText(geometry.getValue(selectedPoint));
+                isPointVisible = true;
+            }
+            if (animate) {
+                // 开启显示动画
+                startShowAnimation();
+            } else if (isPointHiding) {
+                // 正在隐藏时直接恢复显示
+                pointAnimator.cancel();
+                synchronized (lines) {
+                    isPointHiding = false;
+                    pointScale = 1F;
+                }
+            }
+            invalidateChart();
+        }
+    }
+
+    /**
+     * 格式化数据点值,文本与上次相同时沿用测量好的宽度
+     * 
+     * @param value 数据值
+     * @author hubing
+     */
+    private void updatePointValueText(float value) {
+        int length = valueFormatter.format(value, pointValueScratch, 0);
+        if (length != pointValueLength || !regionEquals(pointValueScratch, 0, pointValueText, 0, length)) {
+            System.arraycopy(pointValueScratch, 0, pointValueText, 0, length);
+            pointValueLength = length;
+            pointValueWidth = pointTextPaint.measureText(pointValueText, 0, length);
+        }
+    }
+
+    /**
+     * 比较两个字符数组的一段是否相同
+     * 
+     * @param a
+     * @param aOffset
+     * @param b
+     * @param bOffset
+     * @param length 比较的长度
+     * @return
+     * @author hubing
+     */
+    private static boolean regionEquals(char[] a, int aOffset, char[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 启动显示数据点值的动画
+     * 
+     * @author hubing
+     */
+    private void startShowAnimation() {
+        pointAnimator.cancel();
+        synchronized (lines) {
+            isPointHiding = false;
+        }
+        // 从小到大缩放显示
+        pointAnimator.setFloatValues(0.2F, 1F);
+        pointAnimator.start();
+    }
+
+    /**
+     * 隐藏数据点值
+     * 
+     * @author hubing
+     */
+    private void hidePointValue() {
+        if (isNeedShowPointValue && isPointVisible && !isPointHiding) {
+            // 启动隐藏动画
+            startHideAnimation();
+        }
+    }
+
+    /**
+     * 启动隐藏数据点的动画,结束后不再绘制数据点值
+     * 
+     * @author hubing
+     */
+    private void startHideAnimation() {
+        pointAnimator.cancel();
+        synchronized (lines) {
+            isPointHiding = true;
+        }
+        pointAnimator.setFloatValues(1F, 0.2F);
+        pointAnimator.start();
+    }
+
+    /**
+     * 数据点值动画更新监听器
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-24]
+     */
+    class PointAnimatorUpdateListener extends AnimatorListenerAdapter implements AnimatorUpdateListener {
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            synchronized (lines) {
+                pointScale = (Float) animation.getAnimatedValue();
+            }
+            invalidateChart();
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (isPointHiding) {
+                synchronized (lines) {
+                    isPointHiding = false;
+                    isPointVisible = false;
+                    pointScale = 1F;
+                }
+                invalidateChart();
+            }
+        }
+
+    }
+
+    /**
+     * 初始化参数
+     * 
+     * @author hubing
+     */
+    private void init() {
+        // 创建十字线画笔
+        crosshairPaint = new Paint();
+        crosshairPaint.setAntiAlias(true);
+        crosshairPaint.setStrokeWidth(1);
+        crosshairPaint.setColor(referCircleColor);
+
+        // 创建刻度值画笔
+        tickLabelPaint = new Paint();
+        tickLabelPaint.setAntiAlias(true);
+        tickLabelPaint.setTextSize(TICK_LABEL_TEXT_SIZE * getResources().getDisplayMetrics().scaledDensity);
+
+        // 创建图例画笔
+        legendPaint = new Paint();
+        legendPaint.setAntiAlias(true);
+        legendPaint.setTextSize(TICK_LABEL_TEXT_SIZE * getResources().getDisplayMetrics().scaledDensity);
+
+        lines = new ArrayList<Line>();
+
+        // 创建线条绘制动画
+        lineAnimator = ValueAnimator.ofFloat(0F, 1F);
+        lineAnimator.setInterpolator(new LinearInterpolator());
+        lineAnimator.addUpdateListener(new LineAnimatorUpdateListener());
+        lineAnimator.addListener(animatorCounter);
+
+        // 创建线条变形动画
+        morphAnimator = ValueAnimator.ofFloat(0F, 1F);
+        morphAnimator.setDuration(MORPH_ANIMATION_DURATION);
+        morphAnimator.addUpdateListener(new MorphAnimatorUpdateListener());
+        morphAnimator.addListener(animatorCounter);
+
+        // 创建数据点值的显示和隐藏动画
+        pointAnimator = ValueAnimator.ofFloat(0.2F, 1F);
+        pointAnimator.setDuration(POINT_ANIMATION_DURATION);
+        PointAnimatorUpdateListener pointListener = new PointAnimatorUpdateListener();
+        pointAnimator.addUpdateListener(pointListener);
+        pointAnimator.addListener(pointListener);
+        pointAnimator.addListener(animatorCounter);
+
+        // 初始化参照物
+        initReference();
+    }
+
+    /**
+     * 创建绘制线条的画笔
+     * 
+     * @param color 画笔颜色
+     * @return
+     * @author hubing
+     */
+    private Paint createLinePaint(int color) {
+        Paint linePaint = new Paint();
+        linePaint.setAntiAlias(true);
+        linePaint.setStrokeWidth(lineSize);
+        // 圆头使逐段绘制的线条在连接处平滑过渡
+        linePaint.setStrokeCap(Cap.ROUND);
+        linePaint.setColor(color);
+        return linePaint;
+    }
+
+    /**
+     * 创建绘制平滑曲线的画笔
+     * 
+     * @param color 画笔颜色
+     * @return
+     * @author hubing
+     */
+    private Paint createCurvePaint(int color) {
+        Paint curvePaint = createLinePaint(color);
+        curvePaint.setStyle(Style.STROKE);
+        curvePaint.setStrokeJoin(Join.ROUND);
+        return curvePaint;
+    }
+
+    /**
+     * 创建绘制圆点的画笔,配合{@link Canvas#drawPoints(float[], int, int, Paint)}一次绘制所有圆点
+     * 
+     * @param color 画笔颜色
+     * @return
+     * @author hubing
+     */
+    private Paint createPointPaint(int color) {
+        Paint pointPaint = new Paint();
+        pointPaint.setAntiAlias(true);
+        pointPaint.setStrokeWidth(circleRadius * 2);
+        pointPaint.setStrokeCap(Cap.ROUND);
+        pointPaint.setColor(color);
+        return pointPaint;
+    }
+
+    /**
+     * 设置基线数
+     * 
+     * @param baseLineCount
+     * @author hubing
+     */
+    public void setBaseLineCount(int baseLineCount) {
+        synchronized (lines) {
+            this.baseLineCount = baseLineCount;
+            // 重新初始化参照物
+            initReference();
+            // 计算坐标背景线位置
+            calculateVerticalLines();
+            // 计算垂直坐标点坐标
+            calculateVerticalCircles();
+        }
+        invalidateBackground();
+        // 基线数决定横向的格数,线条坐标需要重新计算
+        markAllLinesDirty();
+        scheduleUpdate();
+    }
+
+    /**
+     * 初始化参照物
+     * 
+     * @author hubing
+     */
+    private void initReference() {
+        // 初始化坐标背景线
+        verticalLines = new float[baseLineCount * 4];
+
+        // 初始化垂直坐标圆点
+        verticalCircles = new float[verticalCircleCount * 2];
+
+        // 初始化刻度值
+        tickValues = new float[verticalCircleCount];
+        tickLabelLengths = new int[verticalCircleCount];
+        tickLabelWidths = new float[verticalCircleCount];
+        tickLabelStride = 0;
+        ensureTextCapacity();
+        updateTickValues(minValue, maxValue);
+    }
+
+    /**
+     * 设置最大值
+     * 
+     * @param maxValue
+     * @author hubing
+     */
+    public void setMaxValue(float maxValue) {
+        if (maxValue <= 0) {
+            return;
+        }
+        setValueRange(0F, maxValue);
+    }
+
+    /**
+     * 设置数值范围并关闭自动范围,线条坐标在下一帧重新计算
+     * 
+     * @param minValue 最小值
+     * @param maxValue 最大值
+     * @author hubing
+     */
+    public void setValueRange(float minValue, float maxValue) {
+        if (!(minValue < maxValue)) {
+            throw new IllegalArgumentException("非法的参数,minValue为: " + minValue + ", maxValue为: " + maxValue);
+        }
+        setAutoRangeEnabled(false);
+        synchronized (lines) {
+            this.maxValue = maxValue;
+            this.minValue = minValue;
+            updateTickValues(minValue, maxValue);
+        }
+        markAllLinesDirty();
+        scheduleUpdate();
+    }
+
+    /**
+     * 设置是否根据数据自动调整数值范围。开启后添加、更新、追加数据及缩放平移时增量计算可见数据的最小值和最大值,
+     * 范围变化时以动画缩放坐标,不重新扫描全部数据
+     * 
+     * @param isAutoRange
+     * @author hubing
+     */
+    public void setAutoRangeEnabled(boolean isAutoRange) {
+        this.isAutoRange = isAutoRange;
+        if (isAutoRange) {
+            if (autoRange == null) {
+                autoRange = new AutoRange(minValue, maxValue);
+                rangeAnimator = ValueAnimator.ofFloat(0F, 1F);
+                rangeAnimator.setDuration(RANGE_ANIMATION_DURATION);
+                rangeAnimator.addUpdateListener(new RangeAnimatorUpdateListener());
+                rangeAnimator.addListener(animatorCounter);
+            }
+            updateAutoRange();
+        } else if (autoRange != null) {
+            rangeAnimator.cancel();
+            if (minValue != autoRange.getMin() || maxValue != autoRange.getMax()) {
+                // 范围动画中途取消时,当前范围停在中间值而刻度值已是目标范围,直接跳到目标范围
+                applyValueRange(autoRange.getMin(), autoRange.getMax());
+            }
+            autoRange = null;
+        }
+    }
+
+    /**
+     * 获取当前数值范围的最大值
+     * 
+     * @return
+     * @author hubing
+     */
+    public float getMaxValue() {
+        return maxValue;
+    }
+
+    /**
+     * 获取当前数值范围的最小值
+     * 
+     * @return
+     * @author hubing
+     */
+    public float getMinValue() {
+        return minValue;
+    }
+
+    /**
+     * 根据可见数据的最小值和最大值更新自动范围,范围变化时启动坐标缩放动画。
+     * 实时滚动线条使用滑动窗口的统计,普通线条使用写入时的统计,缩放后使用金字塔查询视口内的范围
+     * 
+     * @author hubing
+     */
+    private void updateAutoRange() {
+        if (!isAutoRange) {
+            return;
+        }
+        float dataMin = Float.POSITIVE_INFINITY;
+        float dataMax = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.size == 0 || !line.visible) {
+                continue;
+            }
+            if (line.streaming) {
+                rangeBuffer[0] = line.window.min();
+                rangeBuffer[1] = line.window.max();
+            } else {
+                visibleRange(line, rangeBuffer);
+            }
+            dataMin = Math.min(dataMin, rangeBuffer[0]);
+            dataMax = Math.max(dataMax, rangeBuffer[1]);
+        }
+        if (dataMin > dataMax || !autoRange.update(dataMin, dataMax)) {
+            return;
+        }
+        // 从当前显示的范围过渡到新范围
+        rangeFromMin = minValue;
+        rangeFromMax = maxValue;
+        synchronized (lines) {
+            updateTickValues(autoRange.getMin(), autoRange.getMax());
+        }
+        rangeAnimator.cancel();
+        rangeAnimator.start();
+    }
+
+    /**
+     * 获取普通线条在视口内数据的最小值和最大值
+     * 
+     * @param line
+     * @param out 输出最小值和最大值
+     * @author hubing
+     */
+    private void visibleRange(Line line, float[] out) {
+        if (line.source != null || line.timestamps != null) {
+            // 外部数据序列和时间线条只有视口内的绘制点,按列保留了最小值和最大值,范围与数据一致
+            LineGeometry geometry = line.geometry;
+            out[0] = Float.POSITIVE_INFINITY;
+            out[1] = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < geometry.pointCount; i++) {
+                out[0] = Math.min(out[0], geometry.getValue(i));
+                out[1] = Math.max(out[1], geometry.getValue(i));
+            }
+            return;
+        }
+        int chartWidth = mWidth - paddingLeft - paddingRight;
+        if (isZoomed() && chartWidth > 0) {
+            int slotCount = Math.max(line.size, baseLineCount);
+            int from = Math.max(0, (int) Math.floor(viewportStart * (slotCount - 1)));
+            int to = Math.min(line.size - 1, (int) Math.ceil(viewportEnd * (slotCount - 1)));
+            if (to < from) {
+                out[0] = Float.POSITIVE_INFINITY;
+                out[1] = Float.NEGATIVE_INFINITY;
+                return;
+            }
+            if (line.pyramidValid) {
+                line.pyramid.rangeMinMax(line.values, from, to, out);
+                return;
+            }
+            if (to - from <= chartWidth * 2) {
+                // 视口内的数据不多于两倍像素宽度,直接扫描
+                out[0] = Float.POSITIVE_INFINITY;
+                out[1] = Float.NEGATIVE_INFINITY;
+                for (int i = from; i <= to; i++) {
+                    out[0] = Math.min(out[0], line.values[i]);
+                    out[1] = Math.max(out[1], line.values[i]);
+                }
+                return;
+            }
+        }
+        // 金字塔仍在后台构建时使用整条线条的范围
+        out[0] = line.dataMin;
+        out[1] = line.dataMax;
+    }
+
+    /**
+     * 设置当前显示的数值范围,按保存的数据值重新计算所有线条的y坐标
+     * 
+     * @param min
+     * @param max
+     * @author hubing
+     */
+    private void applyValueRange(float min, float max) {
+        synchronized (lines) {
+            minValue = min;
+            maxValue = max;
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = lines.get(i);
+                if (line.visible) {
+                    line.geometry.remapY(mRealChartHeight, minValue, maxValue);
+                } else {
+                    // 隐藏的线条重新显示时再计算
+                    line.geometryDirty = true;
+                }
+            }
+        }
+        invalidateChart();
+    }
+
+    /**
+     * 坐标缩放动画更新监听器
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-14]
+     */
+    class RangeAnimatorUpdateListener implements AnimatorUpdateListener {
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            if (autoRange == null) {
+                return;
+            }
+            float fraction = animation.getAnimatedFraction();
+            float min = rangeFromMin + (autoRange.getMin() - rangeFromMin) * fraction;
+            float max = rangeFromMax + (autoRange.getMax() - rangeFromMax) * fraction;
+            applyValueRange(min, max);
+        }
+
+    }
+
+    /**
+     * 设置数据抽稀模式,数据点多于图表像素宽度时按此模式抽取代表点绘制
+     * 
+     * @param decimationMode {@link #DECIMATION_NONE}, {@link #DECIMATION_LTTB}或{@link #DECIMATION_MIN_MAX}
+     * @author hubing
+     */
+    public void setDecimationMode(int decimationMode) {
+        if (decimationMode != DECIMATION_NONE && decimationMode != DECIMATION_LTTB && decimationMode != DECIMATION_MIN_MAX) {
+            throw new IllegalArgumentException("非法的参数,decimationMode为: " + decimationMode);
+        }
+        this.decimationMode = decimationMode;
+        for (int i = 0; i < lines.size(); i++) {
+            // 抽稀后的点发生变化,重新播放线条动画
+            requestLineUpdate(lines.get(i), true);
+        }
+    }
+
+    /**
+     * 设置保存状态时所有线条最多保存的数据个数,超出时较长的线条按列抽稀。
+     * 设置为0时不保存线条数据,恢复时只恢复视口和数值范围,线条由应用重新添加
+     * 
+     * @param savedValueLimit 不小于0,默认8192
+     * @author hubing
+     */
+    public void setSavedValueLimit(int savedValueLimit) {
+        if (savedValueLimit < 0) {
+            throw new IllegalArgumentException("非法的参数,savedValueLimit为: " + savedValueLimit);
+        }
+        this.savedValueLimit = savedValueLimit;
+    }
+
+    /**
+     * 设置坐标线条的颜色
+     * 
+     * @param coordinateColor
+     * @author hubing
+     */
+    public void setCoordinateColor(int coordinateColor) {
+        this.coordinateColor = coordinateColor;
+        invalidateBackground();
+    }
+
+    /**
+     * 设置左侧坐标参考圆点颜色
+     * 
+     * @param referCircleColor
+     * @author hubing
+     */
+    public void setReferCircleColor(int referCircleColor) {
+        this.referCircleColor = referCircleColor;
+        crosshairPaint.setColor(referCircleColor);
+        invalidateBackground();
+    }
+
+    /**
+     * 清除之前添加的所有线条
+     * 
+     * @author hubing
+     */
+    public void clearAllLines() {
+        synchronized (lines) {
+            lines.clear();
+            onLinesChanged();
+            selectedLine = -1;
+        }
+        restoredSelectedLine = -1;
+        isHidePointPending = true;
+        scheduleUpdate();
+    }
+
+    /**
+     * 获取图表中的线条数
+     * 
+     * @return
+     * @author hubing
+     */
+    public int getLineCount() {
+        return lines.size();
+    }
+
+    /**
+     * 移除指定线条
+     * 
+     * @param lineIndex 线条索引
+     * @author hubing
+     */
+    public void removeLine(int lineIndex) {
+        if (lineIndex < 0 || lineIndex >= lines.size()) {
+            throw new IllegalArgumentException("非法的参数,lineIndex为: " + lineIndex);
+        }
+        synchronized (lines) {
+            lines.remove(lineIndex);
+            onLinesChanged();
+            if (selectedLine == lineIndex) {
+                selectedLine = -1;
+                isHidePointPending = true;
+            } else if (selectedLine > lineIndex) {
+                selectedLine--;
+            }
+        }
+        restoredSelectedLine = -1;
+        scheduleUpdate();
+    }
+
+    /**
+     * 获取线条的标识,标识在线条添加时分配,移除其它线条后不变
+     * 
+     * @param lineIndex 线条索引
+     * @return
+     * @author hubing
+     */
+    public int getLineId(int lineIndex) {
+        return lines.get(lineIndex).id;
+    }
+
+    /**
+     * 根据标识查找线条索引
+     * 
+     * @param lineId 线条标识
+     * @return 线条索引,没有找到返回-1
+     * @author hubing
+     */
+    public int indexOfLine(int lineId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).id == lineId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 根据标识移除线条,其它线条的坐标不重新计算
+     * 
+     * @param lineId 线条标识
+     * @return 是否找到并移除
+     * @author hubing
+     */
+    public boolean removeLineById(int lineId) {
+        int lineIndex = indexOfLine(lineId);
+        if (lineIndex < 0) {
+            return false;
+        }
+        removeLine(lineIndex);
+        return true;
+    }
+
+    /**
+     * 设置线条是否显示。隐藏的线条不绘制、不参与触摸查找和自动范围,数据变化时也不计算坐标,重新显示时再计算
+     * 
+     * @param lineIndex 线条索引
+     * @param visible
+     * @author hubing
+     */
+    public void setLineVisible(int lineIndex, boolean visible) {
+        Line line = lines.get(lineIndex);
+        if (line.visible == visible) {
+            return;
+        }
+        synchronized (lines) {
+            line.visible = visible;
+            isLegendDirty = true;
+            if (!visible && selectedLine == lineIndex) {
+                selectedLine = -1;
+                isHidePointPending = true;
+            }
+        }
+        scheduleUpdate();
+    }
+
+    /**
+     * 获取线条是否显示
+     * 
+     * @param lineIndex 线条索引
+     * @return
+     * @author hubing
+     */
+    public boolean isLineVisible(int lineIndex) {
+        return lines.get(lineIndex).visible;
+    }
+
+    /**
+     * 设置线条的层级,层级大的线条画在上面,层级相同时后添加的画在上面,默认为0
+     * 
+     * @param lineIndex 线条索引
+     * @param zOrder 层级
+     * @author hubing
+     */
+    public void setLineZOrder(int lineIndex, int zOrder) {
+        Line line = lines.get(lineIndex);
+        synchronized (lines) {
+            line.zOrder = zOrder;
+            onLinesChanged();
+        }
+        invalidateChart();
+    }
+
+    /**
+     * 设置线条在图例中显示的名称,没有名称的线条不显示在图例中
+     * 
+     * @param lineIndex 线条索引
+     * @param name 名称
+     * @author hubing
+     */
+    public void setLineName(int lineIndex, String name) {
+        Line line = lines.get(lineIndex);
+        synchronized (lines) {
+            line.setName(name);
+            isLegendDirty = true;
+        }
+        invalidateChart();
+    }
+
+    /**
+     * 设置是否在图表顶部显示图例,图例按线条层级排列显示的线条颜色和名称
+     * 
+     * @param isLegendEnabled
+     * @author hubing
+     */
+    public void setLegendEnabled(boolean isLegendEnabled) {
+        this.isLegendEnabled = isLegendEnabled;
+        invalidateChart();
+    }
+
+    /**
+     * 线条增删或层级变化后标记绘制顺序和图例需要重建,在持有lines锁时调用
+     * 
+     * @author hubing
+     */
+    private void onLinesChanged() {
+        isDrawOrderDirty = true;
+        isLegendDirty = true;
+        updateTimeRange();
+    }
+
+    /**
+     * 设置指定线条的颜色,不需要重新计算坐标
+     * 
+     * @param lineIndex 线条索引
+     * @param lineColor 线条颜色
+     * @author hubing
+     */
+    public void setLineColor(int lineIndex, int lineColor) {
+        Line line = lines.get(lineIndex);
+        synchronized (lines) {
+            line.color = lineColor;
+            line.linePaint.setColor(lineColor);
+            line.curvePaint.setColor(lineColor);
+            line.pointPaint.setColor(lineColor);
+        }
+        scheduleUpdate();
+    }
+
+    /**
+     * 开始批量更新,直到对应的{@link #commitUpdate()}之前,添加、移除线条及修改颜色、数值范围等操作只记录下来,
+     * 提交后在下一帧统一计算一次坐标、启动一次动画。可以嵌套调用,最外层提交时才生效
+     * 
+     * @author hubing
+     */
+    public void beginUpdate() {
+        updateDepth++;
+    }
+
+    /**
+     * 提交批量更新,在下一帧应用{@link #beginUpdate()}之后的所有修改
+     * 
+     * @author hubing
+     */
+    public void commitUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("commitUpdate之前没有调用beginUpdate");
+        }
+        updateDepth--;
+        scheduleUpdate();
+    }
+
+    /**
+     * 标记线条需要重新计算坐标,并请求在下一帧应用
+     * 
+     * @param line
+     * @param animate 是否播放线条动画
+     * @author hubing
+     */
+    private void requestLineUpdate(Line line, boolean animate) {
+        line.geometryDirty = true;
+        if (animate) {
+            line.animatePending = true;
+        }
+        scheduleUpdate();
+    }
+
+    /**
+     * 标记所有线条需要重新计算坐标
+     * 
+     * @author hubing
+     */
+    private void markAllLinesDirty() {
+        for (int i = 0; i < lines.size(); i++) {
+            lines.get(i).geometryDirty = true;
+        }
+    }
+
+    /**
+     * 请求在下一帧应用待处理的更新,批量更新期间不请求,同一帧内只请求一次
+     * 
+     * @author hubing
+     */
+    private void scheduleUpdate() {
+        if (updateDepth > 0 || isUpdateScheduled) {
+            return;
+        }
+        isUpdateScheduled = true;
+        Choreographer.getInstance().postFrameCallback(updateFrameCallback);
+    }
+
+    /**
+     * 应用待处理的更新:重新计算有变化的线条坐标,更新自动范围,隐藏数据点值,启动一次线条动画或变形动画并重绘
+     * 
+     * @author hubing
+     */
+    private void applyPendingUpdates() {
+        boolean morphStarted = false;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.geometryDirty && line.visible) {
+                line.geometryDirty = false;
+                boolean morph = line.morphPending;
+                line.morphPending = false;
+                if (morph) {
+                    // 保存当前显示的绘制点作为变形起点
+                    line.saveMorphStart();
+                }
+                // 计算线条对应的坐标点位置
+                calculateLinePosition(line);
+                if (morph) {
+                    if (line.computing) {
+                        line.morphOnPublish = true;
+                    } else {
+                        morphStarted |= beginLineMorph(line, line.morphXs, line.morphYs, line.morphCount);
+                    }
+                }
+            }
+        }
+        if (morphStarted) {
+            startMorphAnimation();
+        }
+        updateAutoRange();
+        if (isHidePointPending) {
+            isHidePointPending = false;
+            hidePointValue();
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.animatePending) {
+                line.animatePending = false;
+                // 启动动画
+                requestLineAnimation(line);
+            }
+        }
+        // 重绘
+        invalidateChart();
+    }
+
+    /**
+     * 添加线条到图表上显示
+     * 
+     * @param linePoints
+     * @param lineColor
+     * @author hubing
+     */
+    public void addLinePoints(IPointValue[] linePoints, int lineColor) {
+        checkLinePoints(linePoints);
+        addLine(toValues(linePoints), 0, linePoints.length, lineColor);
+    }
+
+    /**
+     * 以原始float数组添加线条到图表上显示,避免为每个数据点创建IPointValue对象
+     * 
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param lineColor 线条颜色
+     * @return 线条在图表中的索引
+     * @author hubing
+     */
+    public int addLine(float[] values, int offset, int length, int lineColor) {
+        checkLineValues(values, offset, length, Integer.MAX_VALUE);
+        Line line = new Line(lineColor);
+        line.setValues(values, offset, length);
+        synchronized (lines) {
+            lines.add(line);
+            onLinesChanged();
+            if (metrics != null) {
+                metrics.recordIngest(length);
+            }
+        }
+        isHidePointPending = true;
+        // 在下一帧计算坐标并启动动画
+        requestLineUpdate(line, true);
+        return lines.size() - 1;
+    }
+
+    /**
+     * 添加按时间显示的线条,x坐标与时间戳成正比,采样不均匀时不会被拉伸,间隔超过{@link #setMaxTimeGap(long)}的地方不连线。
+     * 数据很多时应先用{@link com.iss.linechart.core.TimeBucketAggregator}按时间段聚合
+     * 
+     * @param timestamps 时间戳数组,与数据值一一对应,需要非递减
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param lineColor 线条颜色
+     * @return 线条在图表中的索引
+     * @author hubing
+     */
+    public int addLine(long[] timestamps, float[] values, int offset, int length, int lineColor) {
+        checkLineValues(values, offset, length, Integer.MAX_VALUE);
+        checkTimestamps(timestamps, offset, length);
+        Line line = new Line(lineColor);
+        synchronized (lines) {
+            line.setTimeValues(timestamps, values, offset, length);
+            lines.add(line);
+            onLinesChanged();
+            if (metrics != null) {
+                metrics.recordIngest(length);
+            }
+        }
+        isHidePointPending = true;
+        // 在下一帧计算坐标并启动动画
+        requestLineUpdate(line, true);
+        return lines.size() - 1;
+    }
+
+    /**
+     * 以带时间戳的数据点添加按时间显示的线条
+     * 
+     * @param linePoints 数据点数组,需要按时间先后排列
+     * @param lineColor 线条颜色
+     * @return 线条在图表中的索引
+     * @author hubing
+     */
+    public int addLinePoints(ITimePointValue[] linePoints, int lineColor) {
+        checkLinePoints(linePoints);
+        return addLine(toTimestamps(linePoints), toValues(linePoints), 0, linePoints.length, lineColor);
+    }
+
+    /**
+     * 以外部数据序列添加线条,如{@link com.iss.linechart.core.MappedSeriesFile}映射的数据文件。
+     * 数据不复制到堆上,每次计算坐标时只分段读取视口内的数据,数据点多于像素宽度时按列保留最小值和最大值
+     * 
+     * @param source 数据序列
+     * @param lineColor 线条颜色
+     * @return 线条在图表中的索引
+     * @author hubing
+     */
+    public int addLine(SeriesSource source, int lineColor) {
+        if (source == null || source.size() == 0) {
+            String msg = source == null ? "source为: null" : "source的size为: 0";
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+        Line line = new Line(lineColor);
+        line.source = source;
+        line.size = source.size();
+        synchronized (lines) {
+            lines.add(line);
+            onLinesChanged();
+        }
+        isHidePointPending = true;
+        // 在下一帧计算坐标并启动动画
+        requestLineUpdate(line, true);
+        return lines.size() - 1;
+    }
+
+    /**
+     * 通知指定线条的外部数据序列有新追加的数据,如{@link com.iss.linechart.core.CompressedSeries}保存的历史数据。
+     * 数据个数没有变化时不做任何处理;同一帧内多次通知只在下一帧读取一次视口内的数据,其它帧直接绘制已有的坐标
+     *
+     * @param lineIndex 线条索引
+     * @author hubing
+     */
+    public void notifySourceChanged(int lineIndex) {
+        Line line = lines.get(lineIndex);
+        if (line.source == null) {
+            throw new IllegalArgumentException("非法的参数,线条" + lineIndex + "不是外部数据序列");
+        }
+        int size = line.source.size();
+        if (size == line.size) {
+            return;
+        }
+        synchronized (lines) {
+            line.size = size;
+        }
+        requestLineUpdate(line, false);
+    }
+
+    /**
+     * 更新指定线条的数据值,复用线条已有的数组
+     * 
+     * @param lineIndex 线条索引
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @author hubing
+     */
+    public void setLineValues(int lineIndex, float[] values, int offset, int length) {
+        Line line = updateLineValues(lineIndex, values, offset, length);
+        // 在下一帧计算坐标并启动动画
+        requestLineUpdate(line, true);
+    }
+
+    /**
+     * 更新指定线条的数据值,不重新播放从左到右的绘制动画。
+     * 开启动画时每个点从旧线条上的位置平滑移动到新位置,同一帧内更新的所有线条共用一个变形动画
+     * 
+     * @param lineIndex 线条索引
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param animate 是否播放变形动画,false表示直接显示新数据
+     * @author hubing
+     */
+    public void setLineValues(int lineIndex, float[] values, int offset, int length, boolean animate) {
+        Line line = updateLineValues(lineIndex, values, offset, length);
+        if (animate) {
+            line.morphPending = true;
+        }
+        requestLineUpdate(line, false);
+    }
+
+    /**
+     * 更新指定线条的数据值,不重新播放从左到右的绘制动画
+     * 
+     * @param lineIndex 线条索引
+     * @param linePoints 数据点数组
+     * @param animate 是否播放变形动画,false表示直接显示新数据
+     * @author hubing
+     */
+    public void setLineValues(int lineIndex, IPointValue[] linePoints, boolean animate) {
+        checkLinePoints(linePoints);
+        setLineValues(lineIndex, toValues(linePoints), 0, linePoints.length, animate);
+    }
+
+    /**
+     * 更新指定线条的时间戳和数据值,线条改为按时间显示。常用于刷新{@link com.iss.linechart.core.TimeBucketAggregator}的聚合结果
+     * 
+     * @param lineIndex 线条索引
+     * @param timestamps 时间戳数组,与数据值一一对应,需要非递减
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @param animate 是否播放变形动画,false表示直接显示新数据
+     * @author hubing
+     */
+    public void setLineValues(int lineIndex, long[] timestamps, float[] values, int offset, int length, boolean animate) {
+        Line line = lines.get(lineIndex);
+        if (line.streaming) {
+            throw new IllegalArgumentException("非法的参数,线条" + lineIndex + "是实时滚动线条");
+        }
+        checkLineValues(values, offset, length, Integer.MAX_VALUE);
+        checkTimestamps(timestamps, offset, length);
+        synchronized (lines) {
+            line.setTimeValues(timestamps, values, offset, length);
+            updateTimeRange();
+            if (metrics != null) {
+                metrics.recordIngest(length);
+            }
+        }
+        isHidePointPending = true;
+        if (animate) {
+            line.morphPending = true;
+        }
+        requestLineUpdate(line, false);
+    }
+
+    /**
+     * 检查并写入线条的数据值
+     * 
+     * @param lineIndex 线条索引
+     * @param values 数据值数组
+     * @param offset 数据在数组中的起始位置
+     * @param length 数据个数
+     * @return 更新的线条
+     * @author hubing
+     */
+    private Line updateLineValues(int lineIndex, float[] values, int offset, int length) {
+        Line line = lines.get(lineIndex);
+        checkLineValues(values, offset, length, line.streaming ? line.values.length : Integer.MAX_VALUE);
+        synchronized (lines) {
+            boolean timed = line.timestamps != null;
+            line.setValues(values, offset, length);
+            if (timed) {
+                // 改为按索引显示,时间范围可能变化
+                updateTimeRange();
+            }
+            if (metrics != null) {
+                metrics.recordIngest(length);
+            }
+        }
+        isHidePointPending = true;
+        return line;
+    }
+
+    /**
+     * 更新指定线条的数据值
+     * 
+     * @param lineIndex 线条索引
+     * @param linePoints 数据点数组
+     * @author hubing
+     */
+    public void setLineValues(int lineIndex, IPointValue[] linePoints) {
+        checkLinePoints(linePoints);
+        setLineValues(lineIndex, toValues(linePoints), 0, linePoints.length);
+    }
+
+    /**
+     * 添加实时滚动的线条,数据通过{@link #appendValue(int, float)}追加
+     * 
+     * @param capacity 线条最多显示的数据个数,超出后最早的数据滚出图表
+     * @param lineColor 线条颜色
+     * @return 线条在图表中的索引
+     * @author hubing
+     */
+    public int addStreamLine(int capacity, int lineColor) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("非法的参数,capacity为: " + capacity);
+        }
+        Line line = new Line(lineColor);
+        line.streaming = true;
+        line.values = new float[capacity];
+        line.window = new SlidingMinMax(capacity);
+        synchronized (lines) {
+            lines.add(line);
+            onLinesChanged();
+        }
+        // 在下一帧计算坐标
+        requestLineUpdate(line, false);
+        return lines.size() - 1;
+    }
+
+    /**
+     * 向实时滚动的线条追加一个数据值,线条已满时整体向左滚动一格
+     * 
+     * @param lineIndex 线条索引
+     * @param value 数据值
+     * @author hubing
+     */
+    public void appendValue(int lineIndex, float value) {
+        Line line = lines.get(lineIndex);
+        if (!line.streaming) {
+            throw new IllegalStateException("线条" + lineIndex + "不是实时滚动线条");
+        }
+        appendLineValue(line, value, 1);
+        updateAutoRange();
+        invalidateChart();
+    }
+
+    /**
+     * 向实时滚动线条追加一个数据值并增量更新坐标
+     * 
+     * @param line
+     * @param value 数据值
+     * @param ingested 计入性能统计的数据个数,合并的数据按合并前的个数统计
+     * @author hubing
+     */
+    private void appendLineValue(Line line, float value, int ingested) {
+        synchronized (lines) {
+            line.append(value);
+            if (metrics != null) {
+                metrics.recordIngest(ingested);
+            }
+            if (mWidth > 0 && !line.geometryDirty) {
+                // 只计算新增数据点的y坐标,已有点整体前移一格
+                line.geometry.appendPoint(value, valueToY(value), line.values.length);
+            }
+        }
+    }
+
+    /**
+     * 为实时滚动线条绑定数据队列。其它线程只需向返回的队列写入数据,不阻塞也不需要切换到主线程;
+     * 主线程每帧把积压的数据按策略合并为一个值追加到线条,每帧每条线条最多追加一个点、重绘一次。
+     * 队列只允许一个生产者线程写入
+     * 
+     * @param lineIndex 线条索引
+     * @param policy 合并策略,{@link #SAMPLE_LATEST}、{@link #SAMPLE_MAX}或{@link #SAMPLE_AVERAGE}
+     * @param capacity 队列容量,应大于一帧间隔内产生的数据个数,超出时丢弃新数据,
+     *            {@link #SAMPLE_LATEST}仍取到最新的数据,{@link #SAMPLE_MAX}和{@link #SAMPLE_AVERAGE}不统计被丢弃的数据
+     * @return 绑定的队列
+     * @author hubing
+     */
+    public SampleQueue bindLine(int lineIndex, int policy, int capacity) {
+        Line line = lines.get(lineIndex);
+        if (!line.streaming) {
+            throw new IllegalStateException("线条" + lineIndex + "不是实时滚动线条");
+        }
+        SampleQueue.checkPolicy(policy);
+        SampleQueue queue = new SampleQueue(capacity);
+        line.sampleQueue = queue;
+        line.samplePolicy = policy;
+        postSampleFrame();
+        return queue;
+    }
+
+    /**
+     * 解除线条的数据队列绑定,队列中未取出的数据被丢弃
+     * 
+     * @param lineIndex 线条索引
+     * @author hubing
+     */
+    public void unbindLine(int lineIndex) {
+        lines.get(lineIndex).sampleQueue = null;
+    }
+
+    /**
+     * 请求在下一帧取出绑定队列中的数据,控件未显示时不请求
+     * 
+     * @author hubing
+     */
+    private void postSampleFrame() {
+        if (!isAttached || isSamplePosted) {
+            return;
+        }
+        isSamplePosted = true;
+        Choreographer.getInstance().postFrameCallback(sampleFrameCallback);
+    }
+
+    /**
+     * 取出所有绑定队列中的数据,每条线条合并为一个值追加,有新数据时更新一次自动范围并重绘
+     * 
+     * @return 是否还有绑定队列的线条
+     * @author hubing
+     */
+    private boolean drainBoundLines() {
+        boolean bound = false;
+        boolean appended = false;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.sampleQueue == null) {
+                continue;
+            }
+            bound = true;
+            int count = line.sampleQueue.drain(line.samplePolicy, sampleBuffer, 0);
+            if (count > 0) {
+                appendLineValue(line, sampleBuffer[0], count);
+                appended = true;
+            }
+        }
+        if (appended) {
+            updateAutoRange();
+            invalidateChart();
+        }
+        return bound;
+    }
+
+    /**
+     * 检查数据点数组是否合法
+     * 
+     * @param linePoints
+     * @author hubing
+     */
+    private void checkLinePoints(IPointValue[] linePoints) {
+        if (linePoints == null || linePoints.length == 0) {
+            String msg = linePoints == null ? "linePoints为: null" : "linePoints的size为: " + linePoints.length;
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+    }
+
+    /**
+     * 检查数据值数组是否合法
+     * 
+     * @param values
+     * @param offset
+     * @param length
+     * @param maxLength 允许的最大数据个数
+     * @author hubing
+     */
+    private void checkLineValues(float[] values, int offset, int length, int maxLength) {
+        if (values == null || length <= 0 || length > maxLength || offset < 0 || offset + length > values.length) {
+            String msg = values == null ? "values为: null" : "offset为: " + offset + ", length为: " + length;
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+    }
+
+    /**
+     * 检查时间戳数组是否合法,时间戳需要非递减
+     * 
+     * @param timestamps
+     * @param offset
+     * @param length
+     * @author hubing
+     */
+    private void checkTimestamps(long[] timestamps, int offset, int length) {
+        if (timestamps == null || offset + length > timestamps.length) {
+            String msg = timestamps == null ? "timestamps为: null" : "timestamps的size为: " + timestamps.length;
+            throw new IllegalArgumentException("非法的参数," + msg);
+        }
+        for (int i = offset + 1; i < offset + length; i++) {
+            if (timestamps[i] < timestamps[i - 1]) {
+                throw new IllegalArgumentException("非法的参数,时间戳不是非递减的,timestamps[" + i + "]为: " + timestamps[i]);
+            }
+        }
+    }
+
+    /**
+     * 将数据点数组转换为时间戳数组
+     * 
+     * @param linePoints
+     * @return
+     * @author hubing
+     */
+    private static long[] toTimestamps(ITimePointValue[] linePoints) {
+        long[] timestamps = new long[linePoints.length];
+        for (int i = 0; i < linePoints.length; i++) {
+            timestamps[i] = linePoints[i].getTimestamp();
+        }
+        return timestamps;
+    }
+
+    /**
+     * 将数据点数组转换为数据值数组
+     * 
+     * @param linePoints
+     * @return
+     * @author hubing
+     */
+    private static float[] toValues(IPointValue[] linePoints) {
+        float[] values = new float[linePoints.length];
+        for (int i = 0; i < linePoints.length; i++) {
+            values[i] = linePoints[i].getValue();
+        }
+        return values;
+    }
+
+    /**
+     * 计算线条对应的坐标点位置。数据个数较多的线条在后台线程计算到备用几何数据中,
+     * 计算完成后在主线程与当前几何数据交换,计算期间继续绘制之前的结果
+     * 
+     * @param line
+     * @author hubing
+     */
+    private void calculateLinePosition(Line line) {
+        if (mWidth == 0) {
+            // 未测量出尺寸时不计算,onLayout时再计算
+            return;
+        }
+        int chartWidth = mWidth - paddingLeft - paddingRight;
+        if (line.streaming) {
+            synchronized (lines) {
+                long startNanos = metrics != null ? System.nanoTime() : 0;
+                line.geometry.computeStream(line.values, line.start, line.size, paddingLeft, chartWidth, mRealChartHeight, minValue, maxValue);
+                if (metrics != null) {
+                    metrics.recordGeometry(System.nanoTime() - startNanos);
+                }
+            }
+            return;
+        }
+        if (line.computing) {
+            // 后台线程正在计算,完成后再按最新的数据和参数重新计算
+            line.pendingRecompute = true;
+            return;
+        }
+        if (line.source != null) {
+            calculateSourcePosition(line, chartWidth);
+            return;
+        }
+        if (line.timestamps != null) {
+            calculateTimePosition(line, chartWidth);
+            return;
+        }
+        // 数据点多于两倍像素宽度时需要金字塔,缩放后按像素宽度选取绘制的点
+        boolean needPyramid = line.size > chartWidth * 2;
+        boolean zoomed = isZoomed();
+        // 金字塔已就绪时缩放和平移的计算成本只与宽度有关,直接在主线程计算
+        if (line.size <= SYNC_GEOMETRY_LIMIT || zoomed && (line.pyramidValid || !needPyramid)) {
+            synchronized (lines) {
+                long startNanos = metrics != null ? System.nanoTime() : 0;
+                if (needPyramid && !line.pyramidValid) {
+                    if (line.pyramid == null) {
+                        line.pyramid = new MinMaxPyramid();
+                    }
+                    line.pyramid.build(line.values, line.size);
+                    line.pyramidValid = true;
+                }
+                line.geometry.computeViewport(line.values, line.size, needPyramid ? line.pyramid : null, decimationMode, viewportStart, viewportEnd,
+                        baseLineCount, paddingLeft, chartWidth, mRealChartHeight, minValue, maxValue);
+                if (metrics != null) {
+                    metrics.recordGeometry(System.nanoTime() - startNanos);
+                }
+            }
+            return;
+        }
+        if (line.backGeometry == null) {
+            line.backGeometry = new LineGeometry();
+        }
+        MinMaxPyramid pyramid = null;
+        if (needPyramid) {
+            // 金字塔已就绪时沿用,否则在后台线程构建到备用金字塔中
+            if (line.pyramidValid) {
+                pyramid = line.pyramid;
+            } else {
+                if (line.backPyramid == null) {
+                    line.backPyramid = new MinMaxPyramid();
+                }
+                pyramid = line.backPyramid;
+            }
+        }
+        line.computing = true;
+        GEOMETRY_EXECUTOR.execute(new GeometryTask(line, pyramid, decimationMode, viewportStart, viewportEnd, baseLineCount, paddingLeft, chartWidth,
+                mRealChartHeight, minValue, maxValue));
+    }
+
+    /**
+     * 计算外部数据序列线条的坐标点位置,视口内的数据较少时在主线程读取,否则在后台线程读取
+     * 
+     * @param line
+     * @param chartWidth 图表宽度
+     * @author hubing
+     */
+    private void calculateSourcePosition(Line line, int chartWidth) {
+        int slotCount = Math.max(line.size, baseLineCount);
+        double visibleCount = (viewportEnd - viewportStart) * (slotCount - 1) + 2;
+        if (visibleCount <= SYNC_GEOMETRY_LIMIT) {
+            synchronized (lines) {
+                long startNanos = metrics != null ? System.nanoTime() : 0;
+                line.geometry.computeSource(line.source, viewportStart, viewportEnd, baseLineCount, paddingLeft, chartWidth, mRealChartHeight,
+                        minValue, maxValue);
+                if (metrics != null) {
+                    metrics.recordGeometry(System.nanoTime() - startNanos);
+                }
+            }
+            return;
+        }
+        if (line.backGeometry == null) {
+            line.backGeometry = new LineGeometry();
+        }
+        line.computing = true;
+        GEOMETRY_EXECUTOR.execute(new GeometryTask(line, null, decimationMode, viewportStart, viewportEnd, baseLineCount, paddingLeft, chartWidth,
+                mRealChartHeight, minValue, maxValue));
+    }
+
+    /**
+     * 计算按时间显示的线条的坐标点位置,二分查找视口内的数据,视口内的数据较少时在主线程计算,否则在后台线程计算
+     * 
+     * @param line
+     * @param chartWidth 图表宽度
+     * @author hubing
+     */
+    private void calculateTimePosition(Line line, int chartWidth) {
+        double span = (double) timeEnd - timeStart;
+        double startTime = timeStart + viewportStart * span;
+        double endTime = timeStart + viewportEnd * span;
+        int from = LineGeometry.lowerBound(line.timestamps, line.size, startTime);
+        int to = LineGeometry.lowerBound(line.timestamps, line.size, endTime);
+        // 包括视口两侧各一个点
+        int visibleCount = to - from + 2;
+        if (visibleCount <= SYNC_GEOMETRY_LIMIT) {
+            synchronized (lines) {
+                long startNanos = metrics != null ? System.nanoTime() : 0;
+                line.geometry.computeTime(line.values, line.timestamps, line.size, startTime, endTime, maxTimeGap, paddingLeft, chartWidth,
+                        mRealChartHeight, minValue, maxValue);
+                if (metrics != null) {
+                    metrics.recordGeometry(System.nanoTime() - startNanos);
+                }
+            }
+            return;
+        }
+        if (line.backGeometry == null) {
+            line.backGeometry = new LineGeometry();
+        }
+        line.computing = true;
+        GEOMETRY_EXECUTOR.execute(new GeometryTask(line, null, decimationMode, viewportStart, viewportEnd, baseLineCount, paddingLeft, chartWidth,
+                mRealChartHeight, minValue, maxValue));
+    }
+
+    /**
+     * 发布后台线程计算好的几何数据,在主线程调用
+     * 
+     * @param task 完成的计算任务
+     * @param computeNanos 后台计算耗时
+     * @author hubing
+     */
+    private void publishGeometry(GeometryTask task, long computeNanos) {
+        Line line = task.line;
+        line.computing = false;
+        if (!lines.contains(line)) {
+            // 线条已被移除
+            return;
+        }
+        if (line.pendingRecompute) {
+            // 计算期间数据或参数发生了变化,丢弃结果重新计算
+            line.pendingRecompute = false;
+            if (line.morphOnPublish) {
+                // 重新计算可能在主线程直接写入当前几何数据,先保存当前显示的绘制点作为变形起点
+                line.saveMorphStart();
+            }
+            calculateLinePosition(line);
+            if (!line.computing) {
+                // 同步计算完成后不会再发布,等待发布的动画在这里启动
+                onGeometryReady(line, line.morphXs, line.morphYs, line.morphCount);
+            }
+            return;
+        }
+        synchronized (lines) {
+            LineGeometry geometry = line.geometry;
+            line.geometry = line.backGeometry;
+            line.backGeometry = geometry;
+            if (task.buildPyramid) {
+                MinMaxPyramid oldPyramid = line.pyramid;
+                line.pyramid = line.backPyramid;
+                line.backPyramid = oldPyramid;
+                line.pyramidValid = true;
+            }
+            if (task.minValue != minValue || task.maxValue != maxValue) {
+                // 计算期间坐标范围发生了变化
+                line.geometry.remapY(mRealChartHeight, minValue, maxValue);
+            }
+            if (metrics != null) {
+                metrics.recordGeometry(computeNanos);
+            }
+        }
+        // 交换后的备用几何数据即为之前显示的线条
+        LineGeometry previous = line.backGeometry;
+        onGeometryReady(line, previous.xs, previous.ys, previous.pointCount);
+    }
+
+    /**
+     * 线条的新几何数据就绪后启动等待发布的绘制动画或变形动画,更新自动范围并重绘
+     * 
+     * @param line
+     * @param fromXs 变形起点的x坐标
+     * @param fromYs 变形起点的y坐标
+     * @param fromCount 变形起点的个数
+     * @author hubing
+     */
+    private void onGeometryReady(Line line, float[] fromXs, float[] fromYs, int fromCount) {
+        if (line.source != null || line.timestamps != null) {
+            // 外部数据序列和时间线条的可见范围在计算后才知道
+            updateAutoRange();
+        }
+        if (line.animateOnPublish) {
+            line.animateOnPublish = false;
+            isStartAnimotion = true;
+        }
+        if (line.morphOnPublish) {
+            line.morphOnPublish = false;
+            if (beginLineMorph(line, fromXs, fromYs, fromCount)) {
+                startMorphAnimation();
+            }
+        }
+        restoreSelection();
+        invalidateChart();
+    }
+
+    /**
+     * 请求播放线条动画,线条坐标仍在后台计算时等计算完成后再播放
+     * 
+     * @param line
+     * @author hubing
+     */
+    private void requestLineAnimation(Line line) {
+        if (line.computing) {
+            line.animateOnPublish = true;
+        } else {
+            isStartAnimotion = true;
+        }
+    }
+
+    /**
+     * 开始线条从旧绘制点到当前绘制点的变形
+     * 
+     * @param line
+     * @param fromXs 旧绘制点x坐标数组
+     * @param fromYs 旧绘制点y坐标数组
+     * @param fromCount 旧绘制点数
+     * @return 是否开始变形
+     * @author hubing
+     */
+    private boolean beginLineMorph(Line line, float[] fromXs, float[] fromYs, int fromCount) {
+        synchronized (lines) {
+            line.geometry.beginMorph(fromXs, fromYs, fromCount);
+            return line.geometry.isMorphing();
+        }
+    }
+
+    /**
+     * 从头播放变形动画,仍在变形中的线条以当前位置作为新起点,画面保持连续
+     * 
+     * @author hubing
+     */
+    private void startMorphAnimation() {
+        synchronized (lines) {
+            for (int i = 0; i < lines.size(); i++) {
+                lines.get(i).geometry.rebaseMorph();
+            }
+        }
+        morphAnimator.cancel();
+        morphAnimator.start();
+    }
+
+    /**
+     * 将数据值转换为图表上的y坐标
+     * 
+     * @param value 数据值
+     * @return
+     * @author hubing
+     */
+    private float valueToY(float value) {
+        return LineGeometry.valueToY(value, mRealChartHeight, minValue, maxValue);
+    }
+
+    /**
+     * 在后台线程计算线条几何数据的任务,计算所需参数在创建时保存,计算结果写入线条的备用几何数据。
+     * 使用线条的备用金字塔时先构建金字塔
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-3-27]
+     */
+    class GeometryTask implements Runnable {
+
+        private final Line line;
+
+        private final float[] values;
+
+        private final int size;
+
+        private final SeriesSource source;
+
+        /** 时间戳数组,不为null时按时间计算 */
+        private final long[] timestamps;
+
+        /** 时间线条视口的起始时间 */
+        private final double startTime;
+
+        /** 时间线条视口的结束时间 */
+        private final double endTime;
+
+        private final long maxTimeGap;
+
+        private final MinMaxPyramid pyramid;
+
+        private final boolean buildPyramid;
+
+        private final int decimationMode;
+
+        private final double viewportStart;
+
+        private final double viewportEnd;
+
+        private final int minSlotCount;
+
+        private final float left;
+
+        private final float width;
+
+        private final float height;
+
+        private final float minValue;
+
+        private final float maxValue;
+
+        public GeometryTask(Line line, MinMaxPyramid pyramid, int decimationMode, double viewportStart, double viewportEnd, int minSlotCount,
+                float left, float width, float height, float minValue, float maxValue) {
+            this.line = line;
+            // 计算期间线条数据更新时会使用新的数组,这里保存的数组不会被修改
+            this.values = line.values;
+            this.size = line.size;
+            this.source = line.source;
+            this.timestamps = line.timestamps;
+            double span = (double) timeEnd - timeStart;
+            this.startTime = timeStart + viewportStart * span;
+            this.endTime = timeStart + viewportEnd * span;
+            this.maxTimeGap = LineChartView.this.maxTimeGap;
+            this.pyramid = pyramid;
+            this.buildPyramid = pyramid != null && pyramid == line.backPyramid;
+            this.decimationMode = decimationMode;
+            this.viewportStart = viewportStart;
+            this.viewportEnd = viewportEnd;
+            this.minSlotCount = minSlotCount;
+            this.left = left;
+            this.width = width;
+            this.height = height;
+            this.minValue = minValue;
+            this.maxValue = maxValue;
+        }
+
+        @Override
+        public void run() {
+            long startNanos = System.nanoTime();
+            if (source != null) {
+                line.backGeometry.computeSource(source, viewportStart, viewportEnd, minSlotCount, left, width, height, minValue, maxValue);
+            } else if (timestamps != null) {
+                line.backGeometry.computeTime(values, timestamps, size, startTime, endTime, maxTimeGap, left, width, height, minValue, maxValue);
+            } else {
+                if (buildPyramid) {
+                    pyramid.build(values, size);
+                }
+                line.backGeometry.computeViewport(values, size, pyramid, decimationMode, viewportStart, viewportEnd, minSlotCount, left, width,
+                        height, minValue, maxValue);
+            }
+            final long computeNanos = System.nanoTime() - startNanos;
+            MAIN_HANDLER.post(new Runnable() {
+
+                @Override
+                public void run() {
+                    publishGeometry(GeometryTask.this, computeNanos);
+                }
+
+            });
+        }
+
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return true;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (isZoomEnabled) {
+            return onZoomTouchEvent(event);
+        }
+        if (isScrubEnabled) {
+            return onScrubTouchEvent(event);
+        }
+        // 判断触摸区域，看看是否触摸在了图表上的点上
+        int action = event.getAction();
+        if (action == MotionEvent.ACTION_DOWN) {
+            float touchRange = circleRadius * 3;
+            if (findNearestPoint(event.getX(), event.getY(), touchRange, touchRange)) {
+                // 点在了点上，显示该点的数据
+                showPointValue(true);
+                return true;
+            }
+            // 点击其他区域，隐藏显示点数据
+            hidePointValue();
+        } else if (action == MotionEvent.ACTION_UP) {
+            if (isClickable()) {
+                return performClick();
+            }
+        }
+        return super.onTouchEvent(event);
+    }
+
+    /**
+     * 处理缩放和平移模式下的触摸事件
+     * 
+     * @param event
+     * @return
+     * @author hubing
+     */
+    private boolean onZoomTouchEvent(MotionEvent event) {
+        if (event.getAction() == MotionEvent.ACTION_DOWN && getParent() != null) {
+            // 缩放和平移过程中不让父控件拦截事件
+            getParent().requestDisallowInterceptTouchEvent(true);
+        }
+        scaleDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+        return true;
+    }
+
+    /**
+     * 开始惯性滚动
+     * 
+     * @param velocityX 横向滑动速度
+     * @author hubing
+     */
+    private void startFling(float velocityX) {
+        double width = viewportEnd - viewportStart;
+        // 按当前缩放比例把整个横向范围换算为像素,在像素空间中滚动
+        flingContentWidth = (mWidth - paddingLeft - paddingRight) / width;
+        int startX = (int) Math.round(viewportStart * flingContentWidth);
+        int maxX = (int) Math.round((1 - width) * flingContentWidth);
+        scroller.forceFinished(true);
+        scroller.fling(startX, 0, (int) -velocityX, 0, 0, maxX, 0, 0);
+        postOnAnimation(flingRunnable);
+    }
+
+    /** 每帧根据惯性滚动的位置更新视口 */
+    private final Runnable flingRunnable = new Runnable() {
+
+        @Override
+        public void run() {
+            if (scroller.computeScrollOffset()) {
+                double start = scroller.getCurrX() / flingContentWidth;
+                applyViewport(start, start + viewportEnd - viewportStart);
+                if (!scroller.isFinished()) {
+                    postOnAnimation(this);
+                }
+            }
+        }
+
+    };
+
+    /**
+     * 双指缩放监听器,以两指中心为焦点缩放视口
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-12]
+     */
+    class ZoomListener extends ScaleGestureDetector.SimpleOnScaleGestureListener {
+
+        @Override
+        public boolean onScaleBegin(ScaleGestureDetector detector) {
+            scroller.forceFinished(true);
+            hidePointValue();
+            return true;
+        }
+
+        @Override
+        public boolean onScale(ScaleGestureDetector detector) {
+            int chartWidth = mWidth - paddingLeft - paddingRight;
+            if (chartWidth <= 0) {
+                return false;
+            }
+            double width = viewportEnd - viewportStart;
+            double newWidth = width / detector.getScaleFactor();
+            newWidth = Math.max(Math.min(newWidth, 1), minViewportWidth());
+            // 保持焦点下的数据位置不变
+            double focus = viewportStart + (detector.getFocusX() - paddingLeft) / chartWidth * width;
+            double start = focus - (focus - viewportStart) * newWidth / width;
+            applyViewport(start, start + newWidth);
+            return true;
+        }
+
+    }
+
+    /**
+     * 平移监听器,处理单指拖动、快速滑动和点击
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-12]
+     */
+    class PanListener extends GestureDetector.SimpleOnGestureListener {
+
+        @Override
+        public boolean onDown(MotionEvent e) {
+            scroller.forceFinished(true);
+            isPanning = false;
+            return true;
+        }
+
+        @Override
+        public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+            int chartWidth = mWidth - paddingLeft - paddingRight;
+            if (scaleDetector.isInProgress() || chartWidth <= 0) {
+                return false;
+            }
+            if (!isPanning) {
+                isPanning = true;
+                hidePointValue();
+            }
+            double delta = distanceX / chartWidth * (viewportEnd - viewportStart);
+            applyViewport(viewportStart + delta, viewportEnd + delta);
+            return true;
+        }
+
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            if (scaleDetector.isInProgress() || !isZoomed()) {
+                return false;
+            }
+            startFling(velocityX);
+            return true;
+        }
+
+        @Override
+        public boolean onSingleTapUp(MotionEvent e) {
+            float touchRange = circleRadius * 3;
+            if (findNearestPoint(e.getX(), e.getY(), touchRange, touchRange)) {
+                showPointValue(true);
+            } else {
+                hidePointValue();
+            }
+            return true;
+        }
+
+    }
+
+    /**
+     * 处理拖动查看数据模式下的触摸事件,每次事件只做二分查找,不创建对象
+     * 
+     * @param event
+     * @return
+     * @author hubing
+     */
+    private boolean onScrubTouchEvent(MotionEvent event) {
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                if (getParent() != null) {
+                    // 拖动过程中不让父控件拦截事件
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                synchronized (lines) {
+                    isScrubbing = true;
+                }
+                if (findNearestPoint(event.getX(), event.getY(), Float.MAX_VALUE, Float.MAX_VALUE)) {
+                    showPointValue(true);
+                }
+                invalidateChart();
+                return true;
+            case MotionEvent.ACTION_MOVE:
+                if (findNearestPoint(event.getX(), event.getY(), Float.MAX_VALUE, Float.MAX_VALUE)) {
+                    showPointValue(false);
+                }
+                invalidateChart();
+                return true;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                synchronized (lines) {
+                    isScrubbing = false;
+                    selectedLine = -1;
+                }
+                hidePointValue();
+                invalidateChart();
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 查找离触摸点最近的数据点,结果保存在selectedLine和selectedPoint中。
+     * 每条线条按x坐标二分查找,再在所有线条中选出y方向最近的点
+     * 
+     * @param x 触摸点x坐标
+     * @param y 触摸点y坐标
+     * @param rangeX x方向允许的最大距离
+     * @param rangeY y方向允许的最大距离
+     * @return 是否找到
+     * @author hubing
+     */
+    private boolean findNearestPoint(float x, float y, float rangeX, float rangeY) {
+        int foundLine = -1;
+        int foundPoint = -1;
+        float minDistance = Float.MAX_VALUE;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (!line.visible) {
+                continue;
+            }
+            LineGeometry geometry = line.geometry;
+            int index = geometry.hitTest(x, y, rangeX, rangeY);
+            if (index < 0) {
+                continue;
+            }
+            float distance = Math.abs(geometry.getY(index) - y);
+            if (distance < minDistance) {
+                minDistance = distance;
+                foundLine = i;
+                foundPoint = index;
+            }
+        }
+        if (foundLine < 0) {
+            return false;
+        }
+        synchronized (lines) {
+            selectedLine = foundLine;
+            selectedPoint = foundPoint;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        super.onLayout(changed, left, top, right, bottom);
+
+        if (mHeight == getMeasuredHeight() && mWidth == getMeasuredWidth()) {
+            // 尺寸没有变化(如子控件引起的布局),无需重新计算坐标
+            return;
+        }
+        synchronized (lines) {
+            // 尺寸变化,静态背景需要重新绘制
+            isBackgroundDirty = true;
+            mHeight = getMeasuredHeight();
+            mWidth = getMeasuredWidth();
+
+            // 计算图表显示高度
+            mRealChartHeight = mHeight - circleRadius * 2;
+            // 高度变化后之前的渐变不再使用
+            fillShaders.clear();
+            isLegendDirty = true;
+
+            paddingLeft = (int) (mWidth * 0.1);
+            paddingRight = paddingLeft;
+
+            // 计算坐标背景线位置
+            calculateVerticalLines();
+
+            // 计算垂直坐标点坐标
+            calculateVerticalCircles();
+        }
+
+        // 计算线条的位置(解决在View未测量出高度之前添加的线条无法显示的问题)
+        for (int i = 0; i < lines.size(); i++) {
+            // 计算线条对应的坐标点位置
+            Line line = lines.get(i);
+            if (!line.visible) {
+                line.geometryDirty = true;
+                continue;
+            }
+            line.geometryDirty = false;
+            calculateLinePosition(line);
+        }
+        restoreSelection();
+
+    }
+
+    /**
+     * 计算坐标背景线位置
+     * 
+     * @author hubing
+     */
+    private void calculateVerticalLines() {
+        ChartGrid.verticalLines(verticalLines, baseLineCount, paddingLeft, mWidth - paddingRight, mHeight);
+    }
+
+    /**
+     * 计算左边垂直坐标点坐标,按刻度值换算y坐标,与线条的数据点使用同一映射
+     * 
+     * @author hubing
+     */
+    private void calculateVerticalCircles() {
+        ChartGrid.verticalCircles(verticalCircles, tickValues, verticalCircleCount, paddingLeft, mRealChartHeight,
+                tickValues[verticalCircleCount - 1], tickValues[0]);
+    }
 
     @Override
-    public boolean onTouchEvent(MotionEvent event) {
-        // 判断触摸区域，看看是否触摸在了图表上的点上
-        int action = event.getAction();
-        if (action == MotionEvent.ACTION_DOWN) {
-            // 先判断x触摸区域
-            int x = (int) event.getX();
-            if (lines.size() > 0) {
-                Line tempLine = lines.get(0);
-                for (int i = 0; i < tempLine.coordinatePoints.length; i++) {
-                    CoordinatePoint point = tempLine.coordinatePoints[i];
-                    float left = point.x - circleRadius * 3;
-                    float right = point.x + circleRadius * 3;
-                    if (x >= left && x <= right) {
-                        // 判断y触摸区域
-                        int y = (int) event.getY();
-                        for (Line line : lines) {
-                            CoordinatePoint point1 = line.coordinatePoints[i];
-                            float top = point1.y - circleRadius * 3;
-                            float bottom = point1.y + circleRadius * 3;
-                            if (y >= top && y <= bottom) {
-                                // 点在了点上，显示该点的数据
-                                String valueText = (int) point1.value + MB;
-                                showPointValue(point1.x, point1.y, valueText);
-                                return true;
-                            }
-                        }
-                    }
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (renderMode == RENDER_MODE_TEXTURE) {
+            // 由渲染线程绘制
+            return;
+        }
+        if (isStartAnimotion) {
+            isStartAnimotion = false;
+            startDrawLineAnimation();
+        }
+        drawChart(canvas);
+    }
+
+    /**
+     * 绘制整个图表,控件自身绘制和渲染线程绘制共用
+     * 
+     * @param canvas
+     * @author hubing
+     */
+    private void drawChart(Canvas canvas) {
+        synchronized (lines) {
+            long startNanos = metrics != null ? System.nanoTime() : 0;
+            // 绘制静态背景
+            drawBackground(canvas);
+            // 画线条
+            int points = drawAllLine(canvas);
+            // 画拖动查看数据的十字线
+            drawCrosshair(canvas);
+            // 画图例
+            drawLegend(canvas);
+            // 画选中的数据点值
+            drawPointValue(canvas);
+            if (metrics != null) {
+                metrics.recordDraw(System.nanoTime() - startNanos, points);
+            }
+        }
+    }
+
+    /**
+     * 创建图表当前显示内容的快照,只复制已计算好的坐标和控制点,不重新布局和计算。
+     * 快照可以在后台线程绘制,如绘制到new CanvasChartRenderer(new Canvas(bitmap))导出图片,
+     * 包含面积填充和图例,线条动画按已完成显示,不包含十字线和选中的数据点值
+     *
+     * @return 快照,控件还没有布局时返回null
+     * @author hubing
+     */
+    public ChartSnapshot createSnapshot() {
+        synchronized (lines) {
+            if (mWidth <= 0 || mHeight <= 0) {
+                return null;
+            }
+            ChartSnapshot snapshot = new ChartSnapshot(mWidth, mHeight);
+            snapshot.setStyle(lineSize, circleRadius, coordinateColor, referCircleColor, tickLabelPaint.getTextSize());
+            snapshot.setGrid(verticalLines, baseLineCount, verticalCircles, tickValues, verticalCircleCount, paddingLeft - circleRadius * 3,
+                    valueFormatter);
+            if (isZoomed()) {
+                snapshot.setClip(paddingLeft, mWidth - paddingRight);
+            }
+            if (isAreaFill) {
+                snapshot.setAreaFill(mRealChartHeight);
+            }
+            if (isLegendEnabled) {
+                snapshot.setLegend(paddingLeft, mWidth - paddingRight, legendPaint.getTextSize(), referCircleColor);
+            }
+            if (isDrawOrderDirty) {
+                isDrawOrderDirty = false;
+                updateDrawOrder();
+            }
+            for (int i = 0; i < lines.size(); i++) {
+                Line line = drawOrder[i];
+                if (line.visible && line.geometry.pointCount > 0) {
+                    snapshot.addLine(line.geometry, line.color, isSmooth, line.nameChars == null ? null : new String(line.nameChars));
                 }
             }
-            // 点击其他区域，隐藏显示点数据
-            hidePointValue();
-        } else if (action == MotionEvent.ACTION_UP) {
-            if (isClickable()) {
-                return performClick();
+            return snapshot;
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        isAttached = true;
+        if (renderMode == RENDER_MODE_TEXTURE) {
+            startRenderThread();
+        }
+        if (metricsFrameCallback != null) {
+            metricsFrameCallback.start();
+        }
+        // 重新显示时继续取出绑定队列中的数据,第一帧没有绑定的线条时自动停止
+        postSampleFrame();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        isAttached = false;
+        stopRenderThread();
+        Choreographer.getInstance().removeFrameCallback(sampleFrameCallback);
+        isSamplePosted = false;
+        if (metricsFrameCallback != null) {
+            metricsFrameCallback.stop();
+        }
+        synchronized (lines) {
+            // 释放背景缓存,重新显示时再创建
+            if (backgroundCache != null) {
+                backgroundCache.recycle();
+                backgroundCache = null;
+                backgroundCanvas = null;
+                backgroundRenderer = null;
             }
         }
-        return super.onTouchEvent(event);
     }
 
     @Override
-    public boolean performClick() {
-        return super.performClick();
+    protected Parcelable onSaveInstanceState() {
+        SavedState state = new SavedState(super.onSaveInstanceState());
+        synchronized (lines) {
+            saveState(state);
+        }
+        return state;
     }
 
     @Override
-    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-        super.onLayout(changed, left, top, right, bottom);
+    protected void onRestoreInstanceState(Parcelable state) {
+        if (!(state instanceof SavedState)) {
+            super.onRestoreInstanceState(state);
+            return;
+        }
+        SavedState savedState = (SavedState) state;
+        super.onRestoreInstanceState(savedState.getSuperState());
+        restoreState(savedState);
+    }
 
-        mHeight = getMeasuredHeight();
-        mWidth = getMeasuredWidth();
+    /**
+     * 把线条数据及标识、可见性、层级和名称,视口、数值范围及选中的点保存到状态对象中。所有数据以基本类型数组打包,
+     * 数据总数超过savedValueLimit时,较长的普通线条按列保留最小值和最大值,实时滚动线条只保留最近的数据。
+     * 外部数据序列线条和按时间显示的线条不保存,需要由应用重新添加;savedValueLimit为0时不保存任何线条
+     * 
+     * @param state
+     * @author hubing
+     */
+    private void saveState(SavedState state) {
+        state.minValue = minValue;
+        state.maxValue = maxValue;
+        state.viewportStart = viewportStart;
+        state.viewportEnd = viewportEnd;
+        state.selectedLine = -1;
+        if (savedValueLimit == 0) {
+            // 不保存线条,colors为null
+            return;
+        }
+        int lineCount = 0;
+        long total = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.source == null && line.timestamps == null) {
+                lineCount++;
+                total += line.size;
+            }
+        }
+        // 每条线条平均分配保存的数据个数
+        int budget = total > savedValueLimit ? Math.max(savedValueLimit / lineCount, MIN_VISIBLE_POINTS) : Integer.MAX_VALUE;
+        state.ids = new int[lineCount];
+        state.colors = new int[lineCount];
+        state.visibles = new boolean[lineCount];
+        state.zOrders = new int[lineCount];
+        state.names = new String[lineCount];
+        state.capacities = new int[lineCount];
+        state.sizes = new int[lineCount];
+        state.values = new float[(int) Math.min(total, (long) budget * lineCount)];
+        int[] indices = null;
+        int savedIndex = 0;
+        int offset = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            if (line.source != null || line.timestamps != null) {
+                continue;
+            }
+            state.ids[savedIndex] = line.id;
+            state.colors[savedIndex] = line.color;
+            state.visibles[savedIndex] = line.visible;
+            state.zOrders[savedIndex] = line.zOrder;
+            state.names[savedIndex] = line.nameChars != null ? new String(line.nameChars) : null;
+            int count;
+            if (line.streaming) {
+                state.capacities[savedIndex] = line.values.length;
+                // 只保留最近的数据
+                count = Math.min(line.size, budget);
+                for (int j = 0; j < count; j++) {
+                    state.values[offset + j] = line.valueAt(line.size - count + j);
+                }
+            } else if (line.size > budget) {
+                if (indices == null) {
+                    indices = new int[budget];
+                }
+                // 每列最多两个点,另加首尾两点,不超过budget
+                count = LineDecimator.minMax(line.values, 0, line.size, (budget - 2) / 2, indices);
+                for (int j = 0; j < count; j++) {
+                    state.values[offset + j] = line.values[indices[j]];
+                }
+            } else {
+                count = line.size;
+                System.arraycopy(line.values, 0, state.values, offset, count);
+            }
+            state.sizes[savedIndex] = count;
+            if (i == selectedLine && isPointVisible && !isPointHiding && selectedPoint < line.geometry.pointCount) {
+                // 按图表宽度的比例保存选中点,尺寸变化后仍能找到对应的点
+                state.selectedLine = savedIndex;
+                state.selectedX = (line.geometry.getX(selectedPoint) - paddingLeft) / (mWidth - paddingLeft - paddingRight);
+            }
+            offset += count;
+            savedIndex++;
+        }
+    }
 
-        // 计算图表显示高度
-        mRealChartHeight = mHeight - circleRadius * 2;
+    /**
+     * 从状态对象恢复线条,不播放线条动画,坐标在下一次布局时计算。没有保存线条时保留应用已添加的线条
+     * 
+     * @param state
+     * @author hubing
+     */
+    private void restoreState(SavedState state) {
+        lineAnimator.cancel();
+        synchronized (lines) {
+            minValue = state.minValue;
+            maxValue = state.maxValue;
+            updateTickValues(minValue, maxValue);
+            viewportStart = state.viewportStart;
+            viewportEnd = state.viewportEnd;
+            if (state.colors != null) {
+                lines.clear();
+                int offset = 0;
+                for (int i = 0; i < state.colors.length; i++) {
+                    // 沿用保存的标识,应用保存的标识在恢复后仍指向同一条线条
+                    Line line = new Line(state.ids[i], state.colors[i]);
+                    nextLineId = Math.max(nextLineId, state.ids[i] + 1);
+                    line.visible = state.visibles[i];
+                    line.zOrder = state.zOrders[i];
+                    line.setName(state.names[i]);
+                    int capacity = state.capacities[i];
+                    if (capacity > 0) {
+                        line.streaming = true;
+                        line.values = new float[capacity];
+                        line.window = new SlidingMinMax(capacity);
+                    }
+                    line.setValues(state.values, offset, state.sizes[i]);
+                    offset += state.sizes[i];
+                    lines.add(line);
+                }
+                onLinesChanged();
+            }
+        }
+        if (autoRange != null) {
+            // 保持保存时的坐标范围,恢复后不再播放缩放动画
+            autoRange = new AutoRange(minValue, maxValue);
+        }
+        isStartAnimotion = false;
+        synchronized (lines) {
+            revealX = Float.MAX_VALUE;
+        }
+        restoredSelectedLine = state.selectedLine;
+        restoredSelectedX = state.selectedX;
+        for (int i = 0; i < lines.size(); i++) {
+            calculateLinePosition(lines.get(i));
+        }
+        restoreSelection();
+        invalidateChart();
+    }
 
-        paddingLeft = (int) (mWidth * 0.1);
-        paddingRight = paddingLeft;
+    /**
+     * 线条坐标计算完成后显示恢复的选中点
+     * 
+     * @author hubing
+     */
+    private void restoreSelection() {
+        if (restoredSelectedLine < 0 || restoredSelectedLine >= lines.size()) {
+            return;
+        }
+        LineGeometry geometry = lines.get(restoredSelectedLine).geometry;
+        if (geometry.pointCount == 0) {
+            // 坐标尚未计算
+            return;
+        }
+        synchronized (lines) {
+            selectedLine = restoredSelectedLine;
+            selectedPoint = geometry.nearestIndex(paddingLeft + restoredSelectedX * (mWidth - paddingLeft - paddingRight));
+        }
+        restoredSelectedLine = -1;
+        showPointValue(false);
+    }
 
-        // 计算坐标背景线位置
-        calculateVerticalLines();
+    /**
+     * 标记静态背景需要重新绘制
+     * 
+     * @author hubing
+     */
+    private void invalidateBackground() {
+        isBackgroundDirty = true;
+        invalidateChart();
+    }
 
-        // 计算垂直坐标点坐标
-        calculateVerticalCircles();
+    /**
+     * 绘制静态背景,背景只在坐标参数变化时重新绘制到缓存中,其余时候直接绘制缓存
+     * 
+     * @param canvas
+     * @author hubing
+     */
+    private void drawBackground(Canvas canvas) {
+        if (mWidth <= 0 || mHeight <= 0) {
+            return;
+        }
+        if (backgroundCache == null || backgroundCache.getWidth() != mWidth || backgroundCache.getHeight() != mHeight) {
+            if (backgroundCache != null) {
+                backgroundCache.recycle();
+            }
+            backgroundCache = Bitmap.createBitmap(mWidth, mHeight, Bitmap.Config.ARGB_8888);
+            backgroundCanvas = new Canvas(backgroundCache);
+            backgroundRenderer = new CanvasChartRenderer(backgroundCanvas);
+            isBackgroundDirty = true;
+        }
+        if (isBackgroundDirty) {
+            isBackgroundDirty = false;
+            backgroundCache.eraseColor(0);
+            // 绘制坐标基准线和左侧坐标圆点
+            ChartPainter.drawGrid(backgroundRenderer, verticalLines, baseLineCount, verticalCircles, verticalCircleCount, lineSize,
+                    circleRadius, coordinateColor, referCircleColor);
+            // 绘制刻度值
+            drawTickLabels(backgroundRenderer);
+        }
+        canvas.drawBitmap(backgroundCache, 0, 0, null);
+    }
 
-        // 计算线条的位置(解决在View未测量出高度之前添加的线条无法显示的问题)
+    /**
+     * 开启绘制线条动画,所有线条共用一个动画,从左到右逐步绘制已计算好的线段
+     * 
+     * @author hubing
+     */
+    private void startDrawLineAnimation() {
+        lineAnimator.cancel();
+        // 整个图表宽度的动画时长与逐段绘制每段的时长保持一致
+        lineAnimator.setDuration(SEGMENT_ANIMATION_DURATION * (baseLineCount - 1));
+        updateRevealX(0F);
+        lineAnimator.start();
+    }
+
+    /**
+     * 更新线条已绘制到的位置
+     * 
+     * @param fraction 动画进度
+     * @author hubing
+     */
+    private void updateRevealX(float fraction) {
+        synchronized (lines) {
+            if (fraction >= 1F) {
+                revealX = Float.MAX_VALUE;
+            } else {
+                revealX = paddingLeft + fraction * (mWidth - paddingLeft - paddingRight);
+            }
+        }
+    }
+
+    /**
+     * 线条动画更新监听器
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-3-6]
+     */
+    class LineAnimatorUpdateListener implements AnimatorUpdateListener {
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            updateRevealX(animation.getAnimatedFraction());
+            invalidateChart();
+        }
+
+    }
+
+    /**
+     * 线条变形动画更新监听器,一次更新所有正在变形的线条
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-20]
+     */
+    class MorphAnimatorUpdateListener implements AnimatorUpdateListener {
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            float fraction = animation.getAnimatedFraction();
+            synchronized (lines) {
+                for (int i = 0; i < lines.size(); i++) {
+                    lines.get(i).geometry.morph(fraction);
+                }
+            }
+            invalidateChart();
+        }
+
+    }
+
+    /**
+     * 画所有要显示的线条,每条线条的线段和圆点各只提交一次绘制
+     * 
+     * @param canvas
+     * @return 绘制的点数
+     * @author hubing
+     */
+    private int drawAllLine(Canvas canvas) {
+        int points = 0;
+        boolean zoomed = isZoomed();
+        if (zoomed) {
+            // 缩放后视口两侧的点不显示
+            canvas.save();
+            canvas.clipRect(paddingLeft, 0, mWidth - paddingRight, mHeight);
+        }
+        // 先剔除隐藏和完全在可见区域外的线条,绘制成本只与可见的线条有关
+        int visibleCount = cullLines(zoomed);
+        if (isAreaFill) {
+            // 先画所有填充,线条画在填充上面
+            for (int i = 0; i < visibleCount; i++) {
+                Line line = visibleLines[i];
+                if (line.geometry.pointCount > 1) {
+                    boolean scrolled = beginScroll(canvas, line.geometry);
+                    drawLineFill(canvas, line);
+                    if (scrolled) {
+                        canvas.restore();
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < visibleCount; i++) {
+            Line line = visibleLines[i];
+            LineGeometry geometry = line.geometry;
+            boolean scrolled = beginScroll(canvas, geometry);
+            if (isSmooth && geometry.pointCount > 2 && !geometry.isMorphing()) {
+                drawLineCurve(canvas, line);
+            } else {
+                drawLineSegments(canvas, line);
+            }
+            // 画图表线条上对应的点
+            canvas.drawPoints(geometry.points, geometry.offset * 2, geometry.pointCount * 2, line.pointPaint);
+            if (scrolled) {
+                canvas.restore();
+            }
+            points += geometry.pointCount;
+        }
+        if (zoomed) {
+            canvas.restore();
+        }
+        return points;
+    }
+
+    /**
+     * 实时滚动线条的顶点数组按追加位置保存,绘制前把画布向左平移到当前窗口
+     * 
+     * @param canvas
+     * @param geometry
+     * @return 是否平移了画布,需要在绘制后恢复
+     * @author hubing
+     */
+    private boolean beginScroll(Canvas canvas, LineGeometry geometry) {
+        if (geometry.scrollX == 0) {
+            return false;
+        }
+        canvas.save();
+        canvas.translate(geometry.scrollX, 0);
+        return true;
+    }
+
+    /**
+     * 按绘制顺序选出本帧需要绘制的线条,写入visibleLines
+     * 
+     * @param zoomed 是否已缩放,缩放后只有视口内可见
+     * @return 需要绘制的线条数
+     * @author hubing
+     */
+    private int cullLines(boolean zoomed) {
+        if (isDrawOrderDirty) {
+            isDrawOrderDirty = false;
+            updateDrawOrder();
+        }
+        // 线条和圆点会超出坐标一个圆点半径
+        float left = (zoomed ? paddingLeft : 0) - circleRadius;
+        float right = (zoomed ? mWidth - paddingRight : mWidth) + circleRadius;
+        float top = -circleRadius;
+        float bottom = mHeight + circleRadius;
+        int count = 0;
         for (int i = 0; i < lines.size(); i++) {
-            // 计算线条对应的坐标点位置
+            Line line = drawOrder[i];
+            LineGeometry geometry = line.geometry;
+            int pointCount = geometry.pointCount;
+            if (!line.visible || pointCount == 0) {
+                continue;
+            }
+            if (geometry.getX(pointCount - 1) < left || geometry.getX(0) > right) {
+                continue;
+            }
+            // 在下方时连同填充都不可见,在上方时填充仍然可见
+            if (geometry.minY > bottom || geometry.maxY < top && !isAreaFill) {
+                continue;
+            }
+            visibleLines[count++] = line;
+        }
+        return count;
+    }
+
+    /**
+     * 按层级重建绘制顺序,层级相同的保持添加顺序
+     * 
+     * @author hubing
+     */
+    private void updateDrawOrder() {
+        int size = lines.size();
+        if (drawOrder.length < size) {
+            drawOrder = new Line[size];
+            visibleLines = new Line[size];
+        }
+        // 插入排序是稳定的,线条数不多且只在变化时排序
+        for (int i = 0; i < size; i++) {
             Line line = lines.get(i);
-            calculateLinePosition(line);
+            int j = i - 1;
+            while (j >= 0 && drawOrder[j].zOrder > line.zOrder) {
+                drawOrder[j + 1] = drawOrder[j];
+                j--;
+            }
+            drawOrder[j + 1] = line;
+        }
+        for (int i = size; i < drawOrder.length; i++) {
+            // 不再持有已移除的线条
+            drawOrder[i] = null;
+            visibleLines[i] = null;
+        }
+    }
+
+    /**
+     * 在图表顶部画图例,每项为线条颜色的方块和名称,排列位置只在图例变化时计算
+     * 
+     * @param canvas
+     * @author hubing
+     */
+    private void drawLegend(Canvas canvas) {
+        if (!isLegendEnabled) {
+            return;
+        }
+        if (isLegendDirty) {
+            isLegendDirty = false;
+            layoutLegend();
+        }
+        chartRenderer.setCanvas(canvas);
+        float swatch = -legendPaint.ascent();
+        float textSize = legendPaint.getTextSize();
+        for (int i = 0; i < legendCount; i++) {
+            Line line = legendLines[i];
+            ChartPainter.drawLegendItem(chartRenderer, line.nameChars, legendXs[i], legendYs[i], swatch, line.color, textSize, referCircleColor);
+        }
+    }
+
+    /**
+     * 按绘制顺序排列显示的且有名称的线条,从左到右排列,超出宽度时换行
+     * 
+     * @author hubing
+     */
+    private void layoutLegend() {
+        if (isDrawOrderDirty) {
+            isDrawOrderDirty = false;
+            updateDrawOrder();
+        }
+        int size = lines.size();
+        if (legendLines.length < size) {
+            legendLines = new Line[size];
+            legendWidths = new float[size];
+            legendXs = new float[size];
+            legendYs = new float[size];
+        }
+        legendCount = 0;
+        for (int i = 0; i < size; i++) {
+            Line line = drawOrder[i];
+            if (!line.visible || line.nameChars == null) {
+                continue;
+            }
+            legendLines[legendCount] = line;
+            legendWidths[legendCount] = line.nameWidth;
+            legendCount++;
+        }
+        float swatch = -legendPaint.ascent();
+        float rowHeight = legendPaint.descent() - legendPaint.ascent();
+        ChartPainter.layoutLegend(legendWidths, legendCount, swatch, rowHeight, paddingLeft, mWidth - paddingRight, legendXs, legendYs);
+        for (int i = legendCount; i < legendLines.length; i++) {
+            legendLines[i] = null;
+        }
+    }
+
+    /**
+     * 画线条的线段,动画过程中只画到已绘制到的位置
+     * 
+     * @param canvas
+     * @param line
+     * @author hubing
+     */
+    private void drawLineSegments(Canvas canvas, Line line) {
+        LineGeometry geometry = line.geometry;
+        // 实时滚动线条不参与动画,总是完整绘制
+        if (line.streaming || revealX == Float.MAX_VALUE) {
+            canvas.drawLines(geometry.segments, geometry.offset * 4, (geometry.pointCount - 1) * 4, line.linePaint);
+            return;
+        }
+        int revealed = geometry.countBefore(revealX);
+        if (revealed > 1) {
+            canvas.drawLines(geometry.segments, 0, (revealed - 1) * 4, line.linePaint);
+        }
+        if (revealed > 0 && revealed < geometry.pointCount && !geometry.isBreak(revealed)) {
+            // 最后一段只绘制到revealX处
+            float[] xs = geometry.xs;
+            float[] ys = geometry.ys;
+            float fraction = (revealX - xs[revealed - 1]) / (xs[revealed] - xs[revealed - 1]);
+            float y = ys[revealed - 1] + fraction * (ys[revealed] - ys[revealed - 1]);
+            canvas.drawLine(xs[revealed - 1], ys[revealed - 1], revealX, y, line.linePaint);
         }
-
     }
 
     /**
-     * 计算坐标背景线位置
+     * 画线条的平滑曲线。路径在绘制点变化后才重建,动画过程中裁剪到已绘制到的位置,不重新计算控制点。
+     * 变形时每帧的绘制点都不同,重建路径需要n次cubicTo,因此变形期间按折线绘制,结束后恢复平滑曲线
      * 
+     * @param canvas
+     * @param line
      * @author hubing
      */
-    private void calculateVerticalLines() {
-        // 计算区间宽度
-        int lineSpace = (mWidth - paddingLeft - paddingRight) / (baseLineCount - 1);
-        // 计算坐标背景线位置
-        for (int i = 0; i < verticalLines.length; i++) {
-            int startX = paddingLeft + i * lineSpace;
-            int startY = 0;
-            int endX = startX;
-            int endY = mHeight;
-            verticalLines[i].set(startX, startY, endX, endY);
+    private void drawLineCurve(Canvas canvas, Line line) {
+        LineGeometry geometry = line.geometry;
+        if (line.streaming) {
+            drawStreamCurve(canvas, line);
+            return;
         }
+        if (line.curveGeometry != geometry || line.curveVersion != geometry.version) {
+            Path path = line.curvePath;
+            path.rewind();
+            path.moveTo(geometry.xs[geometry.offset], geometry.ys[geometry.offset]);
+            appendLinePath(path, geometry, true, Float.NaN);
+            line.curveGeometry = geometry;
+            line.curveVersion = geometry.version;
+        }
+        drawRevealedPath(canvas, line, line.curvePath, line.curvePaint);
     }
 
     /**
-     * 计算左边垂直坐标点坐标
+     * 画线条下方的渐变填充。填充路径由线条的绘制点加上两端到底部的连线围成,
+     * 绘制点或平滑模式变化后才重建,渐变按颜色和高度复用。与线条一样,变形期间按折线围成,
+     * 每帧仍需重建路径,但不计算控制点,每段只需一次lineTo
      * 
+     * @param canvas
+     * @param line
      * @author hubing
      */
-    private void calculateVerticalCircles() {
-        // 计算两个圆点之间的高度
-        int verticalSpace = mRealChartHeight / (verticalCircleCount - 1);
-        // 计算垂直坐标点坐标
-        for (int i = 0; i < verticalCircles.length; i++) {
-            int x = paddingLeft;
-            int y;
-            if (i == 0) {
-                y = circleRadius;
-            } else if (i == verticalCircles.length - 1) {
-                y = mHeight - circleRadius;
-            } else {
-                y = verticalCircles[i - 1].y + verticalSpace;
-            }
-            verticalCircles[i].set(x, y);
+    private void drawLineFill(Canvas canvas, Line line) {
+        LineGeometry geometry = line.geometry;
+        boolean smooth = isSmooth && geometry.pointCount > 2 && !geometry.isMorphing();
+        LinearGradient shader = getFillShader(line.color);
+        if (line.fillShader != shader) {
+            line.fillShader = shader;
+            line.fillPaint.setShader(shader);
+        }
+        if (line.streaming && !geometry.isMorphing()) {
+            drawStreamFill(canvas, line, smooth);
+            return;
         }
+        if (line.fillGeometry != geometry || line.fillVersion != geometry.version || line.fillSmooth != smooth) {
+            Path path = line.fillPath;
+            path.rewind();
+            float bottom = mRealChartHeight;
+            int first = geometry.offset;
+            int last = first + geometry.pointCount - 1;
+            path.moveTo(geometry.xs[first], bottom);
+            path.lineTo(geometry.xs[first], geometry.ys[first]);
+            appendLinePath(path, geometry, smooth, bottom);
+            path.lineTo(geometry.xs[last], bottom);
+            path.close();
+            line.fillGeometry = geometry;
+            line.fillVersion = geometry.version;
+            line.fillSmooth = smooth;
+            // 实时滚动线条变形结束后需要重建增量的填充路径
+            line.fillEnd = -1;
+        }
+        drawRevealedPath(canvas, line, line.fillPath, line.fillPaint);
     }
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-        if (isStartAnimotion) {
-            isStartAnimotion = false;
-            startDrawLineAnimation();
-        } else {
-            // 绘制坐标基准线
-            drawCoordinateLine(canvas);
-            // 绘制左侧坐标圆点
-            drawVerticalCircle(canvas);
-            // 画线条
-            drawAllLine(canvas);
+    /**
+     * 画实时滚动线条的平滑曲线。追加点后已有段的控制点不变,只把新确定的段添加到缓存路径末尾,不重建整条路径;
+     * 第一段的起点切线和最后一段的终点切线随追加变化,不放入缓存路径,每帧单独绘制。
+     * 缓存路径在重新计算或移回数组开头后才重建,每capacity次追加最多一次
+     * 
+     * @param canvas 已平移到当前窗口的画布
+     * @param line
+     * @author hubing
+     */
+    private void drawStreamCurve(Canvas canvas, Line line) {
+        LineGeometry geometry = line.geometry;
+        geometry.updateCurves();
+        float[] xs = geometry.xs;
+        float[] ys = geometry.ys;
+        int first = geometry.offset;
+        int last = first + geometry.pointCount - 1;
+        Path path = line.curvePath;
+        if (line.curveGeometry != geometry || line.curveVersion != geometry.layoutVersion || line.curveEnd < first + 1) {
+            path.rewind();
+            path.moveTo(xs[first + 1], ys[first + 1]);
+            line.curveGeometry = geometry;
+            line.curveVersion = geometry.layoutVersion;
+            line.curveEnd = first + 1;
         }
+        line.curveEnd = appendStreamPath(path, geometry, true, line.curveEnd, last - 1);
+        // 缓存路径中已滚出窗口的部分被裁剪掉
+        canvas.save();
+        canvas.clipRect(xs[first + 1], 0, xs[line.curveEnd], mHeight);
+        canvas.drawPath(path, line.curvePaint);
+        canvas.restore();
+        Path edge = streamEdgePath;
+        edge.rewind();
+        edge.moveTo(xs[first], ys[first]);
+        appendStreamPath(edge, geometry, true, first, first + 1);
+        edge.moveTo(xs[line.curveEnd], ys[line.curveEnd]);
+        appendStreamPath(edge, geometry, true, line.curveEnd, last);
+        canvas.drawPath(edge, line.curvePaint);
     }
 
     /**
-     * 开启绘制线条动画
+     * 画实时滚动线条的渐变填充,与{@link #drawStreamCurve(Canvas, Line)}一样增量更新缓存路径。
+     * 缓存的填充路径从右侧远处的底部开始,隐式闭合的边总在已添加部分的右侧,绘制时被裁剪掉,
+     * 因此路径末尾可以继续添加;实时滚动线条在数组中的x坐标不超过图表左边界加三倍图表宽度
      * 
+     * @param canvas 已平移到当前窗口的画布
+     * @param line
+     * @param smooth 是否使用平滑曲线
      * @author hubing
      */
-    private void startDrawLineAnimation() {
-        // 创建所有线条动画集合
-        ArrayList<Animator> lineAnimators = new ArrayList<Animator>();
-        for (int i = 0; i < lines.size(); i++) {
-            // 计算线条对应的坐标点移动动画
-            Line line = lines.get(i);
+    private void drawStreamFill(Canvas canvas, Line line, boolean smooth) {
+        LineGeometry geometry = line.geometry;
+        if (smooth) {
+            geometry.updateCurves();
+        }
+        float[] xs = geometry.xs;
+        float[] ys = geometry.ys;
+        float bottom = mRealChartHeight;
+        int first = geometry.offset;
+        int last = first + geometry.pointCount - 1;
+        // 折线的各段追加后就不再变化,平滑曲线的首尾两段单独绘制
+        int start = smooth ? first + 1 : first;
+        int end = smooth ? last - 1 : last;
+        Path path = line.fillPath;
+        if (line.fillGeometry != geometry || line.fillVersion != geometry.layoutVersion || line.fillSmooth != smooth
+                || line.fillEnd < start) {
+            path.rewind();
+            path.moveTo(mWidth * 4, bottom);
+            path.lineTo(xs[start], bottom);
+            path.lineTo(xs[start], ys[start]);
+            line.fillGeometry = geometry;
+            line.fillVersion = geometry.layoutVersion;
+            line.fillSmooth = smooth;
+            line.fillEnd = start;
+        }
+        line.fillEnd = appendStreamPath(path, geometry, smooth, line.fillEnd, end);
+        canvas.save();
+        canvas.clipRect(xs[start], 0, xs[line.fillEnd], mHeight);
+        canvas.drawPath(path, line.fillPaint);
+        canvas.restore();
+        if (!smooth) {
+            return;
+        }
+        Path edge = streamEdgePath;
+        edge.rewind();
+        edge.moveTo(xs[first], bottom);
+        edge.lineTo(xs[first], ys[first]);
+        appendStreamPath(edge, geometry, true, first, start);
+        edge.lineTo(xs[start], bottom);
+        edge.close();
+        edge.moveTo(xs[line.fillEnd], bottom);
+        edge.lineTo(xs[line.fillEnd], ys[line.fillEnd]);
+        appendStreamPath(edge, geometry, true, line.fillEnd, last);
+        edge.lineTo(xs[last], bottom);
+        edge.close();
+        canvas.drawPath(edge, line.fillPaint);
+    }
 
-            // 创建单条线条动画集合
-            ArrayList<Animator> items = new ArrayList<Animator>();
-            ValueAnimator animator;
-            for (int p = 0; p < line.coordinatePoints.length; p++) {
-                // 计算线条轨迹
-                if (p == 0) {
-                    line.path.moveTo(line.coordinatePoints[p].x, line.coordinatePoints[p].y);
-                } else {
-                    CoordinatePoint startValue = line.coordinatePoints[p - 1];
-                    CoordinatePoint endValue = line.coordinatePoints[p];
-                    
-                    // 创建两点之间的线条绘制属性动画
-                    animator = ValueAnimator.ofObject(new PointEvaluator(), startValue, endValue);
-                    animator.setDuration(300);
-                    animator.addUpdateListener(new LineAnimatorUpdateListener(line));
-                    items.add(animator);
-                }
+    /**
+     * 把实时滚动线条数组中from到to位置之间的各段添加到路径中,路径的当前点需要位于from处的点
+     * 
+     * @param path
+     * @param geometry
+     * @param smooth 是否使用平滑曲线,需要先更新控制点
+     * @param from 起点在数组中的位置
+     * @param to 终点在数组中的位置
+     * @return 路径的当前点在数组中的位置,即不小于from时的to
+     * @author hubing
+     */
+    private int appendStreamPath(Path path, LineGeometry geometry, boolean smooth, int from, int to) {
+        float[] xs = geometry.xs;
+        float[] ys = geometry.ys;
+        float[] curves = geometry.curves;
+        for (int i = from + 1; i <= to; i++) {
+            if (smooth) {
+                int c = (i - 1) * 4;
+                path.cubicTo(curves[c], curves[c + 1], curves[c + 2], curves[c + 3], xs[i], ys[i]);
+            } else {
+                path.lineTo(xs[i], ys[i]);
             }
-            AnimatorSet lineSet = new AnimatorSet();
-            lineSet.playSequentially(items);
-
-            // 添加单条线条动画
-            lineAnimators.add(lineSet);
         }
-
-        // 启动所有线条动画
-        AnimatorSet set = new AnimatorSet();
-        set.playTogether(lineAnimators);
-        set.start();
+        return Math.max(from, to);
     }
 
     /**
-     * 线条动画更新监听器
+     * 从第一个绘制点开始把线条添加到路径中,路径的当前点需要位于第一个绘制点。
+     * 路径使用数组中的坐标,实时滚动线条绘制时需要平移。数据空白处线条断开,填充路径沿底部跨过空白
      * 
+     * @param path
+     * @param geometry
+     * @param smooth 是否使用平滑曲线
+     * @param fillBottom 填充路径的底部,线条路径为NaN
      * @author hubing
-     * @version [1.0.0.0, 2016-3-6]
      */
-    class LineAnimatorUpdateListener implements AnimatorUpdateListener {
-
-        private Line line;
-
-        public LineAnimatorUpdateListener(Line line) {
-            this.line = line;
+    private void appendLinePath(Path path, LineGeometry geometry, boolean smooth, float fillBottom) {
+        float[] xs = geometry.xs;
+        float[] ys = geometry.ys;
+        if (smooth) {
+            geometry.updateCurves();
         }
-
-        @Override
-        public void onAnimationUpdate(ValueAnimator animation) {
-            CoordinatePoint coordinatePoint = (CoordinatePoint) animation.getAnimatedValue();
-            line.path.lineTo(coordinatePoint.x, coordinatePoint.y);
-            invalidate();
+        float[] curves = geometry.curves;
+        int offset = geometry.offset;
+        for (int k = 1; k < geometry.pointCount; k++) {
+            int i = offset + k;
+            if (geometry.isBreak(k)) {
+                if (Float.isNaN(fillBottom)) {
+                    path.moveTo(xs[i], ys[i]);
+                } else {
+                    path.lineTo(xs[i - 1], fillBottom);
+                    path.lineTo(xs[i], fillBottom);
+                    path.lineTo(xs[i], ys[i]);
+                }
+            } else if (smooth) {
+                int c = (i - 1) * 4;
+                path.cubicTo(curves[c], curves[c + 1], curves[c + 2], curves[c + 3], xs[i], ys[i]);
+            } else {
+                path.lineTo(xs[i], ys[i]);
+            }
         }
-
     }
 
     /**
-     * 自定义坐标点估值器
+     * 画线条的缓存路径,动画过程中裁剪到已绘制到的位置
      * 
+     * @param canvas
+     * @param line
+     * @param path
+     * @param paint
      * @author hubing
-     * @version [1.0.0.0, 2016-3-6]
      */
-    static class PointEvaluator implements TypeEvaluator<CoordinatePoint> {
-
-        @Override
-        public CoordinatePoint evaluate(float fraction, CoordinatePoint startValue, CoordinatePoint endValue) {
-            CoordinatePoint cp = new CoordinatePoint();
-            cp.x = startValue.x + fraction * (endValue.x - startValue.x);
-            cp.y = startValue.y + fraction * (endValue.y - startValue.y);
-            return cp;
+    private void drawRevealedPath(Canvas canvas, Line line, Path path, Paint paint) {
+        // 实时滚动线条不参与动画,总是完整绘制
+        boolean revealing = !line.streaming && revealX != Float.MAX_VALUE;
+        if (revealing) {
+            canvas.save();
+            canvas.clipRect(0, 0, revealX, mHeight);
+        }
+        canvas.drawPath(path, paint);
+        if (revealing) {
+            canvas.restore();
         }
-
     }
 
     /**
-     * 画所有要显示的线条
+     * 获取指定颜色的面积填充渐变,从图表顶部的半透明线条颜色渐变到底部的全透明
      * 
-     * @param canvas
+     * @param color 线条颜色
+     * @return
      * @author hubing
      */
-    private void drawAllLine(Canvas canvas) {
-        for (int i = 0; i < lines.size(); i++) {
-            Line line = lines.get(i);
-            paint.setColor(line.color);
-            // 设置画线条模式
-            paint.setStyle(Style.STROKE);
-            // 绘制线条
-            canvas.drawPath(line.path, paint);
-            drawLinePoint(canvas, line.coordinatePoints);
+    private LinearGradient getFillShader(int color) {
+        long key = ((long) color << 32) | (mRealChartHeight & 0xFFFFFFFFL);
+        LinearGradient shader = fillShaders.get(key);
+        if (shader == null) {
+            shader = new LinearGradient(0, 0, 0, mRealChartHeight, ChartPainter.fillTopColor(color), ChartPainter.fillBottomColor(color),
+                    Shader.TileMode.CLAMP);
+            fillShaders.put(key, shader);
         }
+        return shader;
     }
 
     /**
-     * 画图表线条上对应的点
+     * 绘制拖动查看数据时选中点的十字线
      * 
      * @param canvas
-     * @param coordinatePoints
      * @author hubing
      */
-    private void drawLinePoint(Canvas canvas, CoordinatePoint[] coordinatePoints) {
-        if (coordinatePoints == null) {
+    private void drawCrosshair(Canvas canvas) {
+        // 每帧只读取一次选中状态
+        int lineIndex = selectedLine;
+        int pointIndex = selectedPoint;
+        if (!isScrubbing || lineIndex < 0 || lineIndex >= lines.size()) {
             return;
         }
-        paint.setStyle(Style.FILL);
-        for (int i = 0; i < coordinatePoints.length; i++) {
-            // 画点
-            canvas.drawCircle(coordinatePoints[i].x, coordinatePoints[i].y, circleRadius, paint);
+        LineGeometry geometry = lines.get(lineIndex).geometry;
+        if (pointIndex < 0 || pointIndex >= geometry.pointCount) {
+            return;
         }
+        float x = geometry.getX(pointIndex);
+        float y = geometry.getY(pointIndex);
+        canvas.drawLine(x, 0, x, mHeight, crosshairPaint);
+        canvas.drawLine(paddingLeft, y, mWidth - paddingRight, y, crosshairPaint);
     }
 
     /**
-     * 绘制左侧坐标圆点
+     * 更新刻度值和对应的圆点位置,刻度值文本在下次绘制背景时重新生成
      * 
-     * @param canvas
+     * @param min 最小值
+     * @param max 最大值
      * @author hubing
      */
-    private void drawVerticalCircle(Canvas canvas) {
-        if (verticalCircles == null) {
-            return;
+    private void updateTickValues(float min, float max) {
+        ChartGrid.tickValues(tickValues, verticalCircleCount, min, max);
+        calculateVerticalCircles();
+        isTickLabelDirty = true;
+        isBackgroundDirty = true;
+    }
+
+    /**
+     * 格式化刻度值文本,只有文本变化的刻度值才重新测量宽度
+     * 
+     * @author hubing
+     */
+    private void updateTickLabels() {
+        char[] scratch = tickLabelScratch;
+        for (int i = 0; i < verticalCircleCount; i++) {
+            int offset = i * tickLabelStride;
+            int length = valueFormatter.format(tickValues[i], scratch, 0);
+            if (length != tickLabelLengths[i] || !regionEquals(scratch, 0, tickLabelText, offset, length)) {
+                System.arraycopy(scratch, 0, tickLabelText, offset, length);
+                tickLabelLengths[i] = length;
+                tickLabelWidths[i] = tickLabelPaint.measureText(tickLabelText, offset, length);
+            }
         }
-        // 设置画笔颜色
-        paint.setColor(referCircleColor);
-        paint.setStyle(Style.FILL);
-        for (int i = 0; i < verticalCircles.length; i++) {
-            canvas.drawCircle(verticalCircles[i].x, verticalCircles[i].y, circleRadius, paint);
+    }
+
+    /**
+     * 绘制左侧坐标圆点对应的刻度值,右对齐在圆点左侧,与圆点垂直居中
+     * 
+     * @param renderer
+     * @author hubing
+     */
+    private void drawTickLabels(ChartRenderer renderer) {
+        if (isTickLabelDirty) {
+            isTickLabelDirty = false;
+            updateTickLabels();
         }
+        ChartPainter.drawTickLabels(renderer, tickLabelText, tickLabelStride, tickLabelLengths, tickLabelWidths, verticalCircles,
+                verticalCircleCount, paddingLeft - circleRadius * 3, tickLabelPaint.getTextSize(), referCircleColor);
     }
 
     /**
-     * 绘制坐标基准线
+     * 在选中的数据点下方绘制数据点值,背景大小随文本宽度变化,显示和隐藏时以背景中心缩放
      * 
      * @param canvas
      * @author hubing
      */
-    private void drawCoordinateLine(Canvas canvas) {
-        if (verticalLines == null) {
+    private void drawPointValue(Canvas canvas) {
+        // 每帧只读取一次选中状态
+        int lineIndex = selectedLine;
+        int pointIndex = selectedPoint;
+        float scale = pointScale;
+        if (!isPointVisible || lineIndex < 0 || lineIndex >= lines.size()) {
             return;
         }
-        // 设置画笔颜色
-        paint.setColor(coordinateColor);
-        for (int i = 0; i < verticalLines.length; i++) {
-            canvas.drawLine(verticalLines[i].startX, verticalLines[i].startY, verticalLines[i].endX, verticalLines[i].endY, paint);
+        LineGeometry geometry = lines.get(lineIndex).geometry;
+        if (pointIndex < 0 || pointIndex >= geometry.pointCount) {
+            return;
         }
+        float textHeight = pointTextPaint.descent() - pointTextPaint.ascent();
+        int width = Math.max(pointBackground.getMinimumWidth(), (int) Math.ceil(pointValueWidth) + pointPadding.left + pointPadding.right);
+        int height = Math.max(pointBackground.getMinimumHeight(), (int) Math.ceil(textHeight) + pointPadding.top + pointPadding.bottom);
+        int left = (int) (geometry.getX(pointIndex) + circleRadius - width / 2);
+        int top = (int) (geometry.getY(pointIndex) + circleRadius);
+        canvas.save();
+        canvas.scale(scale, scale, left + width / 2F, top + height / 2F);
+        pointBackground.setBounds(left, top, left + width, top + height);
+        pointBackground.draw(canvas);
+        // 文本在背景的内容区域内居中
+        float contentHeight = height - pointPadding.top - pointPadding.bottom;
+        float baseline = top + pointPadding.top + (contentHeight - pointTextPaint.ascent() - pointTextPaint.descent()) / 2;
+        float centerX = left + pointPadding.left + (width - pointPadding.left - pointPadding.right) / 2F;
+        canvas.drawText(pointValueText, 0, pointValueLength, centerX, baseline, pointTextPaint);
+        canvas.restore();
     }
 
     /**
-     * 坐标线对象
+     * 统计掉帧数并定时上报性能数据的帧回调,相邻两帧的间隔超过1.5倍刷新周期时记为掉帧
      * 
      * @author hubing
-     * @version [1.0.0.0, 2016-2-22]
+     * @version [1.0.0.0, 2016-4-9]
      */
-    class CoordinateLine {
+    class MetricsFrameCallback implements Choreographer.FrameCallback {
 
-        /** 起点x坐标 */
-        public int startX;
+        /** 屏幕刷新周期(纳秒) */
+        private long frameIntervalNanos;
 
-        /** 起点y坐标 */
-        public int startY;
+        /** 上一帧的时间 */
+        private long lastFrameNanos;
 
-        /** 终点x坐标 */
-        public int endX;
+        /** 当前统计周期开始的时间 */
+        private long periodStartNanos;
 
-        /** 终点y坐标 */
-        public int endY;
+        public MetricsFrameCallback() {
+            WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+            float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+            frameIntervalNanos = (long) (1000000000L / (refreshRate > 0 ? refreshRate : 60F));
+        }
+
+        /**
+         * 开始统计
+         * 
+         * @author hubing
+         */
+        public void start() {
+            lastFrameNanos = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
 
-        public CoordinateLine() {
+        /**
+         * 停止统计
+         * 
+         * @author hubing
+         */
+        public void stop() {
+            Choreographer.getInstance().removeFrameCallback(this);
         }
 
-        public CoordinateLine(int startX, int startY, int endX, int endY) {
-            this.startX = startX;
-            this.startY = startY;
-            this.endX = endX;
-            this.endY = endY;
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (lastFrameNanos == 0) {
+                periodStartNanos = frameTimeNanos;
+            } else {
+                long interval = frameTimeNanos - lastFrameNanos;
+                if (interval > frameIntervalNanos * 3 / 2) {
+                    // 按四舍五入计算间隔中错过的帧数
+                    int dropped = (int) ((interval + frameIntervalNanos / 2) / frameIntervalNanos) - 1;
+                    synchronized (lines) {
+                        metrics.recordDroppedFrames(dropped);
+                    }
+                }
+            }
+            lastFrameNanos = frameTimeNanos;
+            if (frameTimeNanos - periodStartNanos >= METRICS_REPORT_PERIOD) {
+                reportMetrics(frameTimeNanos - periodStartNanos);
+                periodStartNanos = frameTimeNanos;
+                if (metricsFrameCallback != this) {
+                    // 回调中关闭了统计
+                    return;
+                }
+            }
+            Choreographer.getInstance().postFrameCallback(this);
         }
 
+    }
+
+    /**
+     * 性能统计监听器
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-9]
+     */
+    public interface OnMetricsListener {
+
         /**
-         * 设置背景线坐标
+         * 上报一个周期的性能统计数据,在主线程回调。统计对象会被复用,回调返回后不要再访问
          * 
-         * @param startX 起点x坐标
-         * @param startY 起点y坐标
-         * @param endX 终点x坐标
-         * @param endY 终点y坐标
+         * @param metrics 性能统计数据
          * @author hubing
          */
-        public void set(int startX, int startY, int endX, int endY) {
-            this.startX = startX;
-            this.startY = startY;
-            this.endX = endX;
-            this.endY = endY;
+        void onMetrics(ChartMetrics metrics);
+
+    }
+
+    /**
+     * 图表保存的状态,线条数据以基本类型数组打包
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-18]
+     */
+    static class SavedState extends BaseSavedState {
+
+        /** 各线条标识 */
+        int[] ids;
+
+        /** 各线条颜色,为null时没有保存线条 */
+        int[] colors;
+
+        /** 各线条是否显示 */
+        boolean[] visibles;
+
+        /** 各线条层级 */
+        int[] zOrders;
+
+        /** 各线条在图例中的名称,没有名称时为null */
+        String[] names;
+
+        /** 各线条的环形缓冲区容量,0表示普通线条 */
+        int[] capacities;
+
+        /** 各线条保存的数据个数 */
+        int[] sizes;
+
+        /** 所有线条的数据值,按线条顺序连续保存 */
+        float[] values;
+
+        float minValue;
+
+        float maxValue;
+
+        double viewportStart;
+
+        double viewportEnd;
+
+        /** 选中点所在线条的索引,-1表示没有选中 */
+        int selectedLine;
+
+        /** 选中点的x坐标,占图表宽度的比例 */
+        float selectedX;
+
+        SavedState(Parcelable superState) {
+            super(superState);
+        }
+
+        private SavedState(Parcel in) {
+            super(in);
+            ids = in.createIntArray();
+            colors = in.createIntArray();
+            visibles = in.createBooleanArray();
+            zOrders = in.createIntArray();
+            names = in.createStringArray();
+            capacities = in.createIntArray();
+            sizes = in.createIntArray();
+            values = in.createFloatArray();
+            minValue = in.readFloat();
+            maxValue = in.readFloat();
+            viewportStart = in.readDouble();
+            viewportEnd = in.readDouble();
+            selectedLine = in.readInt();
+            selectedX = in.readFloat();
+        }
+
+        @Override
+        public void writeToParcel(Parcel out, int flags) {
+            super.writeToParcel(out, flags);
+            out.writeIntArray(ids);
+            out.writeIntArray(colors);
+            out.writeBooleanArray(visibles);
+            out.writeIntArray(zOrders);
+            out.writeStringArray(names);
+            out.writeIntArray(capacities);
+            out.writeIntArray(sizes);
+            out.writeFloatArray(values);
+            out.writeFloat(minValue);
+            out.writeFloat(maxValue);
+            out.writeDouble(viewportStart);
+            out.writeDouble(viewportEnd);
+            out.writeInt(selectedLine);
+            out.writeFloat(selectedX);
         }
 
+        public static final Parcelable.Creator<SavedState> CREATOR = new Parcelable.Creator<SavedState>() {
+
+            @Override
+            public SavedState createFromParcel(Parcel in) {
+                return new SavedState(in);
+            }
+
+            @Override
+            public SavedState[] newArray(int size) {
+                return new SavedState[size];
+            }
+
+        };
+
     }
 
     /**
@@ -706,6 +4176,24 @@ public class LineChartView extends FrameLayout {
 
     }
 
+    /**
+     * 带时间戳的数据值接口,用以按时间显示数据
+     * 
+     * @author hubing
+     * @version [1.0.0.0, 2016-4-29]
+     */
+    public interface ITimePointValue extends IPointValue {
+
+        /**
+         * 获取数据的时间戳,单位由应用决定,同一图表中需要一致
+         * 
+         * @return
+         * @author hubing
+         */
+        long getTimestamp();
+
+    }
+
     /**
      * 线条对象
      * 
@@ -714,67 +4202,277 @@ public class LineChartView extends FrameLayout {
      */
     class Line {
 
+        /** 线条标识 */
+        public final int id;
+
         /** 线条颜色 */
         public int color;
 
+        /** 是否显示 */
+        public boolean visible = true;
+
+        /** 层级,层级大的画在上面 */
+        public int zOrder;
+
+        /** 图例中显示的名称,null表示不显示在图例中 */
+        public char[] nameChars;
+
+        /** 名称的宽度,设置名称时测量 */
+        public float nameWidth;
+
         /** 坐标点对应的值 */
-        public IPointValue[] linePoints;
+        public float[] values;
+
+        /** 数据个数 */
+        public int size;
+
+        /** 是否为实时滚动线条,是则values作为环形缓冲区使用 */
+        public boolean streaming;
+
+        /** 绑定的数据队列,未绑定时为null */
+        public SampleQueue sampleQueue;
+
+        /** 绑定队列的合并策略 */
+        public int samplePolicy;
+
+        /** 环形缓冲区中最早数据的位置 */
+        public int start;
+
+        /** 普通线条数据的最小值,写入数据时计算 */
+        public float dataMin;
+
+        /** 普通线条数据的最大值,写入数据时计算 */
+        public float dataMax;
+
+        /** 实时滚动线条环形缓冲区内数据的最小值和最大值 */
+        public SlidingMinMax window;
+
+        /** 外部数据序列,不为null时数据不保存在values中 */
+        public SeriesSource source;
+
+        /** 时间戳数组,与values一一对应,不为null时按时间显示 */
+        public long[] timestamps;
+
+        /** 当前绘制使用的几何数据 */
+        public LineGeometry geometry = new LineGeometry();
+
+        /** 后台线程计算使用的备用几何数据,计算完成后与geometry交换 */
+        public LineGeometry backGeometry;
+
+        /** 后台线程是否正在计算几何数据 */
+        public boolean computing;
+
+        /** 后台计算期间数据或参数是否发生了变化 */
+        public boolean pendingRecompute;
+
+        /** 后台计算完成后是否播放线条动画 */
+        public boolean animateOnPublish;
+
+        /** 是否需要在下一帧重新计算坐标 */
+        public boolean geometryDirty;
+
+        /** 是否需要在下一帧播放线条动画 */
+        public boolean animatePending;
+
+        /** 是否需要在下一帧播放变形动画 */
+        public boolean morphPending;
 
-        /** 线条路径 */
-        public Path path = new Path();
+        /** 后台计算完成后是否播放变形动画 */
+        public boolean morphOnPublish;
 
-        /** 线条的点数组 */
-        public CoordinatePoint[] coordinatePoints;
+        /** 变形起点的x坐标,重新计算前从当前几何数据复制 */
+        public float[] morphXs;
 
-        public Line() {
+        /** 变形起点的y坐标 */
+        public float[] morphYs;
+
+        /** 变形起点的点数 */
+        public int morphCount;
+
+        /** 数据的最小值/最大值金字塔,数据点多于两倍像素宽度时才创建 */
+        public MinMaxPyramid pyramid;
+
+        /** 后台线程构建使用的备用金字塔,构建完成后与pyramid交换 */
+        public MinMaxPyramid backPyramid;
+
+        /** pyramid是否与当前数据一致 */
+        public boolean pyramidValid;
+
+        /** 线条画笔 */
+        public Paint linePaint;
+
+        /** 圆点画笔 */
+        public Paint pointPaint;
+
+        /** 平滑曲线画笔 */
+        public Paint curvePaint;
+
+        /** 平滑曲线路径,绘制点变化后重建,实时滚动线条追加点后在末尾添加 */
+        public Path curvePath = new Path();
+
+        /** curvePath对应的几何数据 */
+        public LineGeometry curveGeometry;
+
+        /** curvePath对应的几何数据版本,实时滚动线条为已有绘制点的版本 */
+        public int curveVersion;
+
+        /** 实时滚动线条的curvePath最后一个点在数组中的位置 */
+        public int curveEnd;
+
+        /** 面积填充画笔 */
+        public Paint fillPaint;
+
+        /** 面积填充路径,绘制点变化后重建 */
+        public Path fillPath = new Path();
+
+        /** fillPath对应的几何数据 */
+        public LineGeometry fillGeometry;
+
+        /** fillPath对应的几何数据版本 */
+        public int fillVersion;
+
+        /** fillPath是否为平滑曲线 */
+        public boolean fillSmooth;
+
+        /** 实时滚动线条的fillPath最后一个点在数组中的位置 */
+        public int fillEnd;
+
+        /** fillPaint当前使用的渐变 */
+        public LinearGradient fillShader;
+
+        public Line(int color) {
+            this(nextLineId++, color);
         }
 
-        public Line(IPointValue[] linePoints, CoordinatePoint[] coordinatePoints, int color) {
-            this.linePoints = linePoints;
-            this.coordinatePoints = coordinatePoints;
+        /**
+         * 以指定的标识创建线条,用于恢复保存的线条
+         * 
+         * @param id 线条标识
+         * @param color 线条颜色
+         */
+        public Line(int id, int color) {
+            this.id = id;
             this.color = color;
+            this.linePaint = createLinePaint(color);
+            this.curvePaint = createCurvePaint(color);
+            this.pointPaint = createPointPaint(color);
+            this.fillPaint = new Paint();
+            this.fillPaint.setAntiAlias(true);
         }
 
-    }
-
-    /**
-     * 图表上显示的坐标点实体类
-     * 
-     * @author hubing
-     * @version [1.0.0.0, 2016-2-22]
-     */
-    static class CoordinatePoint {
-
-        /** 数据值圆心x坐标值 */
-        public float x;
+        /**
+         * 设置线条的数据值,数组容量足够且没有被后台计算使用时复用已有数组
+         * 
+         * @param source 数据值数组
+         * @param offset 数据在数组中的起始位置
+         * @param length 数据个数
+         * @author hubing
+         */
+        public void setValues(float[] source, int offset, int length) {
+            if (values == null || values.length < length || computing) {
+                values = new float[streaming ? values.length : length];
+            }
+            System.arraycopy(source, offset, values, 0, length);
+            size = length;
+            start = 0;
+            // 改为使用数组中的数据,按索引显示
+            this.source = null;
+            timestamps = null;
+            if (streaming) {
+                window.clear();
+            }
+            dataMin = Float.POSITIVE_INFINITY;
+            dataMax = Float.NEGATIVE_INFINITY;
+            for (int i = 0; i < length; i++) {
+                float value = values[i];
+                if (streaming) {
+                    window.push(value);
+                }
+                dataMin = Math.min(dataMin, value);
+                dataMax = Math.max(dataMax, value);
+            }
+            // 数据变化,金字塔需要重新构建
+            pyramidValid = false;
+        }
 
-        /** 数据值圆心y坐标值 */
-        public float y;
+        /**
+         * 设置按时间显示的数据,时间戳数组容量足够时复用
+         * 
+         * @param times 时间戳数组
+         * @param source 数据值数组
+         * @param offset 数据在数组中的起始位置
+         * @param length 数据个数
+         * @author hubing
+         */
+        public void setTimeValues(long[] times, float[] source, int offset, int length) {
+            long[] reuse = timestamps;
+            setValues(source, offset, length);
+            // 后台计算使用的数组不能修改
+            timestamps = reuse != null && reuse.length >= length && !computing ? reuse : new long[length];
+            System.arraycopy(times, offset, timestamps, 0, length);
+        }
 
-        /** 图表上展示的数据值 */
-        public float value;
+        /**
+         * 设置图例中显示的名称并测量宽度
+         * 
+         * @param name 名称,null表示不显示在图例中
+         * @author hubing
+         */
+        public void setName(String name) {
+            if (name == null) {
+                nameChars = null;
+                nameWidth = 0;
+            } else {
+                nameChars = name.toCharArray();
+                nameWidth = legendPaint.measureText(nameChars, 0, nameChars.length);
+            }
+        }
 
-        public CoordinatePoint() {
+        /**
+         * 保存当前显示的绘制点作为变形起点,数组容量足够时复用
+         * 
+         * @author hubing
+         */
+        public void saveMorphStart() {
+            int count = geometry.pointCount;
+            if (morphXs == null || morphXs.length < count) {
+                morphXs = new float[count];
+                morphYs = new float[count];
+            }
+            for (int i = 0; i < count; i++) {
+                morphXs[i] = geometry.getX(i);
+                morphYs[i] = geometry.getY(i);
+            }
+            morphCount = count;
         }
 
-        public CoordinatePoint(float x, float y, float value) {
-            this.x = x;
-            this.y = y;
-            this.value = value;
+        /**
+         * 向环形缓冲区追加数据值,缓冲区已满时覆盖最早的数据
+         * 
+         * @param value 数据值
+         * @author hubing
+         */
+        public void append(float value) {
+            window.push(value);
+            int capacity = values.length;
+            if (size < capacity) {
+                values[(start + size) % capacity] = value;
+                size++;
+            } else {
+                values[start] = value;
+                start = (start + 1) % capacity;
+            }
         }
 
         /**
-         * 设置图表上显示的坐标点对象值
+         * 获取第index个数据值(按时间先后顺序)
          * 
-         * @param x
-         * @param y
-         * @param value
+         * @param index
+         * @return
          * @author hubing
          */
-        public void set(float x, float y, float value) {
-            this.x = x;
-            this.y = y;
-            this.value = value;
+        public float valueAt(int index) {
+            return values[(start + index) % values.length];
         }
 
     }
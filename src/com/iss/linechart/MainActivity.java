@@ -26,24 +26,29 @@ public class MainActivity extends Activity {
     }
     
     private void update() {
-        lcv.clearAllLines();
-
         IPointValue[] line1Points = new IPointValue[10];
         for (int i = 0; i < line1Points.length; i++) {
             float value = (float) (Math.random() * 100);
             line1Points[i] = new IPointValueImpl(value);
         }
-        int line1Color = 0xFF4cc2b6;
-        lcv.addLinePoints(line1Points, line1Color);
 
         IPointValue[] line2Points = new IPointValue[10];
         for (int i = 0; i < line2Points.length; i++) {
             float value = (float) (Math.random() * 100);
             line2Points[i] = new IPointValueImpl(value);
         }
-        int line2Color = 0xFFff7e8e;
-        lcv.addLinePoints(line2Points, line2Color);
-        
+
+        // 批量更新,两条线条在下一帧一起计算坐标、播放动画
+        lcv.beginUpdate();
+        if (lcv.getLineCount() == 0) {
+            lcv.addLinePoints(line1Points, 0xFF4cc2b6);
+            lcv.addLinePoints(line2Points, 0xFFff7e8e);
+        } else {
+            // 已有线条时从旧数据变形到新数据
+            lcv.setLineValues(0, line1Points, true);
+            lcv.setLineValues(1, line2Points, true);
+        }
+        lcv.commitUpdate();
     }
     
 }